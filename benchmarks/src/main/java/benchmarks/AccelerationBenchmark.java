@@ -0,0 +1,59 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the acceleration structures of a scene of spheres and triangles - building the structure
+ * and tracing rays through it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AccelerationBenchmark {
+    private static final int RAYS = 256;
+
+    @Param({"BVH", "GRID", "TWO_LEVEL_GRID"})
+    private Geometries.Acceleration _acceleration;
+
+    private Geometries _scene = new Geometries();
+    private Ray[] _rays = new Ray[RAYS];
+    private Hit _hit = new Hit();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        for (int i = 0; i < 10000; ++i) {
+            Point3D center = new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            _scene.add(i % 2 == 0 ? new Sphere(center, 0.5)
+                    : new Triangle(center, center.add(new Vector(1, 0, 0)), center.add(new Vector(0, 1, 0.5))));
+        }
+        _scene.build(_acceleration, ForkJoinPool.commonPool());
+        for (int k = 0; k < RAYS; ++k)
+            _rays[k] = new Ray(new Point3D(50, 50, 150),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+    }
+
+    @Benchmark
+    public Geometries build() {
+        return _scene.build(_acceleration, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public double trace() {
+        double sum = 0;
+        for (Ray ray : _rays)
+            if (_scene.findNearestIntersection(ray, Double.POSITIVE_INFINITY, _hit.reset())) sum += _hit.get_t();
+        return sum;
+    }
+}
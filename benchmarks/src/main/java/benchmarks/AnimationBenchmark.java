@@ -0,0 +1,64 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of a frame of an animation of 10000 spheres in which 1% of the spheres move - building the
+ * hierarchy again vs. updating it
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class AnimationBenchmark {
+    private static final int SPHERES = 10000;
+    private static final int MOVING = 100;
+
+    private Geometries _scene = new Geometries();
+    private Sphere[] _spheres = new Sphere[SPHERES];
+    private int _frame;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        for (int i = 0; i < SPHERES; ++i) {
+            _spheres[i] = new Sphere(new Point3D(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 100), 0.5);
+            _scene.add(_spheres[i]);
+        }
+        _scene.buildHierarchy();
+    }
+
+    /**
+     * Move the spheres of the next frame back and forth
+     */
+    private void move() {
+        Vector step = new Vector(0.1, 0, (_frame & 1) == 0 ? 0.1 : -0.1);
+        for (int i = 0; i < MOVING; ++i) {
+            Sphere sphere = _spheres[(_frame * MOVING + i * 97) % SPHERES];
+            sphere.setCenter(sphere.get_center().add(step));
+        }
+        ++_frame;
+    }
+
+    @Benchmark
+    public Geometries rebuild() {
+        move();
+        return _scene.build(Geometries.Acceleration.BVH, ForkJoinPool.commonPool());
+    }
+
+    @Benchmark
+    public Geometries update() {
+        move();
+        return _scene.update(Geometries.Acceleration.BVH, ForkJoinPool.commonPool());
+    }
+}
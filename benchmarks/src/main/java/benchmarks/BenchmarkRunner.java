@@ -0,0 +1,64 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * Entry point of the benchmarks jar. Accepts all the regular JMH command line options, with these defaults
+ * (each applies only when not given on the command line):
+ * <ul>
+ * <li>the GC profiler is attached, so allocation rate (B/op) is reported next to ns/op</li>
+ * <li>results are written as JSON to bench-results/&lt;timestamp&gt;.json, so two runs can be diffed</li>
+ * </ul>
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    /**
+     * Run the benchmarks
+     *
+     * @param args JMH command line options (e.g. a benchmark regexp, -f 1, -wi 3)
+     * @throws RunnerException            in case the benchmarks fail
+     * @throws CommandLineOptionException in case of illegal command line options
+     * @throws IOException                in case listing the benchmarks fails
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        if (cmd.shouldHelp()) {
+            cmd.showHelp();
+            return;
+        }
+        if (cmd.shouldList() || cmd.shouldListWithParams() || cmd.shouldListProfilers()
+                || cmd.shouldListResultFormats()) {
+            // let JMH handle the listing commands
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        OptionsBuilder options = new OptionsBuilder();
+        options.parent(cmd);
+        if (cmd.getProfilers().isEmpty())
+            options.addProfiler(GCProfiler.class);
+        if (!cmd.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!cmd.getResult().hasValue()) {
+            File dir = new File("bench-results");
+            dir.mkdirs();
+            String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+            options.result(new File(dir, stamp + ".json").getPath());
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,44 @@
+package benchmarks;
+
+import elements.Camera;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of constructing the camera rays of a row of pixels - a new ray per pixel vs. the incremental
+ * generator into a reusable ray (the GC profiler shows the allocation per operation)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CameraRaysBenchmark {
+    private static final int WIDTH = 3840;
+
+    private Camera _camera = new Camera(Point3D.ZERO, new Vector(0, 0, 1), new Vector(0, -1, 0));
+    private Camera.RayGenerator _generator = _camera.rayGenerator(WIDTH, 2160, 100, 384, 216);
+
+    @Benchmark
+    public double constructRayThroughPixel() {
+        double sum = 0;
+        for (int j = 0; j < WIDTH; ++j) {
+            Ray ray = _camera.constructRayThroughPixel(WIDTH, 2160, j, 1000, 100, 384, 216);
+            sum += ray.getDirectionX();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double rayGenerator() {
+        double sum = _generator.rayThroughPixel(0, 1000).getDirectionX();
+        for (int j = 1; j < WIDTH; ++j)
+            sum += _generator.nextPixel().getDirectionX();
+        return sum;
+    }
+}
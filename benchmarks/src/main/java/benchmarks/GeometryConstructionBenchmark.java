@@ -0,0 +1,72 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of building the geometries (including the validation done by their constructors)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GeometryConstructionBenchmark {
+    /**
+     * number of the vertices of the (regular, convex) polygon
+     */
+    @Param({"4", "16"})
+    public int vertices;
+
+    private Point3D[] _polygon;
+    private Point3D _a = new Point3D(0, 0, 1);
+    private Point3D _b = new Point3D(1, 0, 0);
+    private Point3D _c = new Point3D(0, 1, 0);
+    private Vector _normal = new Vector(1, 1, 1);
+    private Ray _axis = new Ray(new Point3D(1, 2, 3), new Vector(0, 0, 1));
+
+    @Setup
+    public void setup() {
+        _polygon = new Point3D[vertices];
+        for (int i = 0; i < vertices; ++i) {
+            double angle = 2 * Math.PI * i / vertices;
+            _polygon[i] = new Point3D(Math.cos(angle), Math.sin(angle), 2);
+        }
+    }
+
+    @Benchmark
+    public Polygon polygon() {
+        return new Polygon(_polygon);
+    }
+
+    @Benchmark
+    public Triangle triangle() {
+        return new Triangle(_a, _b, _c);
+    }
+
+    @Benchmark
+    public Plane planeFromPoints() {
+        return new Plane(_a, _b, _c);
+    }
+
+    @Benchmark
+    public Plane planeFromNormal() {
+        return new Plane(_a, _normal);
+    }
+
+    @Benchmark
+    public Sphere sphere() {
+        return new Sphere(_a, 2.5);
+    }
+
+    @Benchmark
+    public Tube tube() {
+        return new Tube(_axis, 1.5);
+    }
+}
@@ -0,0 +1,95 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of tracing rays through 2000 placements of a model (a mesh of 128 triangles) - instances of
+ * one shared mesh vs. a separate mesh of transformed vertices for each placement
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class InstancingBenchmark {
+    private static final int PLACEMENTS = 2000;
+    private static final int RAYS = 256;
+    private static final int GRID = 8;
+
+    private Geometries _instances = new Geometries();
+    private Geometries _copies = new Geometries();
+    private Ray[] _rays = new Ray[RAYS];
+    private Hit _hit = new Hit();
+
+    @Setup
+    public void setup() {
+        // the model - a wavy square of GRID x GRID quads
+        double[] vertices = new double[3 * (GRID + 1) * (GRID + 1)];
+        for (int i = 0; i <= GRID; ++i)
+            for (int j = 0; j <= GRID; ++j) {
+                int v = 3 * (i * (GRID + 1) + j);
+                vertices[v] = j * 0.25;
+                vertices[v + 1] = i * 0.25;
+                vertices[v + 2] = 0.2 * Math.sin(i + j);
+            }
+        int[] faces = new int[6 * GRID * GRID];
+        for (int i = 0, f = 0; i < GRID; ++i)
+            for (int j = 0; j < GRID; ++j) {
+                int a = i * (GRID + 1) + j, b = a + 1, c = a + GRID + 1, d = c + 1;
+                faces[f++] = a;
+                faces[f++] = b;
+                faces[f++] = d;
+                faces[f++] = a;
+                faces[f++] = d;
+                faces[f++] = c;
+            }
+        TriangleMesh model = new TriangleMesh(vertices, faces);
+
+        Random random = new Random(5780);
+        for (int k = 0; k < PLACEMENTS; ++k) {
+            Transform transform = Transform.rotation(new Vector(random.nextDouble(), random.nextDouble(), 1), k)
+                    .then(Transform.translation(new Vector(random.nextDouble() * 100, random.nextDouble() * 100,
+                            random.nextDouble() * 100)));
+            _instances.add(new Instance(model, transform));
+            double[] copy = new double[vertices.length];
+            for (int v = 0; v < vertices.length; v += 3) {
+                Point3D p = transform.apply(new Point3D(vertices[v], vertices[v + 1], vertices[v + 2]));
+                copy[v] = p.getX();
+                copy[v + 1] = p.getY();
+                copy[v + 2] = p.getZ();
+            }
+            _copies.add(new TriangleMesh(copy, faces));
+        }
+        _instances.buildHierarchy();
+        _copies.buildHierarchy();
+        for (int k = 0; k < RAYS; ++k)
+            _rays[k] = new Ray(new Point3D(50, 50, 150),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+    }
+
+    @Benchmark
+    public double instances() {
+        return trace(_instances);
+    }
+
+    @Benchmark
+    public double copies() {
+        return trace(_copies);
+    }
+
+    private double trace(Geometries scene) {
+        double sum = 0;
+        for (Ray ray : _rays)
+            if (scene.findNearestIntersection(ray, Double.POSITIVE_INFINITY, _hit.reset())) sum += _hit.get_t();
+        return sum;
+    }
+}
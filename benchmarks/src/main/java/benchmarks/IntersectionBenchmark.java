@@ -0,0 +1,57 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the nearest intersection of a ray with single geometries (into a reusable hit record)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class IntersectionBenchmark {
+    /**
+     * number of the vertices of the (regular, convex) polygon
+     */
+    @Param({"4", "16"})
+    public int vertices;
+
+    private Polygon _polygon;
+    private Triangle _triangle = new Triangle(new Point3D(-1, -1, 2), new Point3D(2, -1, 2), new Point3D(0, 2, 2));
+    private Sphere _sphere = new Sphere(new Point3D(0, 0, 3), 1);
+    private Ray _ray = new Ray(new Point3D(0.1, 0.2, 0), new Vector(0, 0, 1));
+    private Hit _hit = new Hit();
+
+    @Setup
+    public void setup() {
+        Point3D[] points = new Point3D[vertices];
+        for (int i = 0; i < vertices; ++i) {
+            double angle = 2 * Math.PI * i / vertices;
+            points[i] = new Point3D(Math.cos(angle), Math.sin(angle), 2);
+        }
+        _polygon = new Polygon(points);
+    }
+
+    @Benchmark
+    public boolean polygon() {
+        return _polygon.findNearestIntersection(_ray, Double.POSITIVE_INFINITY, _hit.reset());
+    }
+
+    @Benchmark
+    public boolean triangle() {
+        return _triangle.findNearestIntersection(_ray, Double.POSITIVE_INFINITY, _hit.reset());
+    }
+
+    @Benchmark
+    public boolean sphere() {
+        return _sphere.findNearestIntersection(_ray, Double.POSITIVE_INFINITY, _hit.reset());
+    }
+}
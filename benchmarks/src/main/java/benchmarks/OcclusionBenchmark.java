@@ -0,0 +1,67 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of shadow rays through a hierarchy of spheres and triangles - the nearest intersection vs.
+ * the any-hit query vs. the any-hit query with the last occluder cached
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OcclusionBenchmark {
+    private static final int RAYS = 64;
+
+    private Geometries _scene = new Geometries();
+    private Ray[] _rays = new Ray[RAYS];
+    private Hit _hit = new Hit();
+    private OccluderCache _occluders = new OccluderCache();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        for (int i = 0; i < 10000; ++i) {
+            Point3D center = new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            _scene.add(i % 2 == 0 ? new Sphere(center, 2)
+                    : new Triangle(center, center.add(new Vector(4, 0, 0)), center.add(new Vector(0, 4, 1))));
+        }
+        _scene.buildHierarchy();
+        // shadow rays of neighbouring shading points towards a light
+        for (int k = 0; k < RAYS; ++k)
+            _rays[k] = new Ray(new Point3D(50 + 0.01 * k, 50, -10), new Vector(0.2, 0.1, 1));
+    }
+
+    @Benchmark
+    public int nearest() {
+        int blocked = 0;
+        for (Ray ray : _rays)
+            if (_scene.findNearestIntersection(ray, 130, _hit.reset())) ++blocked;
+        return blocked;
+    }
+
+    @Benchmark
+    public int anyHit() {
+        int blocked = 0;
+        for (Ray ray : _rays)
+            if (_scene.isOccluded(ray, 130, _hit.reset())) ++blocked;
+        return blocked;
+    }
+
+    @Benchmark
+    public int anyHitCached() {
+        int blocked = 0;
+        for (Ray ray : _rays)
+            if (_occluders.isOccluded(_scene, 0, ray, 130)) ++blocked;
+        return blocked;
+    }
+}
@@ -0,0 +1,70 @@
+package benchmarks;
+
+import geometries.*;
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the nearest intersections of coherent rays (adjacent primary rays) with a hierarchy of
+ * spheres and triangles - the rays one by one vs. a ray packet
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PacketBenchmark {
+    /**
+     * number of the rays in a packet
+     */
+    @Param({"4", "8"})
+    public int width;
+
+    private Geometries _scene = new Geometries();
+    private Ray[] _rays;
+    private RayPacket _packet;
+    private Hit _hit = new Hit();
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        for (int i = 0; i < 10000; ++i) {
+            Point3D center = new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            _scene.add(i % 2 == 0 ? new Sphere(center, 0.7)
+                    : new Triangle(center, center.add(new Vector(1.5, 0, 0)), center.add(new Vector(0, 1.5, 0.5))));
+        }
+        _scene.buildHierarchy();
+        _rays = new Ray[width];
+        for (int k = 0; k < width; ++k)
+            _rays[k] = new Ray(new Point3D(50, 50, 150), new Vector(0.001 * k, 0.0005, -1));
+        _packet = new RayPacket(width);
+    }
+
+    @Benchmark
+    public double singleRays() {
+        double sum = 0;
+        for (Ray ray : _rays) {
+            _scene.findNearestIntersection(ray, Double.POSITIVE_INFINITY, _hit.reset());
+            sum += _hit.get_t();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double packet() {
+        _packet.reset(width);
+        for (int k = 0; k < width; ++k)
+            _packet.setRay(k, _rays[k]);
+        _scene.findNearestIntersections(_packet);
+        double sum = 0;
+        for (int k = 0; k < width; ++k)
+            sum += _packet.get_t(k);
+        return sum;
+    }
+}
@@ -0,0 +1,82 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import primitives.Point3D;
+import primitives.Util;
+import primitives.Vector;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro benchmarks of the basic operations of the primitives package (Vector, Point3D and Util)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class PrimitivesBenchmark {
+    // operands are non-final fields so the JIT can't fold the calculations into constants
+    private Vector _v1 = new Vector(1.1, -2.3, 3.7);
+    private Vector _v2 = new Vector(-0.4, 5.9, 2.2);
+    private Vector _scratch = new Vector(3, 4, 12);
+    private Point3D _p1 = new Point3D(1, 2, 3);
+    private Point3D _p2 = new Point3D(0.5, -7.25, 4.125);
+    private double _tiny = 1e-13;
+    private double _number = 0.75;
+
+
+    //********** Vector ***********/
+
+    @Benchmark
+    public double vectorDotProduct() {
+        return _v1.dotProduct(_v2);
+    }
+
+    @Benchmark
+    public Vector vectorCrossProduct() {
+        return _v1.crossProduct(_v2);
+    }
+
+    @Benchmark
+    public Vector vectorNormalize() {
+        return _scratch.normalize();
+    }
+
+    @Benchmark
+    public Vector vectorNormalized() {
+        return _v1.normalized();
+    }
+
+
+    //********** Point3D ***********/
+
+    @Benchmark
+    public Vector pointSubtract() {
+        return _p1.subtract(_p2);
+    }
+
+    @Benchmark
+    public Point3D pointAdd() {
+        return _p1.add(_v1);
+    }
+
+    @Benchmark
+    public double pointDistance() {
+        return _p1.distance(_p2);
+    }
+
+
+    //********** Util ***********/
+
+    @Benchmark
+    public boolean utilIsZero() {
+        return Util.isZero(_tiny);
+    }
+
+    @Benchmark
+    public double utilAlignZero() {
+        return Util.alignZero(_number);
+    }
+}
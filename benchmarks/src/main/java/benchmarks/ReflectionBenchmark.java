@@ -0,0 +1,63 @@
+package benchmarks;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import renderer.ImageWriter;
+import renderer.Render;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro benchmark of rendering a 100x100 image of a mirror-heavy interior (two facing mirror walls and a row of
+ * reflective transparent spheres) with up to 12 ray generations on a single thread - by the minimal accumulated
+ * attenuation below which the reflected and transparency rays aren't spawned (0 - the depth is the only limit)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class ReflectionBenchmark {
+    private static final int SIZE = 100;
+
+    /**
+     * the minimal accumulated attenuation of a spawned ray
+     */
+    @Param({"0", "0.001", "0.01"})
+    public double minK;
+
+    private Scene _scene;
+
+    @Setup
+    public void setup() {
+        Material mirror = new Material(0.1, 0.1, 20, 0, 0.8);
+        Material glass = new Material(0.1, 0.3, 50, 0.6, 0.3);
+        _scene = new Scene("reflection benchmark").setDistance(100)
+                .setCamera(new Camera(new Point3D(0, -90, 20), new Vector(0, 1, 0), new Vector(0, 0, 1)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addGeometries(new Plane(new Point3D(-30, 0, 0), new Vector(1, 0, 0)).setMaterial(mirror),
+                        new Plane(new Point3D(30, 0, 0), new Vector(-1, 0, 0)).setMaterial(mirror),
+                        new Plane(Point3D.ZERO, new Vector(0, 0, 1)).setMaterial(new Material(0.5, 0.2, 20)))
+                .addLights(new PointLight(new Color(500, 500, 500), new Point3D(0, 0, 60), 1, 0.001, 0.0001));
+        for (int i = 0; i < 5; ++i)
+            _scene.addGeometries(new Sphere(new Point3D(-20 + 10 * i, 20 * i - 40, 10), 6)
+                    .setEmission(new Color(10 * i, 20, 40)).setMaterial(glass));
+    }
+
+    @Benchmark
+    public ImageWriter render() {
+        ImageWriter image = new ImageWriter("reflection benchmark", 100, 100, SIZE, SIZE);
+        new Render(image, _scene).setThreads(1).setMaxCalcColorLevel(12).setMinCalcColorK(minK).renderImage();
+        return image;
+    }
+}
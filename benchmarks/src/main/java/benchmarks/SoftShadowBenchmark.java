@@ -0,0 +1,68 @@
+package benchmarks;
+
+import elements.AmbientLight;
+import elements.AreaLight;
+import elements.Camera;
+import geometries.Plane;
+import geometries.Sphere;
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import renderer.ImageWriter;
+import renderer.Render;
+import scene.Scene;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro benchmark of rendering a 100x100 image of spheres on a glossy floor lit by two area lights (8 to 64
+ * samples per pixel) - by the noise threshold of the adaptive sample counts (0 - always the maximal count) and by
+ * the number of threads
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SoftShadowBenchmark {
+    private static final int SIZE = 100;
+
+    /**
+     * the standard error (of a color component of 255) of a pixel's samples average
+     */
+    @Param({"0", "1", "4"})
+    public double noiseThreshold;
+
+    /**
+     * number of the rendering threads
+     */
+    @Param({"1", "4"})
+    public int threads;
+
+    private Scene _scene;
+
+    @Setup
+    public void setup() {
+        _scene = new Scene("soft shadow benchmark").setDistance(100)
+                .setCamera(new Camera(new Point3D(0, -60, 80), new Vector(0, 60, -80), new Vector(0, 80, 60)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1))
+                        .setMaterial(new Material(0.5, 0.2, 20, 0, 0.2, 0.05, 0)))
+                .addLights(new AreaLight(new Color(300, 250, 250), new Point3D(20, 0, 60), 6, 1, 0.001, 0.0001),
+                        new AreaLight(new Color(150, 150, 250), new Point3D(-30, 20, 40), 4, 1, 0.001, 0.0001));
+        for (int i = 0; i < 9; ++i)
+            _scene.addGeometries(new Sphere(new Point3D(i % 3 * 20 - 20, i / 3 * 20 - 20, 8), 6)
+                    .setMaterial(new Material(0.5, 0.5, 30)));
+    }
+
+    @Benchmark
+    public ImageWriter render() {
+        ImageWriter image = new ImageWriter("soft shadow benchmark", 100, 100, SIZE, SIZE);
+        new Render(image, _scene).setThreads(threads).setSamples(8, 64).setNoiseThreshold(noiseThreshold)
+                .renderImage();
+        return image;
+    }
+}
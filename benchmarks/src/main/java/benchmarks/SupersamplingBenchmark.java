@@ -0,0 +1,72 @@
+package benchmarks;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.DirectionalLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import renderer.ImageWriter;
+import renderer.Render;
+import scene.Scene;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro benchmark of rendering a 200x200 image of 200 spheres on a floor, supersampled on a single thread -
+ * the adaptive supersampling (the pixels are split only where their corners differ) vs. the brute-force
+ * supersampling of the same depth (threshold 0 - all the pixels are split)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class SupersamplingBenchmark {
+    private static final int SIZE = 200;
+
+    /**
+     * the sampling depth (a pixel is split into up to 4^depth parts)
+     */
+    @Param({"2", "3"})
+    public int depth;
+
+    private Scene _scene;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        _scene = new Scene("supersampling benchmark").setDistance(100)
+                .setCamera(new Camera(new Point3D(50, 50, 250), new Vector(0, 0, -1), new Vector(0, 1, 0)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addLights(new DirectionalLight(new Color(200, 200, 200), new Vector(1, 1, -2)));
+        _scene.addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1)).setMaterial(new Material(0.5, 0.5, 20)));
+        for (int i = 0; i < 200; ++i)
+            _scene.addGeometries(new Sphere(new Point3D(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 20 + 3), 3).setMaterial(new Material(0.5, 0.5, 20)));
+        _scene.get_geometries().buildHierarchy();
+    }
+
+    @Benchmark
+    public ImageWriter adaptive() {
+        return render(8);
+    }
+
+    @Benchmark
+    public ImageWriter bruteForce() {
+        return render(0);
+    }
+
+    private ImageWriter render(double threshold) {
+        ImageWriter image = new ImageWriter("supersampling benchmark", 100, 100, SIZE, SIZE);
+        new Render(image, _scene).setThreads(1).setSamplingDepth(depth).setSamplingThreshold(threshold)
+                .renderImage();
+        return image;
+    }
+}
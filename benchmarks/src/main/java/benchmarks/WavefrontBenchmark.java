@@ -0,0 +1,73 @@
+package benchmarks;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.PointLight;
+import geometries.Plane;
+import geometries.Sphere;
+import org.openjdk.jmh.annotations.*;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Vector;
+import renderer.ImageWriter;
+import renderer.Render;
+import scene.Scene;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Macro benchmark of rendering a 200x200 image of 5000 spheres on a floor lit by 8 point lights (so most of the
+ * traced rays are shadow rays) on a single thread - the depth-first mode vs. the wavefront mode (the shadow rays
+ * of a tile sorted before they are traced)
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class WavefrontBenchmark {
+    private static final int SIZE = 200;
+
+    /**
+     * size of a tile side in pixels (a wavefront batch is a tile)
+     */
+    @Param({"16", "64"})
+    public int tileSize;
+
+    private Scene _scene;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(5780);
+        _scene = new Scene("wavefront benchmark").setDistance(100)
+                .setCamera(new Camera(new Point3D(50, 50, 250), new Vector(0, 0, -1), new Vector(0, 1, 0)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1));
+        _scene.addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1)).setMaterial(new Material(0.5, 0.5, 20)));
+        for (int i = 0; i < 5000; ++i)
+            _scene.addGeometries(new Sphere(new Point3D(random.nextDouble() * 100, random.nextDouble() * 100,
+                    random.nextDouble() * 60 + 1), 1).setMaterial(new Material(0.5, 0.5, 20)));
+        for (int i = 0; i < 8; ++i)
+            _scene.addLights(new PointLight(new Color(300, 300, 300), new Point3D(random.nextDouble() * 100,
+                    random.nextDouble() * 100, 100), 1, 0.001, 0.0001));
+        _scene.get_geometries().buildHierarchy();
+    }
+
+    @Benchmark
+    public ImageWriter depthFirst() {
+        return render(false);
+    }
+
+    @Benchmark
+    public ImageWriter wavefront() {
+        return render(true);
+    }
+
+    private ImageWriter render(boolean wavefront) {
+        ImageWriter image = new ImageWriter("wavefront benchmark", 100, 100, SIZE, SIZE);
+        new Render(image, _scene).setThreads(1).setTileSize(tileSize).setWavefront(wavefront).renderImage();
+        return image;
+    }
+}
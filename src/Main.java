@@ -6,11 +6,20 @@
 // 1669535
 // hazanyichai@gmail.com
 
+import elements.*;
+import geometries.*;
 import primitives.*;
+import renderer.*;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.System.out;
 import static primitives.Util.*;
-//import geometries.Sphere;
 
 /**
  * Test program for the 1st stage
@@ -54,6 +63,8 @@ public final class Main {
             out.println("ERROR: crossProduct() for parallel vectors does not throw an exception");
         } catch (Exception e) {
         }
+        if (!v1.isParallel(v2) || v1.isParallel(v3) || v1.tryCrossProduct(v2, new MutableVector()))
+            out.println("ERROR: non throwing parallel vectors test is wrong");
         Vector vr = v1.crossProduct(v3);
         if (!isZero(vr.length() - v1.length() * v3.length()))
             out.println("ERROR: crossProduct() wrong result length");
@@ -64,17 +75,512 @@ public final class Main {
         Vector v = new Vector(1, 2, 3);
         Vector vCopy = new Vector(v);
         Vector vCopyNormalize = vCopy.normalize();
-        if (vCopy != vCopyNormalize)
-            out.println("ERROR: normalize() function creates a new vector");
+        if (vCopy == vCopyNormalize || !vCopy.equals(v))
+            out.println("ERROR: normalize() function changes the vector");
         if (!isZero(vCopyNormalize.length() - 1))
             out.println("ERROR: normalize() result is not a unit vector");
         Vector u = v.normalized();
         if (u == v)
             out.println("ERROR: normalized() function does not create a new vector");
 
+        // test scratch vector operations match the immutable ones bit-for-bit
+        Vector a = new Vector(1.1, -2.3, 3.7);
+        Vector b = new Vector(-0.4, 5.9, 2.2);
+        MutableVector ma = new MutableVector(a);
+        MutableVector mb = new MutableVector(b);
+        MutableVector tmp = new MutableVector();
+        if (!sameBits(tmp.set(ma).addInPlace(mb), a.add(b)))
+            out.println("ERROR: addInPlace() differs from add()");
+        if (!sameBits(tmp.set(ma).subtractInPlace(mb), a.subtract(b)))
+            out.println("ERROR: subtractInPlace() differs from subtract()");
+        if (!sameBits(tmp.set(ma).scaleInPlace(-3.3), a.scale(-3.3)))
+            out.println("ERROR: scaleInPlace() differs from scale()");
+        if (!sameBits(ma.crossInto(mb, tmp), a.crossProduct(b)))
+            out.println("ERROR: crossInto() differs from crossProduct()");
+        if (!sameBits(ma.crossInto(mb, ma), a.crossProduct(b)))
+            out.println("ERROR: crossInto() into its own operand differs from crossProduct()");
+        ma.set(a);
+        if (Double.doubleToRawLongBits(ma.dotProduct(mb)) != Double.doubleToRawLongBits(a.dotProduct(b)))
+            out.println("ERROR: scratch dotProduct() differs from dotProduct()");
+        if (Double.doubleToRawLongBits(ma.length()) != Double.doubleToRawLongBits(a.length()))
+            out.println("ERROR: scratch length() differs from length()");
+        if (!sameBits(tmp.set(ma).normalizeInPlace(), a.normalized()))
+            out.println("ERROR: normalizeInPlace() differs from normalized()");
+        Point3D p1 = new Point3D(1, 2, 3);
+        Point3D p2 = new Point3D(0.5, -7.25, 1e-13);
+        if (!sameBits(tmp.setSubtract(p1, p2), p1.subtract(p2)))
+            out.println("ERROR: setSubtract() differs from subtract()");
+        if (!tmp.set(ma).subtractInPlace(ma).isZeroVector())
+            out.println("ERROR: scratch vector subtracted from itself is not ZERO");
+
+        // test nearest intersection into a reusable hit record vs. the list of intersections
+        Ray ray = new Ray(new Point3D(-5, 0.5, 0), new Vector(1, 0, 0));
+        Geometry[] geometries = {
+                new Sphere(Point3D.ZERO, 1),
+                new Plane(new Point3D(1, 0, 0), new Vector(1, 0, 0)),
+                new Triangle(new Point3D(2, -1, -1), new Point3D(2, 2, -1), new Point3D(2, 0, 2)),
+                new Tube(new Ray(Point3D.ZERO, new Vector(0, 0, 1)), 1),
+                new Cylinder(1, new Ray(new Point3D(0, 0, -0.5), new Vector(0, 0, 1)), 1)};
+        Hit hit = new Hit();
+        for (Geometry geometry : geometries) {
+            List<Point3D> points = geometry.findIntersections(ray);
+            if (points == null || !geometry.findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit.reset())) {
+                out.println("ERROR: no intersection found with " + geometry);
+                continue;
+            }
+            if (!hit.getPoint().equals(points.get(0)) || !isZero(hit.get_t() - ray.get_p00().distance(points.get(0))))
+                out.println("ERROR: nearest intersection differs from the first intersection of " + geometry);
+            if (geometry.findNearestIntersection(ray, hit.get_t(), hit))
+                out.println("ERROR: intersection at the cutoff distance is not rejected by " + geometry);
+        }
+
+        // test bounding boxes and the ray/box slab test
+        if (geometries[1].isBounded() || geometries[3].isBounded())
+            out.println("ERROR: plane or tube is bounded");
+        for (Geometry geometry : geometries)
+            if (geometry.isBounded() && !geometry.getBoundingBox().intersects(ray, Double.POSITIVE_INFINITY))
+                out.println("ERROR: ray misses the bounding box of " + geometry);
+        BoundingBox box = geometries[4].getBoundingBox();
+        if (!isZero(box.getMinZ() + 0.5) || !isZero(box.getMaxZ() - 0.5) || !isZero(box.getMaxX() - 1))
+            out.println("ERROR: wrong cylinder bounding box");
+        if (box.intersects(ray, 3.5) || box.intersects(new Ray(ray.get_p00(), new Vector(-1, 0, 0)), 100))
+            out.println("ERROR: slab test accepts a far or a backward box");
+        Ray traversalRay = new Ray().set(1, 2, 3, 0, -3, 4);
+        if (!isZero(traversalRay.getInverseDirectionY() + 5.0 / 3) || traversalRay.getInverseDirectionX()
+                != Double.POSITIVE_INFINITY || traversalRay.getSignX() != 0 || traversalRay.getSignY() != 1
+                || traversalRay.getSignZ() != 0 || new Ray(traversalRay).getSignY() != 1)
+            out.println("ERROR: wrong inverse direction or sign bits of a ray");
+        Tube refilledTube = new Tube(traversalRay, 1);
+        traversalRay.set(0, 0, 0, 1, 0, 0);
+        refilledTube.get_axisRay().set(0, 0, 0, 0, 1, 0);
+        if (!refilledTube.get_axisRay().equals(new Ray(new Point3D(1, 2, 3), new Vector(0, -3, 4))))
+            out.println("ERROR: refilling a tube's axis ray changes the tube");
+
+        // test the hierarchy finds the same nearest intersections as testing all the geometries
+        Geometries scene = new Geometries(geometries[1]);
+        Random random = new Random(5780);
+        for (int i = 0; i < 1000; ++i) {
+            Point3D center = new Point3D(random.nextDouble() * 20, random.nextDouble() * 20, random.nextDouble() * 20);
+            scene.add(i % 2 == 0 ? new Sphere(center, 0.4)
+                    : new Triangle(center, center.add(new Vector(1, 0, 0)), center.add(new Vector(0, 1, 0.5))));
+        }
+        Ray[] rays = new Ray[500];
+        double[] nearest = new double[rays.length];
+        List<List<Point3D>> intersections = new ArrayList<>();
+        for (int i = 0; i < rays.length; ++i) {
+            rays[i] = new Ray(new Point3D(10, 10, 40),
+                    new Vector(random.nextDouble() - 0.5, random.nextDouble() - 0.5, -1));
+            scene.findNearestIntersection(rays[i], Double.POSITIVE_INFINITY, hit.reset());
+            nearest[i] = hit.get_t();
+            intersections.add(scene.findIntersections(rays[i]));
+        }
+        scene.buildHierarchy();
+        for (int i = 0; i < rays.length; ++i) {
+            scene.findNearestIntersection(rays[i], Double.POSITIVE_INFINITY, hit.reset());
+            if (hit.get_t() != nearest[i]) {
+                out.println("ERROR: hierarchy nearest intersection differs from the linear search");
+                break;
+            }
+        }
+
+        // test the any-hit query (directly and through the occluders cache) agrees with the nearest intersection
+        OccluderCache occluders = new OccluderCache();
+        for (int i = 0; i < rays.length; ++i) {
+            boolean blocked = nearest[i] != Double.POSITIVE_INFINITY;
+            double distance = blocked ? nearest[i] : 100;
+            if (scene.isOccluded(rays[i], distance, hit.reset())
+                    || occluders.isOccluded(scene, i % 3, rays[i], distance)
+                    || scene.isOccluded(rays[i], distance + 0.01, hit.reset()) != blocked
+                    || occluders.isOccluded(scene, i % 3, rays[i], distance + 0.01) != blocked) {
+                out.println("ERROR: occlusion differs from the nearest intersection");
+                break;
+            }
+        }
+
+        // test a packet of rays finds the same nearest intersections as the rays one by one
+        RayPacket packet = new RayPacket(8);
+        for (int i = 0; i < rays.length; i += packet.width()) {
+            packet.reset(Math.min(packet.width(), rays.length - i));
+            for (int k = 0; k < packet.size(); ++k)
+                packet.setRay(k, rays[i + k]);
+            scene.findNearestIntersections(packet);
+            for (int k = 0; k < packet.size(); ++k)
+                if (packet.get_t(k) != nearest[i + k])
+                    out.println("ERROR: packet nearest intersection differs from the single ray one");
+        }
+
+        // test the uniform and the two-level grids find the same intersections as the linear search
+        for (Geometries.Acceleration acceleration : Geometries.Acceleration.values()) {
+            scene.build(acceleration, ForkJoinPool.commonPool());
+            for (int i = 0; i < rays.length; ++i) {
+                boolean blocked = nearest[i] != Double.POSITIVE_INFINITY;
+                double distance = blocked ? nearest[i] : 100;
+                scene.findNearestIntersection(rays[i], Double.POSITIVE_INFINITY, hit.reset());
+                List<Point3D> points = scene.findIntersections(rays[i]);
+                if (hit.get_t() != nearest[i] || scene.isOccluded(rays[i], distance, hit.reset())
+                        || scene.isOccluded(rays[i], distance + 0.01, hit.reset()) != blocked
+                        || (points == null ? intersections.get(i) != null : !points.equals(intersections.get(i)))) {
+                    out.println("ERROR: " + acceleration + " intersections differ from the linear search");
+                    break;
+                }
+            }
+        }
+
+        // test a sphere set gives the same intersections as separate spheres
+        double[] xs = new double[300], ys = new double[300], zs = new double[300], radii = new double[300];
+        Geometries spheres = new Geometries();
+        for (int i = 0; i < radii.length; ++i) {
+            xs[i] = random.nextDouble() * 20;
+            ys[i] = random.nextDouble() * 20;
+            zs[i] = random.nextDouble() * 20;
+            radii[i] = 0.2 + random.nextDouble();
+            spheres.add(new Sphere(new Point3D(xs[i], ys[i], zs[i]), radii[i]));
+        }
+        SphereSet sphereSet = new SphereSet(xs, ys, zs, radii);
+        for (Ray r : rays) {
+            boolean found = spheres.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+            double t = hit.get_t();
+            Vector normal = found ? hit.getNormal() : null;
+            if (found != sphereSet.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset())
+                    || hit.get_t() != t || found && !hit.getNormal().equals(normal)
+                    || found && !sphereSet.getNormal(hit.getPoint()).equals(normal)) {
+                out.println("ERROR: sphere set intersection differs from the spheres' one");
+                break;
+            }
+        }
+
+        // test updated hierarchies (objects moved, added and removed) find the same intersections as new ones
+        Geometries animated = new Geometries();
+        List<Intersectable> animatedObjects = new ArrayList<>();
+        for (int i = 0; i < radii.length; ++i) {
+            Sphere sphere = new Sphere(new Point3D(xs[i], ys[i], zs[i]), radii[i]);
+            animated.add(sphere);
+            animatedObjects.add(sphere);
+        }
+        animated.buildHierarchy();
+        animationTest:
+        for (int frame = 0; frame < 5; ++frame) {
+            for (int i = frame; i < animatedObjects.size(); i += 7) {
+                Sphere sphere = (Sphere) animatedObjects.get(i);
+                sphere.setCenter(sphere.get_center().add(new Vector(random.nextDouble(), random.nextDouble(), 1)));
+            }
+            if (frame == 2) ((Sphere) animatedObjects.get(1)).setCenter(new Point3D(10, 10, -500));
+            Sphere added = new Sphere(new Point3D(9 + frame, 10, -2), 1);
+            animated.add(added).remove(animatedObjects.remove(3 * frame));
+            animatedObjects.add(added);
+            animated.update(Geometries.Acceleration.BVH, ForkJoinPool.commonPool());
+            for (int i = frame; i < radii.length; i += 11)
+                sphereSet.setSphere(i, xs[i] + 0.5, ys[i], zs[i] - 1, radii[i]);
+            sphereSet.update(ForkJoinPool.commonPool());
+
+            Geometries linear = new Geometries(animatedObjects.toArray(new Intersectable[0]));
+            Geometries setSpheres = new Geometries();
+            for (int i = 0; i < radii.length; ++i)
+                setSpheres.add(new Sphere(new Point3D(xs[i], ys[i], zs[i]), radii[i]));
+            for (Ray r : rays) {
+                linear.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+                double t = hit.get_t();
+                animated.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+                if (hit.get_t() != t || animated.isOccluded(r, 100, hit.reset()) != (t < 100)) {
+                    out.println("ERROR: updated hierarchy intersection differs from the linear search");
+                    break animationTest;
+                }
+                setSpheres.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+                t = hit.get_t();
+                sphereSet.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+                if (hit.get_t() != t) {
+                    out.println("ERROR: updated sphere set intersection differs from the spheres' one");
+                    break animationTest;
+                }
+            }
+        }
+
+        // test a mesh gives the same intersections as separate triangles
+        TriangleMesh mesh = new TriangleMesh(new double[]{2, -1, -1, 2, 2, -1, 2, 0, 2, 3, 0, 3},
+                new int[]{0, 1, 2, 1, 3, 2});
+        if (!mesh.findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit.reset()) || hit.get_index() != 0
+                || !hit.getPoint().equals(geometries[2].findIntersections(ray).get(0))
+                || !hit.getNormal().equals(geometries[2].getNormal(hit.getPoint())))
+            out.println("ERROR: mesh intersection differs from the triangle's one");
+
+        // test instances of a shared mesh give the same intersections as meshes of the transformed vertices
+        double[] modelVertices = {0, 0, 0, 2, 0, 0, 0, 2, 0, 0, 0, 2};
+        int[] modelFaces = {0, 2, 1, 0, 1, 3, 0, 3, 2, 1, 2, 3};
+        TriangleMesh model = new TriangleMesh(modelVertices, modelFaces);
+        Geometries instances = new Geometries(), copies = new Geometries();
+        for (int i = 0; i < 200; ++i) {
+            Transform transform = Transform.scaling(0.5 + random.nextDouble(), 0.5 + random.nextDouble(), 1)
+                    .then(Transform.rotation(new Vector(random.nextDouble(), random.nextDouble(), 1), i))
+                    .then(Transform.translation(new Vector(random.nextDouble() * 20, random.nextDouble() * 20, i % 7)));
+            instances.add(new Instance(model, transform));
+            double[] vertices = new double[modelVertices.length];
+            for (int k = 0; k < vertices.length; k += 3) {
+                Point3D p = transform.apply(new Point3D(modelVertices[k], modelVertices[k + 1], modelVertices[k + 2]));
+                vertices[k] = p.getX();
+                vertices[k + 1] = p.getY();
+                vertices[k + 2] = p.getZ();
+            }
+            copies.add(new TriangleMesh(vertices, modelFaces));
+        }
+        instances.buildHierarchy();
+        copies.buildHierarchy();
+        Transform placement = Transform.rotation(new Vector(1, 2, 3), 1).then(Transform.scaling(1, 2, 3))
+                .then(Transform.translation(new Vector(1, 0, 0)));
+        if (!placement.then(placement.inverse()).equals(Transform.IDENTITY)
+                || !placement.inverse().then(placement).equals(Transform.IDENTITY)
+                || !placement.apply(new Point3D(0, 0, 0)).equals(new Point3D(1, 0, 0)))
+            out.println("ERROR: inverse of a transform is wrong");
+        if (placement.then(placement.inverse()).hashCode() != Transform.IDENTITY.hashCode())
+            out.println("ERROR: equal transforms hash differently");
+        for (Ray r : rays) {
+            boolean found = copies.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset());
+            double t = hit.get_t();
+            Vector normal = found ? hit.getNormal() : null;
+            if (found != instances.findNearestIntersection(r, Double.POSITIVE_INFINITY, hit.reset())
+                    || found && (!isZero(hit.get_t() - t) || !hit.getNormal().equals(normal)
+                    || !instances.isOccluded(r, t + 0.01, hit.reset())
+                    || instances.isOccluded(r, t - 0.01, hit.reset()))) {
+                out.println("ERROR: instance intersection differs from the transformed mesh's one");
+                break;
+            }
+        }
+
+        // test batch validation reports all the illegal polygons
+        List<Point3D[]> batch = List.of(
+                new Point3D[]{new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(1, 1, 0), new Point3D(0, 1, 0)},
+                new Point3D[]{new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(1, 1, 1), new Point3D(0, 1, 0)},
+                new Point3D[]{new Point3D(0, 0, 0), new Point3D(1, 0, 0), new Point3D(0, 1, 0), new Point3D(1, 1, 0)});
+        if (!Polygon.validateAll(batch).keySet().equals(Set.of(1, 2)))
+            out.println("ERROR: validateAll() doesn't report exactly the illegal polygons");
+        if (Polygon.trusted(batch.get(0)).findIntersections(new Ray(new Point3D(0.5, 0.5, 1), new Vector(0, 0, -1)))
+                == null)
+            out.println("ERROR: trusted polygon is not intersected");
+
+        // test equality of geometries (without exceptions as control flow)
+        if (!new Plane(Point3D.ZERO, new Vector(0, 0, 1)).equals(new Plane(new Point3D(1, 2, 0), new Vector(0, 0, -1)))
+                || new Plane(Point3D.ZERO, new Vector(0, 0, 1)).equals(new Plane(new Point3D(0, 0, 1), new Vector(0, 0, 1))))
+            out.println("ERROR: wrong planes equality");
+        if (!geometries[3].equals(new Tube(new Ray(new Point3D(0, 0, 5), new Vector(0, 0, -1)), 1))
+                || geometries[3].equals(new Tube(new Ray(new Point3D(0, 1, 5), new Vector(0, 0, 1)), 1)))
+            out.println("ERROR: wrong tubes equality");
+
+        // test camera rays and the same image is rendered with any number of threads and any tile size
+        Camera camera = new Camera(Point3D.ZERO, new Vector(0, 0, 1), new Vector(0, -1, 0));
+        if (!camera.constructRayThroughPixel(3, 3, 1, 1, 100, 150, 150).equals(
+                new Ray(Point3D.ZERO, new Vector(0, 0, 1))))
+            out.println("ERROR: ray through the central pixel is wrong");
+        Camera.RayGenerator rayGenerator = camera.rayGenerator(101, 77, 100, 500, 500);
+        generatorTest:
+        for (int i = 0; i < 77; ++i)
+            for (int j = 0; j < 101; ++j)
+                if (!(j == 0 ? rayGenerator.rayThroughPixel(j, i) : rayGenerator.nextPixel())
+                        .equals(camera.constructRayThroughPixel(101, 77, j, i, 100, 500, 500))) {
+                    out.println("ERROR: incremental camera ray differs from the constructed one");
+                    break generatorTest;
+                }
+        ImageWriter[] images = new ImageWriter[3];
+        for (int k = 0; k < images.length; ++k) {
+            Scene render = new Scene("render test").setCamera(camera).setDistance(100)
+                    .setBackground(new Color(75, 127, 90)).setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1))
+                    .addGeometries(new Sphere(new Point3D(0, 0, 100), 50).setEmission(new Color(10, 20, 30)),
+                            new Triangle(new Point3D(100, 0, 100), new Point3D(0, 100, 100), new Point3D(100, 100, 100)),
+                            mesh);
+            images[k] = new ImageWriter("render test", 500, 500, 101, 77);
+            Render renderer = new Render(images[k], render).setThreads(k == 0 ? 1 : 4).setTileSize(k == 0 ? 16 : 7)
+                    .setVirtualThreads(k == 1).setPacketWidth(k == 2 ? 4 : 0);
+            renderer.renderImage();
+            if (renderer.isRenderedOnVirtualThreads() != (k == 1 && Render.isVirtualThreadsSupported()))
+                out.println("ERROR: rendered on virtual threads not exactly when requested and supported");
+        }
+        renderTest:
+        for (int i = 0; i < 77; ++i)
+            for (int j = 0; j < 101; ++j)
+                if (images[0].getRGB(j, i) != images[1].getRGB(j, i) || images[0].getRGB(j, i) != images[2].getRGB(j, i)) {
+                    out.println("ERROR: rendered image depends on the threads, the tiles or the packets");
+                    break renderTest;
+                }
+        if (images[0].getRGB(50, 38) != new Color(255, 191, 191).add(new Color(10, 20, 30)).getRGB()
+                || images[0].getRGB(0, 0) != new Color(75, 127, 90).getRGB())
+            out.println("ERROR: wrong rendered pixel colors");
+        if (!rayGenerator.rayThroughPoint(7, 3).equals(camera.constructRayThroughPixel(101, 77, 7, 3, 100, 500, 500)))
+            out.println("ERROR: ray through a pixel's center point differs from the ray through the pixel");
+
+        // test adaptive supersampling: flat pixels keep their color, only the edges are blended
+        ImageWriter[] sampled = new ImageWriter[2];
+        for (int k = 0; k < sampled.length; ++k) {
+            Scene render = new Scene("sampling test").setCamera(camera).setDistance(100)
+                    .setBackground(new Color(75, 127, 90)).setAmbientLight(new AmbientLight(new Color(255, 191, 191), 1))
+                    .addGeometries(new Sphere(new Point3D(0, 0, 100), 50).setEmission(new Color(10, 20, 30)),
+                            new Triangle(new Point3D(100, 0, 100), new Point3D(0, 100, 100), new Point3D(100, 100, 100)),
+                            mesh);
+            sampled[k] = new ImageWriter("sampling test", 500, 500, 101, 77);
+            new Render(sampled[k], render).setThreads(k == 0 ? 1 : 4).setTileSize(k == 0 ? 16 : 7)
+                    .setSamplingDepth(2).renderImage();
+        }
+        int blended = 0;
+        samplingTest:
+        for (int i = 0; i < 77; ++i)
+            for (int j = 0; j < 101; ++j) {
+                if (sampled[0].getRGB(j, i) != sampled[1].getRGB(j, i)) {
+                    out.println("ERROR: supersampled image depends on the threads or the tiles");
+                    break samplingTest;
+                }
+                if (sampled[0].getRGB(j, i) != images[0].getRGB(j, i)) ++blended;
+            }
+        if (sampled[0].getRGB(50, 38) != images[0].getRGB(50, 38) || sampled[0].getRGB(0, 0) != images[0].getRGB(0, 0)
+                || blended == 0 || blended > 101 * 77 / 5)
+            out.println("ERROR: adaptive supersampling should blend only the edge pixels");
+
+        // test the light index finds exactly the lights whose influence reaches a point
+        List<LightSource> lights = new ArrayList<>();
+        for (int i = 0; i < 200; ++i)
+            lights.add(i % 50 == 0 ? new DirectionalLight(new Color(10, 10, 10), new Vector(0, 0, -1))
+                    : new PointLight(new Color(random.nextDouble() * 255, 100, 50),
+                    new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100),
+                    1, 0.01, random.nextDouble() * 0.5));
+        LightIndex lightIndex = new LightIndex(lights, ForkJoinPool.commonPool());
+        LightIndex.Lights found = new LightIndex.Lights();
+        lightTest:
+        for (int i = 0; i < 100; ++i) {
+            Point3D point = new Point3D(random.nextDouble() * 100, random.nextDouble() * 100, random.nextDouble() * 100);
+            lightIndex.findLights(point, found);
+            for (int l = 0, k = 0; l < lights.size(); ++l) {
+                boolean reaches = !(lights.get(l) instanceof PointLight)
+                        || point.distance(((PointLight) lights.get(l)).get_position())
+                        <= lights.get(l).getInfluenceRadius();
+                if (reaches != (k < found.size() && found.get(k) == l)) {
+                    out.println("ERROR: light index differs from testing all the lights");
+                    break lightTest;
+                }
+                if (reaches) ++k;
+            }
+        }
+
+        // test lighting and shadows: a sphere above a floor shadows the floor from a directional light
+        Scene lit = new Scene("lighting test").setDistance(100)
+                .setCamera(new Camera(new Point3D(0, 0, 100), new Vector(0, 0, -1), new Vector(0, 1, 0)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1)).setMaterial(new Material(0.5, 0.5, 20)),
+                        new Sphere(new Point3D(0, 0, 20), 10).setMaterial(new Material(0.5, 0.5, 20)))
+                .addLights(new DirectionalLight(new Color(200, 100, 100), new Vector(1, 0, -1)),
+                        new SpotLight(new Color(500, 500, 500), new Point3D(0, 50, 60), new Vector(0, -1, -1),
+                                1, 0.01, 0.001));
+        ImageWriter[] litImages = new ImageWriter[3];
+        for (int k = 0; k < litImages.length; ++k) {
+            litImages[k] = new ImageWriter("lighting test", 200, 200, 21, 21);
+            new Render(litImages[k], lit).setThreads(k == 0 ? 1 : 3).setPacketWidth(k == 1 ? 8 : 0)
+                    .setTileSize(k == 2 ? 9 : 16).setWavefront(k == 2).renderImage();
+        }
+        litTest:
+        for (int i = 0; i < 21; ++i)
+            for (int j = 0; j < 21; ++j)
+                if (litImages[0].getRGB(j, i) != litImages[1].getRGB(j, i)
+                        || litImages[0].getRGB(j, i) != litImages[2].getRGB(j, i)) {
+                    out.println("ERROR: lit image depends on the threads, the packets or the wavefront mode");
+                    break litTest;
+                }
+        java.awt.Color shadowed = new java.awt.Color(litImages[0].getRGB(12, 10));
+        java.awt.Color unshadowed = new java.awt.Color(litImages[0].getRGB(8, 10));
+        if (shadowed.getRed() >= unshadowed.getRed() || shadowed.getRed() < 20)
+            out.println("ERROR: wrong shadow of the directional light");
+        Scene longNormal = new Scene("lighting test").setDistance(100)
+                .setCamera(new Camera(new Point3D(0, 0, 100), new Vector(0, 0, -1), new Vector(0, 1, 0)))
+                .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 5)).setMaterial(new Material(0.5, 0.5, 20)),
+                        new Sphere(new Point3D(0, 0, 20), 10).setMaterial(new Material(0.5, 0.5, 20)))
+                .addLights(new DirectionalLight(new Color(200, 100, 100), new Vector(1, 0, -1)),
+                        new SpotLight(new Color(500, 500, 500), new Point3D(0, 50, 60), new Vector(0, -1, -1),
+                                1, 0.01, 0.001));
+        ImageWriter longNormalImage = new ImageWriter("lighting test", 200, 200, 21, 21);
+        new Render(longNormalImage, longNormal).setThreads(1).renderImage();
+        longNormalTest:
+        for (int i = 0; i < 21; ++i)
+            for (int j = 0; j < 21; ++j)
+                if (litImages[0].getRGB(j, i) != longNormalImage.getRGB(j, i)) {
+                    out.println("ERROR: a plane's normal length changes its shading");
+                    break longNormalTest;
+                }
+
+        // test reflection and transparency: a mirror floor under a transparent sphere and an opaque sphere
+        Scene mirrors = new Scene("reflection test").setDistance(100)
+                .setCamera(new Camera(new Point3D(0, -60, 80), new Vector(0, 60, -80), new Vector(0, 80, 60)))
+                .setBackground(new Color(30, 60, 90)).setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                .addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1)).setMaterial(new Material(0.3, 0.2, 20, 0, 0.5)),
+                        new Sphere(new Point3D(-12, 0, 12), 10).setMaterial(new Material(0.2, 0.5, 30, 0.6, 0.2)),
+                        new Sphere(new Point3D(12, 5, 10), 8).setEmission(new Color(50, 0, 0))
+                                .setMaterial(new Material(0.5, 0.5, 20, 0, 0.4)))
+                .addLights(new DirectionalLight(new Color(200, 150, 150), new Vector(1, 1, -1)),
+                        new PointLight(new Color(400, 400, 400), new Point3D(0, -20, 50), 1, 0.01, 0.001));
+        ImageWriter[] mirrorImages = new ImageWriter[5];
+        for (int k = 0; k < mirrorImages.length; ++k) {
+            mirrorImages[k] = new ImageWriter("reflection test", 100, 100, 31, 31);
+            new Render(mirrorImages[k], mirrors).setThreads(k == 0 ? 1 : 3).setPacketWidth(k == 1 ? 8 : 0)
+                    .setTileSize(k == 2 ? 9 : 16).setWavefront(k == 2)
+                    .setMaxCalcColorLevel(k == 3 ? 1 : 10).setMinCalcColorK(k == 4 ? 0.7 : 0.001).renderImage();
+        }
+        int reflecting = 0;
+        mirrorTest:
+        for (int i = 0; i < 31; ++i)
+            for (int j = 0; j < 31; ++j) {
+                if (mirrorImages[0].getRGB(j, i) != mirrorImages[1].getRGB(j, i)
+                        || mirrorImages[0].getRGB(j, i) != mirrorImages[2].getRGB(j, i)) {
+                    out.println("ERROR: reflections depend on the threads, the packets or the wavefront mode");
+                    break mirrorTest;
+                }
+                if (mirrorImages[3].getRGB(j, i) != mirrorImages[4].getRGB(j, i)) {
+                    out.println("ERROR: invisible reflected and transparency rays should not be spawned");
+                    break mirrorTest;
+                }
+                if (mirrorImages[0].getRGB(j, i) != mirrorImages[3].getRGB(j, i)) ++reflecting;
+            }
+        if (reflecting < 31 * 31 / 2)
+            out.println("ERROR: the mirror floor should reflect");
+
+        // test soft shadows and glossy reflection: the same image at any number of threads and in the wavefront mode
+        ImageWriter[] softImages = new ImageWriter[4];
+        for (int k = 0; k < softImages.length; ++k) {
+            Scene soft = new Scene("soft shadows test").setDistance(100)
+                    .setCamera(new Camera(new Point3D(0, 0, 100), new Vector(0, 0, -1), new Vector(0, 1, 0)))
+                    .setAmbientLight(new AmbientLight(new Color(20, 20, 20), 1))
+                    .addGeometries(new Plane(Point3D.ZERO, new Vector(0, 0, 1))
+                                    .setMaterial(new Material(0.5, 0.2, 20, 0, 0.2, 0.1, 0)),
+                            new Sphere(new Point3D(0, 0, 20), 8).setMaterial(new Material(0.5, 0.5, 20)))
+                    .addLights(new AreaLight(new Color(300, 300, 300), new Point3D(10, 0, 60), k == 3 ? 0 : 8,
+                            1, 0.001, 0.0001));
+            softImages[k] = new ImageWriter("soft shadows test", 100, 100, 31, 31);
+            new Render(softImages[k], soft).setThreads(k == 0 ? 1 : 3).setTileSize(k == 0 ? 16 : k == 1 ? 7 : 9)
+                    .setWavefront(k == 2).renderImage();
+        }
+        int penumbra = 0;
+        softTest:
+        for (int i = 0; i < 31; ++i)
+            for (int j = 0; j < 31; ++j) {
+                if (softImages[0].getRGB(j, i) != softImages[1].getRGB(j, i)
+                        || softImages[0].getRGB(j, i) != softImages[2].getRGB(j, i)) {
+                    out.println("ERROR: sampled image depends on the threads, the tiles or the wavefront mode");
+                    break softTest;
+                }
+                if (softImages[0].getRGB(j, i) != softImages[3].getRGB(j, i)) ++penumbra;
+            }
+        if (penumbra == 0)
+            out.println("ERROR: an area light should cast a soft shadow");
+
         out.println("If there were no any other outputs - all tests succeeded!");
 
         //Sphere sp = new Sphere(v.get_head(),2.222);
         //sp.get_radius();
     }
+
+    /**
+     * Checks that a scratch vector holds exactly (bit-for-bit) the same coordinates as a vector
+     *
+     * @param m scratch vector
+     * @param v vector
+     * @return true if all three coordinates have the same bits
+     */
+    private static boolean sameBits(MutableVector m, Vector v) {
+        return Double.doubleToRawLongBits(m.getX()) == Double.doubleToRawLongBits(v.getX()) &&
+                Double.doubleToRawLongBits(m.getY()) == Double.doubleToRawLongBits(v.getY()) &&
+                Double.doubleToRawLongBits(m.getZ()) == Double.doubleToRawLongBits(v.getZ());
+    }
 }
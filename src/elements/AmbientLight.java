@@ -0,0 +1,22 @@
+package elements;
+
+import primitives.Color;
+
+/**
+ * Class AmbientLight is the fill light of the whole scene - its intensity is the original color scaled by
+ * the attenuation factor kA.
+ */
+public class AmbientLight extends Light {
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of the ambient light
+     *
+     * @param iA the original color of the light
+     * @param kA the attenuation factor
+     */
+    public AmbientLight(Color iA, double kA) {
+        super(iA.scale(kA));
+    }
+}
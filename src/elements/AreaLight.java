@@ -0,0 +1,83 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+
+/**
+ * Class AreaLight is a point light with a size - a glowing ball (e.g. a lamp's bulb) which casts soft shadows.
+ * Seen from a lit point the ball is a disk facing the point; the renderer estimates how much of the disk is
+ * visible by shadow rays to sample points of the disk. The intensity and the direction of the light are those of
+ * the ball's center, as of a point light.
+ */
+public class AreaLight extends PointLight {
+    private final double _size;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an area light
+     *
+     * @param intensity the intensity of the light
+     * @param position  the center of the light
+     * @param size      the radius of the light
+     * @param kC        constant attenuation factor
+     * @param kL        linear attenuation factor
+     * @param kQ        quadratic attenuation factor
+     * @throws IllegalArgumentException in case of a negative radius
+     */
+    public AreaLight(Color intensity, Point3D position, double size, double kC, double kL, double kQ) {
+        super(intensity, position, kC, kL, kQ);
+        if (size < 0)
+            throw new IllegalArgumentException("Area light's radius must not be negative");
+        _size = size;
+    }
+
+
+    //********** Getters ***********/
+
+    public double get_size() {
+        return _size;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * A sample point of the light's disk as seen from a point - uniformly distributed over the disk for uniformly
+     * distributed coordinates
+     *
+     * @param p the lit point
+     * @param u first sample coordinate in [0, 1)
+     * @param v second sample coordinate in [0, 1)
+     * @return new point of the disk facing the lit point through the light's center
+     */
+    public Point3D getSamplePoint(Point3D p, double u, double v) {
+        double cx = _position.getX(), cy = _position.getY(), cz = _position.getZ();
+        double wx = cx - p.getX(), wy = cy - p.getY(), wz = cz - p.getZ();
+        double length = Math.sqrt(wx * wx + wy * wy + wz * wz);
+        wx /= length;
+        wy /= length;
+        wz /= length;
+        // an axis of the disk - perpendicular to w (crossed with the coordinate axis least parallel to it)
+        double ax, ay, az;
+        if (Math.abs(wx) < 0.9) {
+            ax = 0;
+            ay = wz;
+            az = -wy;
+        } else {
+            ax = -wz;
+            ay = 0;
+            az = wx;
+        }
+        double a = Math.sqrt(ax * ax + ay * ay + az * az);
+        ax /= a;
+        ay /= a;
+        az /= a;
+        // the other axis - w x a
+        double bx = wy * az - wz * ay, by = wz * ax - wx * az, bz = wx * ay - wy * ax;
+        double r = _size * Math.sqrt(u), angle = 2 * Math.PI * v;
+        double s = r * Math.cos(angle), t = r * Math.sin(angle);
+        return new Point3D(cx + s * ax + t * bx, cy + s * ay + t * by, cz + s * az + t * bz);
+    }
+}
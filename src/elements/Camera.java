@@ -0,0 +1,183 @@
+package elements;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import static primitives.Util.isZero;
+
+/**
+ * Class Camera is the view point of the scene - a location and three orthogonal unit directions: towards the view
+ * plane, up and right. The camera constructs the rays through the pixels of the view plane.
+ * A camera is immutable, so it can be shared by all the rendering threads.
+ * <p>
+ * For rendering, each thread takes its own {@link RayGenerator} which constructs the pixels' rays incrementally
+ * into a single reusable ray, without allocating anything per pixel.
+ */
+public class Camera {
+    final Point3D _p0;
+    final Vector _vTo;
+    final Vector _vUp;
+    final Vector _vRight;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of the camera, the right direction is calculated from the other two
+     *
+     * @param p0  location of the camera
+     * @param vTo direction towards the view plane
+     * @param vUp up direction
+     * @throws IllegalArgumentException in case the directions are not orthogonal
+     */
+    public Camera(Point3D p0, Vector vTo, Vector vUp) {
+        if (!isZero(vTo.dotProduct(vUp)))
+            throw new IllegalArgumentException("The camera's directions are not orthogonal");
+        _p0 = p0;
+        _vTo = vTo.normalized();
+        _vUp = vUp.normalized();
+        _vRight = _vTo.crossProduct(_vUp).normalize();
+    }
+
+
+    //********** Getters ***********/
+
+    public Point3D get_p0() {
+        return _p0;
+    }
+
+    public Vector get_vTo() {
+        return _vTo;
+    }
+
+    public Vector get_vUp() {
+        return _vUp;
+    }
+
+    public Vector get_vRight() {
+        return _vRight;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * Constructs the ray from the camera through the center of a pixel of the view plane
+     *
+     * @param nX             number of pixels in a row of the view plane
+     * @param nY             number of pixels in a column of the view plane
+     * @param j              column of the pixel
+     * @param i              row of the pixel
+     * @param screenDistance distance from the camera to the view plane
+     * @param screenWidth    width of the view plane
+     * @param screenHeight   height of the view plane
+     * @return the ray through the pixel
+     */
+    public Ray constructRayThroughPixel(int nX, int nY, int j, int i,
+                                       double screenDistance, double screenWidth, double screenHeight) {
+        double rX = screenWidth / nX;
+        double rY = screenHeight / nY;
+        double xJ = (j - (nX - 1) / 2d) * rX;
+        double yI = (i - (nY - 1) / 2d) * rY;
+
+        Point3D pIJ = _p0.add(_vTo.scale(screenDistance));
+        if (!isZero(xJ)) pIJ = pIJ.add(_vRight.scale(xJ));
+        if (!isZero(yI)) pIJ = pIJ.add(_vUp.scale(-yI));
+        return new Ray(_p0, pIJ.subtract(_p0));
+    }
+
+    /**
+     * Create a generator of the rays through the pixels of the view plane (to be used by a single thread)
+     *
+     * @param nX             number of pixels in a row of the view plane
+     * @param nY             number of pixels in a column of the view plane
+     * @param screenDistance distance from the camera to the view plane
+     * @param screenWidth    width of the view plane
+     * @param screenHeight   height of the view plane
+     * @return new ray generator
+     */
+    public RayGenerator rayGenerator(int nX, int nY, double screenDistance, double screenWidth, double screenHeight) {
+        return new RayGenerator(this, nX, nY, screenDistance, screenWidth, screenHeight);
+    }
+
+    /**
+     * Class RayGenerator constructs the rays through the pixels of a view plane into a single reusable ray.
+     * <p>
+     * The (non normalized) direction to the center of the view plane and the steps between adjacent columns and
+     * rows are calculated once; the direction of a pixel is the previous pixel's direction plus the column step,
+     * and the direction of the first pixel of a run is calculated directly (so the error doesn't accumulate over
+     * the whole image). The generator and its ray are owned by a single thread - the ray is overwritten by the next
+     * call, so it mustn't be kept.
+     */
+    public static final class RayGenerator {
+        private final double _ox, _oy, _oz;
+        // direction to the pixel (0, 0)
+        private final double _cx, _cy, _cz;
+        // step to the next column and to the next row
+        private final double _sjx, _sjy, _sjz;
+        private final double _six, _siy, _siz;
+
+        private final Ray _ray = new Ray();
+        // direction to the current pixel
+        private double _dx, _dy, _dz;
+
+        private RayGenerator(Camera camera, int nX, int nY,
+                             double screenDistance, double screenWidth, double screenHeight) {
+            double rX = screenWidth / nX;
+            double rY = screenHeight / nY;
+            Vector right = camera._vRight, up = camera._vUp, to = camera._vTo;
+            _ox = camera._p0.getX();
+            _oy = camera._p0.getY();
+            _oz = camera._p0.getZ();
+            _sjx = right.getX() * rX;
+            _sjy = right.getY() * rX;
+            _sjz = right.getZ() * rX;
+            _six = -up.getX() * rY;
+            _siy = -up.getY() * rY;
+            _siz = -up.getZ() * rY;
+            double j0 = -(nX - 1) / 2d, i0 = -(nY - 1) / 2d;
+            _cx = to.getX() * screenDistance + j0 * _sjx + i0 * _six;
+            _cy = to.getY() * screenDistance + j0 * _sjy + i0 * _siy;
+            _cz = to.getZ() * screenDistance + j0 * _sjz + i0 * _siz;
+        }
+
+        /**
+         * Construct the ray through the center of a pixel (and start a run of pixels in its row)
+         *
+         * @param j column of the pixel
+         * @param i row of the pixel
+         * @return the generator's ray, set through the pixel
+         */
+        public Ray rayThroughPixel(int j, int i) {
+            _dx = _cx + j * _sjx + i * _six;
+            _dy = _cy + j * _sjy + i * _siy;
+            _dz = _cz + j * _sjz + i * _siz;
+            return _ray.set(_ox, _oy, _oz, _dx, _dy, _dz);
+        }
+
+        /**
+         * Construct the ray through any point of the view plane (it doesn't start a run of pixels)
+         *
+         * @param j column coordinate of the point - a pixel's center is at its column, its sides at &plusmn;0.5
+         * @param i row coordinate of the point - a pixel's center is at its row, its sides at &plusmn;0.5
+         * @return the generator's ray, set through the point
+         */
+        public Ray rayThroughPoint(double j, double i) {
+            return _ray.set(_ox, _oy, _oz, _cx + j * _sjx + i * _six, _cy + j * _sjy + i * _siy,
+                    _cz + j * _sjz + i * _siz);
+        }
+
+        /**
+         * Construct the ray through the center of the next pixel in the row of the previous one
+         *
+         * @return the generator's ray, set through the next pixel
+         */
+        public Ray nextPixel() {
+            _dx += _sjx;
+            _dy += _sjy;
+            _dz += _sjz;
+            return _ray.set(_ox, _oy, _oz, _dx, _dy, _dz);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+/**
+ * Class DirectionalLight is a light source far away (e.g. the sun) - it lights the whole scene from the same
+ * direction with no attenuation
+ */
+public class DirectionalLight extends Light implements LightSource {
+    private final Vector _direction;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a directional light
+     *
+     * @param intensity the intensity of the light
+     * @param direction the direction of the light
+     */
+    public DirectionalLight(Color intensity, Vector direction) {
+        super(intensity);
+        _direction = direction.normalized();
+    }
+
+
+    //********** Getters ***********/
+
+    @Override
+    public Color getIntensity(Point3D p) {
+        return _intensity;
+    }
+
+    @Override
+    public Vector getL(Point3D p) {
+        return _direction;
+    }
+
+    @Override
+    public double getDistance(Point3D p) {
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,29 @@
+package elements;
+
+import primitives.Color;
+
+/**
+ * Abstract class Light is the base of all the lights of a scene - a light has an (original) intensity
+ */
+public abstract class Light {
+    protected final Color _intensity;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a light
+     *
+     * @param intensity the intensity (color) of the light
+     */
+    protected Light(Color intensity) {
+        _intensity = intensity;
+    }
+
+
+    //********** Getters ***********/
+
+    public Color getIntensity() {
+        return _intensity;
+    }
+}
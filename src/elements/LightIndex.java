@@ -0,0 +1,195 @@
+package elements;
+
+import geometries.BVH;
+import geometries.BoundedElements;
+import geometries.Hit;
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+
+/**
+ * Class LightIndex is a spatial index of the light sources of a scene which finds the lights that can light
+ * a point: the lights of a bounded influence (point and spot lights, see {@link LightSource#getInfluenceRadius()})
+ * are held in a {@link BVH} over the boxes of their spheres of influence, the rest of the lights (e.g. directional
+ * lights) light every point.
+ * <p>
+ * The lights keep their indices in the scene's list of lights (e.g. for {@link geometries.OccluderCache} slots).
+ * The index is immutable, it may be queried concurrently - each thread with its own {@link Lights} result.
+ */
+public final class LightIndex {
+    private final LightSource[] _lights;
+    // indices of the lights which light every point
+    private final int[] _global;
+    // indices of the lights of bounded influence (by their elements' indices in the hierarchy)
+    private final int[] _bounded;
+    private final double[] _positions;
+    private final double[] _radii;
+    private final BVH _hierarchy;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Build an index of lights
+     *
+     * @param lights the lights
+     * @param pool   the fork-join pool for building the hierarchy in parallel
+     */
+    public LightIndex(List<LightSource> lights, ForkJoinPool pool) {
+        _lights = lights.toArray(new LightSource[0]);
+        int global = 0;
+        for (LightSource light : _lights)
+            if (!(light instanceof PointLight) || light.getInfluenceRadius() == Double.POSITIVE_INFINITY) ++global;
+        _global = new int[global];
+        _bounded = new int[_lights.length - global];
+        _positions = new double[3 * _bounded.length];
+        _radii = new double[_bounded.length];
+        for (int i = 0, g = 0, b = 0; i < _lights.length; ++i) {
+            LightSource light = _lights[i];
+            if (!(light instanceof PointLight) || light.getInfluenceRadius() == Double.POSITIVE_INFINITY) {
+                _global[g++] = i;
+                continue;
+            }
+            Point3D position = ((PointLight) light).get_position();
+            _positions[3 * b] = position.getX();
+            _positions[3 * b + 1] = position.getY();
+            _positions[3 * b + 2] = position.getZ();
+            _radii[b] = light.getInfluenceRadius();
+            _bounded[b++] = i;
+        }
+        _hierarchy = new BVH(new Influences(), pool);
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return number of the lights
+     */
+    public int size() {
+        return _lights.length;
+    }
+
+    /**
+     * @param index the light's index
+     * @return the light
+     */
+    public LightSource get(int index) {
+        return _lights[index];
+    }
+
+
+    //********** Operations ***********/
+
+    /**
+     * Find the lights which can light a point
+     *
+     * @param point  the point
+     * @param result the (reusable) result - the indices of the lights, in the order of the lights
+     * @return the result
+     */
+    public Lights findLights(Point3D point, Lights result) {
+        result._count = 0;
+        for (int index : _global)
+            result.add(index);
+        result._x = point.getX();
+        result._y = point.getY();
+        result._z = point.getZ();
+        result._index = this;
+        _hierarchy.findElementsAt(result._x, result._y, result._z, result._hit.reset(), result);
+        result.sort();
+        return result;
+    }
+
+    /**
+     * Class Lights is a reusable result of a query of a light index (owned by a single thread)
+     */
+    public static final class Lights implements IntConsumer {
+        private final Hit _hit = new Hit();
+        private int[] _indices = new int[16];
+        private int _count;
+        // the query
+        private LightIndex _index;
+        private double _x, _y, _z;
+
+        /**
+         * @return number of the found lights
+         */
+        public int size() {
+            return _count;
+        }
+
+        /**
+         * @param k position in the result
+         * @return index of the found light
+         */
+        public int get(int k) {
+            return _indices[k];
+        }
+
+        /**
+         * Take an element of the hierarchy if its sphere of influence contains the point
+         *
+         * @param element the element's index in the hierarchy
+         */
+        @Override
+        public void accept(int element) {
+            double[] positions = _index._positions;
+            double dx = positions[3 * element] - _x, dy = positions[3 * element + 1] - _y;
+            double dz = positions[3 * element + 2] - _z;
+            double radius = _index._radii[element];
+            if (dx * dx + dy * dy + dz * dz <= radius * radius)
+                add(_index._bounded[element]);
+        }
+
+        private void add(int index) {
+            if (_count == _indices.length)
+                _indices = Arrays.copyOf(_indices, 2 * _count);
+            _indices[_count++] = index;
+        }
+
+        /**
+         * Insertion sort of the found lights - the lights are summed in the same order however they were found
+         */
+        private void sort() {
+            for (int i = 1; i < _count; ++i) {
+                int index = _indices[i], j = i - 1;
+                for (; j >= 0 && _indices[j] > index; --j)
+                    _indices[j + 1] = _indices[j];
+                _indices[j + 1] = index;
+            }
+        }
+    }
+
+    /**
+     * The spheres of influence of the bounded lights as elements of the hierarchy (only their boxes are used)
+     */
+    private final class Influences implements BoundedElements {
+        @Override
+        public int size() {
+            return _bounded.length;
+        }
+
+        @Override
+        public void getBounds(int index, double[] bounds, int offset) {
+            for (int axis = 0; axis < 3; ++axis) {
+                bounds[offset + axis] = _positions[3 * index + axis] - _radii[index];
+                bounds[offset + axis + 3] = _positions[3 * index + axis] + _radii[index];
+            }
+        }
+
+        @Override
+        public List<Point3D> findIntersections(int index, Ray ray) {
+            return null;
+        }
+
+        @Override
+        public boolean findNearestIntersection(int index, Ray ray, double tMax, Hit hit) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+/**
+ * Interface of a light source - a light which lights the geometries from a direction (so it makes the diffusive
+ * and specular reflections and the shadows)
+ */
+public interface LightSource {
+
+    /**
+     * The intensity of the light at a point
+     *
+     * @param p the point
+     * @return the intensity of the light which reaches the point
+     */
+    Color getIntensity(Point3D p);
+
+    /**
+     * The direction of the light at a point
+     *
+     * @param p the point
+     * @return unit vector from the light towards the point
+     */
+    Vector getL(Point3D p);
+
+    /**
+     * The distance of the light from a point (for the shadow rays)
+     *
+     * @param p the point
+     * @return the distance, infinity for a light which has no position
+     */
+    double getDistance(Point3D p);
+
+    /**
+     * The light has a position and its intensity is negligible farther than this radius, so it can be skipped
+     * for the points which are farther (see {@link LightIndex})
+     *
+     * @return the radius of the light's influence, infinity if it lights the whole scene
+     */
+    default double getInfluenceRadius() {
+        return Double.POSITIVE_INFINITY;
+    }
+}
@@ -0,0 +1,108 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+/**
+ * Class PointLight is a light source at a position (e.g. a lamp) which lights to all the directions, its intensity
+ * is attenuated with the distance d by the factor 1 / (kC + kL*d + kQ*d^2).
+ * <p>
+ * The light has a radius of influence - the distance at which its attenuated intensity falls below
+ * {@link #INFLUENCE_CUTOFF} (an invisible fraction of a color step), it doesn't light the points farther than
+ * the radius at all. Scenes of many lights are rendered with a {@link LightIndex} which finds the lights whose
+ * influence reaches a point without testing all of them.
+ */
+public class PointLight extends Light implements LightSource {
+    /**
+     * the attenuated intensity (of the strongest color component) at the radius of influence
+     */
+    public static final double INFLUENCE_CUTOFF = 0.5;
+
+    protected final Point3D _position;
+    protected final double _kC;
+    protected final double _kL;
+    protected final double _kQ;
+    private double _radius;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a point light, the radius of its influence is calculated by the attenuation factors
+     *
+     * @param intensity the intensity of the light
+     * @param position  the position of the light
+     * @param kC        constant attenuation factor
+     * @param kL        linear attenuation factor
+     * @param kQ        quadratic attenuation factor
+     */
+    public PointLight(Color intensity, Point3D position, double kC, double kL, double kQ) {
+        super(intensity);
+        _position = position;
+        _kC = kC;
+        _kL = kL;
+        _kQ = kQ;
+        _radius = influenceRadius();
+    }
+
+
+    //********** Getters ***********/
+
+    public Point3D get_position() {
+        return _position;
+    }
+
+    @Override
+    public Color getIntensity(Point3D p) {
+        double d = p.distance(_position);
+        if (d > _radius) return Color.BLACK;
+        return _intensity.reduce(_kC + _kL * d + _kQ * d * d);
+    }
+
+    @Override
+    public Vector getL(Point3D p) {
+        return p.subtract(_position).normalize();
+    }
+
+    @Override
+    public double getDistance(Point3D p) {
+        return p.distance(_position);
+    }
+
+    @Override
+    public double getInfluenceRadius() {
+        return _radius;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Set the radius of the light's influence explicitly (instead of the one calculated by the attenuation)
+     *
+     * @param radius the radius, infinity for lighting the whole scene
+     * @return the light itself
+     */
+    public PointLight setInfluenceRadius(double radius) {
+        _radius = radius;
+        return this;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * The distance at which the attenuated intensity falls to the cutoff: kC + kL*d + kQ*d^2 = max / cutoff
+     *
+     * @return the distance, infinity if the light is not attenuated with the distance
+     */
+    private double influenceRadius() {
+        double max = Math.max(_intensity.getR(), Math.max(_intensity.getG(), _intensity.getB()));
+        double k = max / INFLUENCE_CUTOFF - _kC;
+        if (k <= 0) return 0; // too weak to be seen at all
+        if (_kQ > 0) return (-_kL + Math.sqrt(_kL * _kL + 4 * _kQ * k)) / (2 * _kQ);
+        if (_kL > 0) return k / _kL;
+        return Double.POSITIVE_INFINITY;
+    }
+}
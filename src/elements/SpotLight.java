@@ -0,0 +1,45 @@
+package elements;
+
+import primitives.Color;
+import primitives.Point3D;
+import primitives.Vector;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Class SpotLight is a point light which lights towards a direction - its intensity is also attenuated by the
+ * cosine of the angle between its direction and the direction to the lit point (nothing behind it is lit)
+ */
+public class SpotLight extends PointLight {
+    private final Vector _direction;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a spot light
+     *
+     * @param intensity the intensity of the light
+     * @param position  the position of the light
+     * @param direction the direction of the light
+     * @param kC        constant attenuation factor
+     * @param kL        linear attenuation factor
+     * @param kQ        quadratic attenuation factor
+     */
+    public SpotLight(Color intensity, Point3D position, Vector direction, double kC, double kL, double kQ) {
+        super(intensity, position, kC, kL, kQ);
+        _direction = direction.normalized();
+    }
+
+
+    //********** Getters ***********/
+
+    @Override
+    public Color getIntensity(Point3D p) {
+        double d = p.distance(_position);
+        if (d > getInfluenceRadius()) return Color.BLACK;
+        double cos = alignZero(_direction.dotProduct(getL(p)));
+        if (cos <= 0) return Color.BLACK;
+        return _intensity.scale(cos).reduce(_kC + _kL * d + _kQ * d * d);
+    }
+}
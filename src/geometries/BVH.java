@@ -0,0 +1,848 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Class BVH is a bounding volume hierarchy over a set of bounded elements - the acceleration structure which
+ * turns the cost of intersecting a ray with N elements from O(N) into roughly O(log N).
+ * <p>
+ * The hierarchy is built top-down with the binned surface area heuristic (SAH), the sub-trees are built in
+ * parallel on a fork-join pool. The built tree is flattened into primitive arrays in depth-first order (the left
+ * child of a node follows it), so the traversal reads contiguous memory and allocates nothing.
+ * <p>
+ * For animated scenes the hierarchy is updated instead of being built again: after elements move, {@link #refit()}
+ * recalculates the boxes of the nodes bottom-up in linear time, and {@link #rebuildDegraded(ForkJoinPool)} builds
+ * again only the sub-trees whose boxes grew too much since they were built (the quality metric). Single elements
+ * are inserted and removed by building again only the leaf (or its parent) they belong to.
+ * The hierarchy must not be updated while it is traversed.
+ */
+public final class BVH implements Intersectable {
+    /**
+     * number of the bins of the SAH on each axis
+     */
+    private static final int BINS = 16;
+    /**
+     * ranges of at most this number of elements become leaves without looking for a split
+     */
+    private static final int MIN_LEAF_SIZE = 2;
+    /**
+     * ranges of more than this number of elements are always split
+     */
+    private static final int MAX_LEAF_SIZE = 8;
+    /**
+     * cost of traversing a node relatively to the cost of intersecting an element
+     */
+    private static final double TRAVERSAL_COST = 1.0;
+    /**
+     * ranges of more than this number of elements are split into parallel tasks
+     */
+    private static final int PARALLEL_THRESHOLD = 4096;
+    /**
+     * a sub-tree whose box's surface area grew by more than this factor since it was built is built again
+     */
+    private static final double REBUILD_RATIO = 2;
+
+    private final BoundedElements _elements;
+    /**
+     * the elements' indices in the order of the leaves
+     */
+    private int[] _order;
+    /**
+     * bounding box of each node: minimal coordinates (x, y, z) then maximal coordinates (x, y, z)
+     */
+    private double[] _bounds;
+    /**
+     * two integers for each node: inner node - the right child's index and 0, leaf - the position of its first
+     * element in _order and the number of its elements
+     */
+    private int[] _nodes;
+    /**
+     * surface area of each node's box when the node was built
+     */
+    private double[] _buildAreas;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Build a hierarchy over a set of elements on the common fork-join pool
+     *
+     * @param elements the elements
+     */
+    public BVH(BoundedElements elements) {
+        this(elements, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build a hierarchy over a set of elements
+     *
+     * @param elements the elements
+     * @param pool     the fork-join pool for building the hierarchy in parallel
+     */
+    public BVH(BoundedElements elements, ForkJoinPool pool) {
+        _elements = elements;
+        _order = IntStream.range(0, elements.size()).toArray();
+        Node root = build(_order, pool);
+        int nodes = root == null ? 0 : root._subtreeSize;
+        _bounds = new double[6 * nodes];
+        _nodes = new int[2 * nodes];
+        _buildAreas = new double[nodes];
+        if (root != null) flatten(root, 0, 0);
+    }
+
+
+    //********** Updating ***********/
+
+    /**
+     * Recalculate the boxes of all the nodes bottom-up from the current bounds of the elements (after the elements
+     * moved), in linear time - the tree itself is not changed
+     *
+     * @return the hierarchy itself
+     */
+    public BVH refit() {
+        double[] box = new double[6];
+        // a node's children follow it, so the nodes are refitted in the reverse order
+        for (int node = _buildAreas.length - 1; node >= 0; --node) {
+            int b = 6 * node, count = _nodes[2 * node + 1];
+            if (count == 0) {
+                int left = 6 * (node + 1), right = 6 * _nodes[2 * node];
+                for (int axis = 0; axis < 3; ++axis) {
+                    _bounds[b + axis] = Math.min(_bounds[left + axis], _bounds[right + axis]);
+                    _bounds[b + axis + 3] = Math.max(_bounds[left + axis + 3], _bounds[right + axis + 3]);
+                }
+                continue;
+            }
+            BuildTask.resetBox(_bounds, b);
+            for (int k = _nodes[2 * node], end = k + count; k < end; ++k) {
+                _elements.getBounds(_order[k], box, 0);
+                BuildTask.growBox(_bounds, b, box, 0);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Build again the sub-trees whose boxes' surface areas grew by more than {@link #REBUILD_RATIO} since they were
+     * built (e.g. after a refit of moved elements) - the topmost such sub-trees, the rest of the tree is kept
+     *
+     * @param pool the fork-join pool for building large sub-trees in parallel
+     * @return number of the sub-trees which were built again
+     */
+    public int rebuildDegraded(ForkJoinPool pool) {
+        List<Integer> degraded = new ArrayList<>();
+        if (_buildAreas.length == 0) return 0;
+        // depth-first (left child first) - the found sub-trees are in ascending order
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            int count = _nodes[2 * node + 1];
+            if (count != 0 && count <= MIN_LEAF_SIZE) continue; // such a leaf would be built the same
+            if (area(node) > REBUILD_RATIO * _buildAreas[node]) {
+                degraded.add(node);
+                continue;
+            }
+            if (count != 0) continue;
+            if (top + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+            stack[top++] = _nodes[2 * node];
+            stack[top++] = node + 1;
+        }
+        // from the last one, so building a sub-tree doesn't move the ones before it
+        for (int i = degraded.size() - 1; i >= 0; --i) {
+            int node = degraded.get(i);
+            replace(node, elementsOf(node), pool);
+        }
+        return degraded.size();
+    }
+
+    /**
+     * Insert an element into the hierarchy - it is put into the leaf whose box grows the least (the boxes of the
+     * leaf's ancestors grow to contain the element) and the leaf is built again
+     *
+     * @param element the element's index (the elements' size must already include it)
+     * @param pool    the fork-join pool for building the leaf
+     */
+    public void insert(int element, ForkJoinPool pool) {
+        if (_buildAreas.length == 0) {
+            replace(0, new int[]{element}, pool);
+            return;
+        }
+        double[] box = new double[6];
+        _elements.getBounds(element, box, 0);
+        int node = 0;
+        while (_nodes[2 * node + 1] == 0) {
+            BuildTask.growBox(_bounds, 6 * node, box, 0);
+            int left = node + 1, right = _nodes[2 * node];
+            node = grownArea(left, box) - area(left) <= grownArea(right, box) - area(right) ? left : right;
+        }
+        int[] leaf = elementsOf(node);
+        int[] elements = Arrays.copyOf(leaf, leaf.length + 1);
+        elements[leaf.length] = element;
+        replace(node, elements, pool);
+    }
+
+    /**
+     * Remove an element from the hierarchy - its leaf is built again without it (the leaf's parent, if the
+     * element is the only one in the leaf); the boxes of the ancestors are not shrunk until a refit
+     *
+     * @param element the element's index
+     * @param pool    the fork-join pool for building the leaf
+     * @throws IllegalArgumentException in case the element is not in the hierarchy
+     */
+    public void remove(int element, ForkJoinPool pool) {
+        int position = 0;
+        while (position < _order.length && _order[position] != element) ++position;
+        if (position == _order.length)
+            throw new IllegalArgumentException("Element " + element + " is not in the hierarchy");
+        int parent = -1, node = 0;
+        while (_nodes[2 * node + 1] == 0) {
+            parent = node;
+            int right = _nodes[2 * node];
+            node = position < firstPosition(right) ? node + 1 : right;
+        }
+        if (_nodes[2 * node + 1] == 1 && parent >= 0) node = parent;
+        int[] elements = elementsOf(node);
+        int[] remaining = new int[elements.length - 1];
+        for (int k = 0, i = 0; k < elements.length; ++k)
+            if (elements[k] != element) remaining[i++] = elements[k];
+        replace(node, remaining, pool);
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        if (_nodes.length == 0) return null;
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double ix = ray.getInverseDirectionX(), iy = ray.getInverseDirectionY(), iz = ray.getInverseDirectionZ();
+        int sx = ray.getSignX(), sy = ray.getSignY(), sz = ray.getSignZ();
+        double inf = Double.POSITIVE_INFINITY;
+        List<Point3D> result = new ArrayList<>();
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        while (top > 0) {
+            int node = stack[--top];
+            if (entryDistance(node, ox, oy, oz, ix, iy, iz, sx, sy, sz, inf) == inf) continue;
+            int count = _nodes[2 * node + 1];
+            if (count == 0) {
+                if (top + 2 > stack.length) stack = Arrays.copyOf(stack, 2 * stack.length);
+                stack[top++] = node + 1;
+                stack[top++] = _nodes[2 * node];
+                continue;
+            }
+            for (int k = _nodes[2 * node], end = k + count; k < end; ++k) {
+                List<Point3D> points = _elements.findIntersections(_order[k], ray);
+                if (points != null) result.addAll(points);
+            }
+        }
+        if (result.isEmpty()) return null;
+        result.sort(Comparator.comparingDouble(ray.get_p00()::distanceSquared));
+        return result;
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        if (_nodes.length == 0) return false;
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double ix = ray.getInverseDirectionX(), iy = ray.getInverseDirectionY(), iz = ray.getInverseDirectionZ();
+        int sx = ray.getSignX(), sy = ray.getSignY(), sz = ray.getSignZ();
+        double inf = Double.POSITIVE_INFINITY;
+        if (entryDistance(0, ox, oy, oz, ix, iy, iz, sx, sy, sz, tMax) == inf) return false;
+
+        int base = hit._stackTop, top = base;
+        int node = 0;
+        double nearest = tMax;
+        boolean found = false;
+        while (true) {
+            int count = _nodes[2 * node + 1];
+            if (count == 0) { // inner node - visit the nearer child first and keep the farther one in the stack
+                int left = node + 1, right = _nodes[2 * node];
+                double tLeft = entryDistance(left, ox, oy, oz, ix, iy, iz, sx, sy, sz, nearest);
+                double tRight = entryDistance(right, ox, oy, oz, ix, iy, iz, sx, sy, sz, nearest);
+                if (tLeft != inf && tRight != inf) {
+                    if (top == hit._stack.length) hit.growStack();
+                    if (tLeft <= tRight) {
+                        hit._stack[top] = right;
+                        hit._stackDistance[top++] = tRight;
+                        node = left;
+                    } else {
+                        hit._stack[top] = left;
+                        hit._stackDistance[top++] = tLeft;
+                        node = right;
+                    }
+                    continue;
+                }
+                if (tLeft != inf) {
+                    node = left;
+                    continue;
+                }
+                if (tRight != inf) {
+                    node = right;
+                    continue;
+                }
+            } else { // leaf - the elements may be structures themselves, they get the stack above our part
+                hit._stackTop = top;
+                for (int k = _nodes[2 * node], end = k + count; k < end; ++k)
+                    if (_elements.findNearestIntersection(_order[k], ray, nearest, hit)) {
+                        found = true;
+                        nearest = hit._t;
+                    }
+            }
+            // pop the next node which is still closer than the nearest intersection found so far
+            do {
+                if (top == base) {
+                    hit._stackTop = base;
+                    return found;
+                }
+                --top;
+            } while (hit._stackDistance[top] >= nearest);
+            node = hit._stack[top];
+        }
+    }
+
+    /**
+     * The same front to back traversal as for the nearest intersection (the nearer child first, so a blocker is
+     * found soon), but it stops at the first element blocking the ray and the cutoff distance doesn't shrink
+     */
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        if (_nodes.length == 0) return false;
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double ix = ray.getInverseDirectionX(), iy = ray.getInverseDirectionY(), iz = ray.getInverseDirectionZ();
+        int sx = ray.getSignX(), sy = ray.getSignY(), sz = ray.getSignZ();
+        double inf = Double.POSITIVE_INFINITY;
+        if (entryDistance(0, ox, oy, oz, ix, iy, iz, sx, sy, sz, maxDistance) == inf) return false;
+
+        int base = hit._stackTop, top = base;
+        int node = 0;
+        while (true) {
+            int count = _nodes[2 * node + 1];
+            if (count == 0) {
+                int left = node + 1, right = _nodes[2 * node];
+                double tLeft = entryDistance(left, ox, oy, oz, ix, iy, iz, sx, sy, sz, maxDistance);
+                double tRight = entryDistance(right, ox, oy, oz, ix, iy, iz, sx, sy, sz, maxDistance);
+                if (tLeft != inf && tRight != inf) {
+                    if (top == hit._stack.length) hit.growStack();
+                    hit._stack[top++] = tLeft <= tRight ? right : left;
+                    node = tLeft <= tRight ? left : right;
+                    continue;
+                }
+                if (tLeft != inf) {
+                    node = left;
+                    continue;
+                }
+                if (tRight != inf) {
+                    node = right;
+                    continue;
+                }
+            } else {
+                hit._stackTop = top;
+                for (int k = _nodes[2 * node], end = k + count; k < end; ++k)
+                    if (_elements.isOccluded(_order[k], ray, maxDistance, hit)) {
+                        hit._stackTop = base;
+                        return true;
+                    }
+            }
+            if (top == base) {
+                hit._stackTop = base;
+                return false;
+            }
+            node = hit._stack[--top];
+        }
+    }
+
+    /**
+     * The same traversal as for a single ray, but each node is tested once for the whole packet: a node is entered
+     * if any lane's ray enters its box closer than the lane's nearest intersection, the nearer child is the one
+     * with the nearer entry over all the lanes, and a node is popped only if some lane may still hit closer.
+     */
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        if (_nodes.length == 0) return;
+        double inf = Double.POSITIVE_INFINITY;
+        if (entryDistance(0, packet) == inf) return;
+
+        int base = packet._stackTop, top = base;
+        int node = 0;
+        while (true) {
+            int count = _nodes[2 * node + 1];
+            if (count == 0) {
+                int left = node + 1, right = _nodes[2 * node];
+                double tLeft = entryDistance(left, packet);
+                double tRight = entryDistance(right, packet);
+                if (tLeft != inf && tRight != inf) {
+                    if (top == packet._stack.length) packet.growStack();
+                    if (tLeft <= tRight) {
+                        packet._stack[top] = right;
+                        packet._stackDistance[top++] = tRight;
+                        node = left;
+                    } else {
+                        packet._stack[top] = left;
+                        packet._stackDistance[top++] = tLeft;
+                        node = right;
+                    }
+                    continue;
+                }
+                if (tLeft != inf) {
+                    node = left;
+                    continue;
+                }
+                if (tRight != inf) {
+                    node = right;
+                    continue;
+                }
+            } else {
+                packet._stackTop = top;
+                for (int k = _nodes[2 * node], end = k + count; k < end; ++k)
+                    _elements.findNearestIntersections(_order[k], packet);
+            }
+            double farthest = 0;
+            for (int k = 0; k < packet._size; ++k)
+                if (packet._t[k] > farthest) farthest = packet._t[k];
+            do {
+                if (top == base) {
+                    packet._stackTop = base;
+                    return;
+                }
+                --top;
+            } while (packet._stackDistance[top] >= farthest);
+            node = packet._stack[top];
+        }
+    }
+
+    /**
+     * Visit all the elements whose leaves' boxes contain a point (e.g. the light sources whose influence may reach
+     * a shading point) - the caller checks each visited element itself
+     *
+     * @param x      x coordinate of the point
+     * @param y      y coordinate of the point
+     * @param z      z coordinate of the point
+     * @param hit    scratch record whose traversal stack is used
+     * @param action called with the index of each visited element
+     */
+    public void findElementsAt(double x, double y, double z, Hit hit, IntConsumer action) {
+        if (_nodes.length == 0) return;
+        int base = hit._stackTop, top = base;
+        int node = 0;
+        while (true) {
+            int b = 6 * node;
+            if (_bounds[b] <= x && x <= _bounds[b + 3] && _bounds[b + 1] <= y && y <= _bounds[b + 4]
+                    && _bounds[b + 2] <= z && z <= _bounds[b + 5]) {
+                int count = _nodes[2 * node + 1];
+                if (count == 0) {
+                    if (top == hit._stack.length) hit.growStack();
+                    hit._stack[top++] = _nodes[2 * node];
+                    node = node + 1;
+                    continue;
+                }
+                hit._stackTop = top;
+                for (int k = _nodes[2 * node], end = k + count; k < end; ++k)
+                    action.accept(_order[k]);
+            }
+            if (top == base) {
+                hit._stackTop = base;
+                return;
+            }
+            node = hit._stack[--top];
+        }
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (_nodes.length == 0) return null;
+        return new BoundingBox(_bounds[0], _bounds[1], _bounds[2], _bounds[3], _bounds[4], _bounds[5]);
+    }
+
+    /**
+     * Slab test of a ray (its beginning point, the inverses of its direction's coordinates and their sign bits)
+     * against the box of a node - see {@link BoundingBox#entryDistance}
+     */
+    private double entryDistance(int node, double ox, double oy, double oz, double ix, double iy, double iz,
+                                 int sx, int sy, int sz, double tMax) {
+        return BoundingBox.entryDistance(_bounds, 6 * node, ox, oy, oz, ix, iy, iz, sx, sy, sz, tMax);
+    }
+
+
+    /**
+     * Slab test of all the rays of a packet against the box of a node, each lane is cut off by its nearest
+     * intersection
+     *
+     * @return the nearest entry distance over the lanes, or infinity if no lane enters the box
+     */
+    private double entryDistance(int node, RayPacket packet) {
+        int b = 6 * node;
+        double minX = _bounds[b], minY = _bounds[b + 1], minZ = _bounds[b + 2];
+        double maxX = _bounds[b + 3], maxY = _bounds[b + 4], maxZ = _bounds[b + 5];
+        double[] ox = packet._ox, oy = packet._oy, oz = packet._oz;
+        double[] ix = packet._ix, iy = packet._iy, iz = packet._iz;
+        double[] tMax = packet._t;
+        double nearest = Double.POSITIVE_INFINITY;
+        // branch free slab test per lane (a NaN of a ray on a slab's plane is ignored by the comparisons,
+        // the same as in BoundingBox)
+        for (int k = 0; k < packet._size; ++k) {
+            double t1 = (minX - ox[k]) * ix[k], t2 = (maxX - ox[k]) * ix[k];
+            double near = t1 > t2 ? t2 : t1, far = t1 > t2 ? t1 : t2;
+            double tNear = near > 0 ? near : 0, tFar = far < tMax[k] ? far : tMax[k];
+            t1 = (minY - oy[k]) * iy[k];
+            t2 = (maxY - oy[k]) * iy[k];
+            near = t1 > t2 ? t2 : t1;
+            far = t1 > t2 ? t1 : t2;
+            tNear = near > tNear ? near : tNear;
+            tFar = far < tFar ? far : tFar;
+            t1 = (minZ - oz[k]) * iz[k];
+            t2 = (maxZ - oz[k]) * iz[k];
+            near = t1 > t2 ? t2 : t1;
+            far = t1 > t2 ? t1 : t2;
+            tNear = near > tNear ? near : tNear;
+            tFar = far < tFar ? far : tFar;
+            double t = tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+            nearest = t < nearest ? t : nearest;
+        }
+        return nearest;
+    }
+
+
+    //********** Building ***********/
+
+    /**
+     * Build a (sub-)tree over elements
+     *
+     * @param elements the elements' indices - reordered in place into the order of the built leaves
+     * @param pool     the fork-join pool for building large trees in parallel
+     * @return the tree's root, or null if there are no elements
+     */
+    private Node build(int[] elements, ForkJoinPool pool) {
+        int size = elements.length;
+        if (size == 0) return null;
+        double[] bounds = new double[6 * size];
+        double[] centroids = new double[3 * size];
+        int[] order = new int[size];
+        IntConsumer prepare = i -> {
+            _elements.getBounds(elements[i], bounds, 6 * i);
+            centroids[3 * i] = (bounds[6 * i] + bounds[6 * i + 3]) / 2;
+            centroids[3 * i + 1] = (bounds[6 * i + 1] + bounds[6 * i + 4]) / 2;
+            centroids[3 * i + 2] = (bounds[6 * i + 2] + bounds[6 * i + 5]) / 2;
+            order[i] = i;
+        };
+        BuildTask task = new BuildTask(bounds, centroids, order, 0, size);
+        Node root;
+        if (size > PARALLEL_THRESHOLD) {
+            pool.submit(() -> IntStream.range(0, size).parallel().forEach(prepare)).join();
+            root = pool.invoke(task);
+        } else {
+            for (int i = 0; i < size; ++i)
+                prepare.accept(i);
+            root = task.compute();
+        }
+        int[] indices = elements.clone();
+        for (int k = 0; k < size; ++k)
+            elements[k] = indices[order[k]];
+        return root;
+    }
+
+    /**
+     * Replace a sub-tree by a tree built over given elements: the flat arrays are copied with the new sub-tree in
+     * place of the old one, and the indices of the nodes and the positions of the elements after it are shifted
+     *
+     * @param node     the sub-tree's root
+     * @param elements the elements' indices of the new sub-tree (the elements of the old one may be among them)
+     * @param pool     the fork-join pool for building a large sub-tree in parallel
+     */
+    private void replace(int node, int[] elements, ForkJoinPool pool) {
+        int nodeCount = _buildAreas.length;
+        int end = nodeCount == 0 ? 0 : subtreeEnd(node);
+        int first = nodeCount == 0 ? 0 : firstPosition(node);
+        int last = nodeCount == 0 ? 0 : lastPosition(node);
+        Node root = build(elements, pool);
+        int size = root == null ? 0 : root._subtreeSize;
+        int nodeShift = size - (end - node), positionShift = elements.length - (last - first);
+
+        int[] order = new int[_order.length + positionShift];
+        System.arraycopy(_order, 0, order, 0, first);
+        System.arraycopy(elements, 0, order, first, elements.length);
+        System.arraycopy(_order, last, order, last + positionShift, _order.length - last);
+        double[] bounds = new double[6 * (nodeCount + nodeShift)];
+        int[] nodes = new int[2 * (nodeCount + nodeShift)];
+        double[] buildAreas = new double[nodeCount + nodeShift];
+        System.arraycopy(_bounds, 0, bounds, 0, 6 * node);
+        System.arraycopy(_bounds, 6 * end, bounds, 6 * (end + nodeShift), 6 * (nodeCount - end));
+        System.arraycopy(_nodes, 0, nodes, 0, 2 * node);
+        System.arraycopy(_nodes, 2 * end, nodes, 2 * (end + nodeShift), 2 * (nodeCount - end));
+        System.arraycopy(_buildAreas, 0, buildAreas, 0, node);
+        System.arraycopy(_buildAreas, end, buildAreas, end + nodeShift, nodeCount - end);
+        for (int i = 0; i < nodes.length; i += 2) {
+            if (i == 2 * node) i = 2 * (node + size); // skip the new sub-tree
+            if (i >= nodes.length) break;
+            if (nodes[i + 1] == 0) {
+                if (nodes[i] >= end) nodes[i] += nodeShift;
+            } else if (nodes[i] >= last) nodes[i] += positionShift;
+        }
+        _order = order;
+        _bounds = bounds;
+        _nodes = nodes;
+        _buildAreas = buildAreas;
+        if (root != null) flatten(root, node, first);
+    }
+
+    /**
+     * Copy a built sub-tree into the flat arrays in depth-first order
+     *
+     * @param node   the sub-tree's root
+     * @param index  the index of the sub-tree's root in the flat arrays
+     * @param offset the position of the sub-tree's first element in the order array
+     */
+    private void flatten(Node node, int index, int offset) {
+        System.arraycopy(node._box, 0, _bounds, 6 * index, 6);
+        _buildAreas[index] = area(index);
+        if (node._left == null) {
+            _nodes[2 * index] = offset + node._start;
+            _nodes[2 * index + 1] = node._count;
+            return;
+        }
+        int right = index + 1 + node._left._subtreeSize;
+        _nodes[2 * index] = right;
+        _nodes[2 * index + 1] = 0;
+        flatten(node._left, index + 1, offset);
+        flatten(node._right, right, offset);
+    }
+
+    /**
+     * @return index following the last node of a sub-tree (the rightmost leaf is its last node)
+     */
+    private int subtreeEnd(int node) {
+        while (_nodes[2 * node + 1] == 0) node = _nodes[2 * node];
+        return node + 1;
+    }
+
+    /**
+     * @return position of the first element of a sub-tree in the order array (of its leftmost leaf)
+     */
+    private int firstPosition(int node) {
+        while (_nodes[2 * node + 1] == 0) ++node;
+        return _nodes[2 * node];
+    }
+
+    /**
+     * @return position following the last element of a sub-tree in the order array (of its rightmost leaf)
+     */
+    private int lastPosition(int node) {
+        int leaf = subtreeEnd(node) - 1;
+        return _nodes[2 * leaf] + _nodes[2 * leaf + 1];
+    }
+
+    /**
+     * @return the elements' indices of a sub-tree (its leaves' elements are contiguous in the order array)
+     */
+    private int[] elementsOf(int node) {
+        return Arrays.copyOfRange(_order, firstPosition(node), lastPosition(node));
+    }
+
+    /**
+     * @return surface area of a node's box
+     */
+    private double area(int node) {
+        int b = 6 * node;
+        double dx = _bounds[b + 3] - _bounds[b], dy = _bounds[b + 4] - _bounds[b + 1];
+        double dz = _bounds[b + 5] - _bounds[b + 2];
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * @return surface area of a node's box grown to contain another box
+     */
+    private double grownArea(int node, double[] box) {
+        int b = 6 * node;
+        double dx = Math.max(_bounds[b + 3], box[3]) - Math.min(_bounds[b], box[0]);
+        double dy = Math.max(_bounds[b + 4], box[4]) - Math.min(_bounds[b + 1], box[1]);
+        double dz = Math.max(_bounds[b + 5], box[5]) - Math.min(_bounds[b + 2], box[2]);
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Node of the hierarchy while it is being built
+     */
+    private static final class Node {
+        final double[] _box;
+        Node _left;
+        Node _right;
+        int _start;
+        int _count;
+        int _subtreeSize = 1;
+
+        Node(double[] box) {
+            _box = box;
+        }
+    }
+
+    /**
+     * Task building the sub-tree of a range of the elements (the range of the order array is partitioned in place)
+     */
+    private static final class BuildTask extends RecursiveTask<Node> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] _bounds;
+        private final double[] _centroids;
+        private final int[] _order;
+        private final int _start;
+        private final int _end;
+
+        BuildTask(double[] bounds, double[] centroids, int[] order, int start, int end) {
+            _bounds = bounds;
+            _centroids = centroids;
+            _order = order;
+            _start = start;
+            _end = end;
+        }
+
+        @Override
+        protected Node compute() {
+            return build(_start, _end);
+        }
+
+        private Node build(int start, int end) {
+            int count = end - start;
+            double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                    Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+            double[] centroidBox = box.clone();
+            for (int k = start; k < end; ++k) {
+                int e = _order[k];
+                for (int axis = 0; axis < 3; ++axis) {
+                    box[axis] = Math.min(box[axis], _bounds[6 * e + axis]);
+                    box[axis + 3] = Math.max(box[axis + 3], _bounds[6 * e + axis + 3]);
+                    double c = _centroids[3 * e + axis];
+                    centroidBox[axis] = Math.min(centroidBox[axis], c);
+                    centroidBox[axis + 3] = Math.max(centroidBox[axis + 3], c);
+                }
+            }
+            Node node = new Node(box);
+            if (count <= MIN_LEAF_SIZE) return leaf(node, start, count);
+
+            int mid = split(start, end, box, centroidBox);
+            if (mid < 0) {
+                if (count <= MAX_LEAF_SIZE) return leaf(node, start, count);
+                mid = (start + end) >>> 1; // no useful split - split by the order of the elements
+            }
+
+            if (count > PARALLEL_THRESHOLD) {
+                BuildTask left = new BuildTask(_bounds, _centroids, _order, start, mid);
+                left.fork();
+                node._right = build(mid, end);
+                node._left = left.join();
+            } else {
+                node._left = build(start, mid);
+                node._right = build(mid, end);
+            }
+            node._subtreeSize = 1 + node._left._subtreeSize + node._right._subtreeSize;
+            return node;
+        }
+
+        private static Node leaf(Node node, int start, int count) {
+            node._start = start;
+            node._count = count;
+            return node;
+        }
+
+        /**
+         * Find the best binned SAH split of a range and partition the range by it
+         *
+         * @return the position at which the right part starts, or -1 if a leaf is cheaper (or the centroids
+         * are all in the same point)
+         */
+        private int split(int start, int end, double[] box, double[] centroidBox) {
+            int count = end - start;
+            double bestCost = Double.POSITIVE_INFINITY;
+            int bestAxis = -1, bestBin = -1;
+            int[] binCount = new int[BINS];
+            double[] binBox = new double[6 * BINS];
+            double[] rightArea = new double[BINS];
+            int[] rightCount = new int[BINS];
+            for (int axis = 0; axis < 3; ++axis) {
+                double min = centroidBox[axis], extent = centroidBox[axis + 3] - min;
+                if (extent <= 0) continue;
+                Arrays.fill(binCount, 0);
+                for (int b = 0; b < BINS; ++b)
+                    resetBox(binBox, 6 * b);
+                for (int k = start; k < end; ++k) {
+                    int e = _order[k];
+                    int b = bin(_centroids[3 * e + axis], min, extent);
+                    ++binCount[b];
+                    growBox(binBox, 6 * b, _bounds, 6 * e);
+                }
+                // sweep from the right and then from the left, the split is between bin b and bin b + 1
+                double[] acc = new double[6];
+                resetBox(acc, 0);
+                int accCount = 0;
+                for (int b = BINS - 1; b > 0; --b) {
+                    growBox(acc, 0, binBox, 6 * b);
+                    accCount += binCount[b];
+                    rightArea[b] = accCount == 0 ? 0 : area(acc);
+                    rightCount[b] = accCount;
+                }
+                resetBox(acc, 0);
+                accCount = 0;
+                for (int b = 0; b < BINS - 1; ++b) {
+                    growBox(acc, 0, binBox, 6 * b);
+                    accCount += binCount[b];
+                    if (accCount == 0 || rightCount[b + 1] == 0) continue;
+                    double cost = accCount * area(acc) + rightCount[b + 1] * rightArea[b + 1];
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestAxis = axis;
+                        bestBin = b;
+                    }
+                }
+            }
+            if (bestAxis < 0) return -1;
+            // compare with the cost of a leaf (both are relative to the node's area)
+            double area = area(box);
+            if (count <= MAX_LEAF_SIZE && TRAVERSAL_COST * area + bestCost >= count * area) return -1;
+
+            double min = centroidBox[bestAxis], extent = centroidBox[bestAxis + 3] - min;
+            int i = start, j = end - 1;
+            while (i <= j) {
+                if (bin(_centroids[3 * _order[i] + bestAxis], min, extent) <= bestBin) ++i;
+                else {
+                    int t = _order[i];
+                    _order[i] = _order[j];
+                    _order[j--] = t;
+                }
+            }
+            return i == start || i == end ? -1 : i;
+        }
+
+        private static int bin(double centroid, double min, double extent) {
+            int b = (int) ((centroid - min) * BINS / extent);
+            return b < BINS ? b : BINS - 1;
+        }
+
+        private static void resetBox(double[] box, int offset) {
+            box[offset] = box[offset + 1] = box[offset + 2] = Double.POSITIVE_INFINITY;
+            box[offset + 3] = box[offset + 4] = box[offset + 5] = Double.NEGATIVE_INFINITY;
+        }
+
+        private static void growBox(double[] box, int offset, double[] other, int otherOffset) {
+            for (int axis = 0; axis < 3; ++axis) {
+                box[offset + axis] = Math.min(box[offset + axis], other[otherOffset + axis]);
+                box[offset + axis + 3] = Math.max(box[offset + axis + 3], other[otherOffset + axis + 3]);
+            }
+        }
+
+        private static double area(double[] box) {
+            double dx = box[3] - box[0], dy = box[4] - box[1], dz = box[5] - box[2];
+            return 2 * (dx * dy + dy * dz + dz * dx);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * Interface of an indexed set of bounded elements (geometries of a composite, faces of a mesh etc.)
+ * over which an acceleration structure can be built. The structure keeps only the indices of the elements,
+ * so the elements may be stored in any form (objects or primitive arrays).
+ * <p>
+ * All the methods may be called concurrently (while building the structure in parallel and while rendering).
+ */
+public interface BoundedElements {
+
+    /**
+     * @return number of the elements
+     */
+    int size();
+
+    /**
+     * Write the bounding box of an element into an array as its minimal coordinates (x, y, z) followed by its
+     * maximal coordinates (x, y, z)
+     *
+     * @param index  the element's index
+     * @param bounds the array to write the 6 coordinates into
+     * @param offset the position of the first coordinate in the array
+     */
+    void getBounds(int index, double[] bounds, int offset);
+
+    /**
+     * Find all the intersection points of a ray with an element
+     *
+     * @param index the element's index
+     * @param ray   the ray
+     * @return list of the intersection points, or null if there are no intersections
+     */
+    List<Point3D> findIntersections(int index, Ray ray);
+
+    /**
+     * Find the nearest intersection of a ray with an element which is closer than a given distance
+     * - see {@link Intersectable#findNearestIntersection(Ray, double, Hit)}
+     *
+     * @param index the element's index
+     * @param ray   the ray
+     * @param tMax  the cutoff distance
+     * @param hit   the record to write the intersection into
+     * @return true if an intersection closer than tMax was found
+     */
+    boolean findNearestIntersection(int index, Ray ray, double tMax, Hit hit);
+
+    /**
+     * Any-hit query of a ray with an element - see {@link Intersectable#isOccluded(Ray, double, Hit)}
+     *
+     * @param index       the element's index
+     * @param ray         the ray
+     * @param maxDistance the cutoff distance
+     * @param hit         the record to write the blocking intersection into
+     * @return true if the element blocks the ray closer than maxDistance
+     */
+    default boolean isOccluded(int index, Ray ray, double maxDistance, Hit hit) {
+        return findNearestIntersection(index, ray, maxDistance, hit);
+    }
+
+    /**
+     * Find the nearest intersections of a packet of rays with an element
+     * - see {@link Intersectable#findNearestIntersections(RayPacket)}
+     *
+     * @param index  the element's index
+     * @param packet the rays and their nearest intersections so far
+     */
+    default void findNearestIntersections(int index, RayPacket packet) {
+        packet.intersectLanes(this, index);
+    }
+}
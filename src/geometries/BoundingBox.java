@@ -0,0 +1,217 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+/**
+ * Class BoundingBox represents an axis aligned box (AABB) which bounds a geometry,
+ * defined by its minimal and maximal coordinates on each axis
+ */
+public final class BoundingBox {
+    final double _minX;
+    final double _minY;
+    final double _minZ;
+    final double _maxX;
+    final double _maxY;
+    final double _maxZ;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a box by its minimal and maximal coordinates
+     *
+     * @param minX minimal x coordinate
+     * @param minY minimal y coordinate
+     * @param minZ minimal z coordinate
+     * @param maxX maximal x coordinate
+     * @param maxY maximal y coordinate
+     * @param maxZ maximal z coordinate
+     */
+    public BoundingBox(double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        _minX = minX;
+        _minY = minY;
+        _minZ = minZ;
+        _maxX = maxX;
+        _maxY = maxY;
+        _maxZ = maxZ;
+    }
+
+    /**
+     * Constructor of the smallest box containing all the given points
+     *
+     * @param points the points to bound (at least one)
+     */
+    public BoundingBox(Iterable<Point3D> points) {
+        double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY, minZ = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY, maxZ = Double.NEGATIVE_INFINITY;
+        for (Point3D p : points) {
+            minX = Math.min(minX, p.getX());
+            minY = Math.min(minY, p.getY());
+            minZ = Math.min(minZ, p.getZ());
+            maxX = Math.max(maxX, p.getX());
+            maxY = Math.max(maxY, p.getY());
+            maxZ = Math.max(maxZ, p.getZ());
+        }
+        _minX = minX;
+        _minY = minY;
+        _minZ = minZ;
+        _maxX = maxX;
+        _maxY = maxY;
+        _maxZ = maxZ;
+    }
+
+
+    //********** Getters ***********/
+
+    public double getMinX() {
+        return _minX;
+    }
+
+    public double getMinY() {
+        return _minY;
+    }
+
+    public double getMinZ() {
+        return _minZ;
+    }
+
+    public double getMaxX() {
+        return _maxX;
+    }
+
+    public double getMaxY() {
+        return _maxY;
+    }
+
+    public double getMaxZ() {
+        return _maxZ;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * The smallest box containing this box and the other one
+     *
+     * @param other the other box
+     * @return new box bounding both boxes
+     */
+    public BoundingBox union(BoundingBox other) {
+        return new BoundingBox(Math.min(_minX, other._minX), Math.min(_minY, other._minY),
+                Math.min(_minZ, other._minZ), Math.max(_maxX, other._maxX), Math.max(_maxY, other._maxY),
+                Math.max(_maxZ, other._maxZ));
+    }
+
+    /**
+     * The surface area of the box
+     *
+     * @return the sum of the areas of the six faces
+     */
+    public double surfaceArea() {
+        double dx = _maxX - _minX, dy = _maxY - _minY, dz = _maxZ - _minZ;
+        return 2 * (dx * dy + dy * dz + dz * dx);
+    }
+
+    /**
+     * Slab test of a ray against the box
+     *
+     * @param ray  the ray
+     * @param tMax the box must be entered closer than this distance
+     * @return true if the ray passes through the box in front of its beginning point and closer than tMax
+     */
+    public boolean intersects(Ray ray, double tMax) {
+        return entryDistance(ray.getOriginX(), ray.getOriginY(), ray.getOriginZ(), ray.getInverseDirectionX(),
+                ray.getInverseDirectionY(), ray.getInverseDirectionZ(), tMax) != Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Slab test of a ray (given by its beginning point and the inverse of its direction's coordinates)
+     * against the box. A zero direction coordinate gives an infinite inverse, the comparisons below are written
+     * so that the resulting NaN values (ray on a slab's boundary) are ignored.
+     *
+     * @param tMax the box must be entered closer than this distance
+     * @return the distance at which the ray enters the box (0 if it starts inside),
+     * or positive infinity if the ray misses the box
+     */
+    double entryDistance(double ox, double oy, double oz, double ix, double iy, double iz, double tMax) {
+        return entryDistance(_minX, _minY, _minZ, _maxX, _maxY, _maxZ, ox, oy, oz, ix, iy, iz, tMax);
+    }
+
+    /**
+     * Slab test of a ray against a box given by primitive coordinates
+     * - see {@link #entryDistance(double, double, double, double, double, double, double)}
+     */
+    static double entryDistance(double minX, double minY, double minZ, double maxX, double maxY, double maxZ,
+                                double ox, double oy, double oz, double ix, double iy, double iz, double tMax) {
+        double tNear = 0, tFar = tMax;
+        double t1 = (minX - ox) * ix, t2 = (maxX - ox) * ix;
+        if (t1 > t2) {
+            double t = t1;
+            t1 = t2;
+            t2 = t;
+        }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        t1 = (minY - oy) * iy;
+        t2 = (maxY - oy) * iy;
+        if (t1 > t2) {
+            double t = t1;
+            t1 = t2;
+            t2 = t;
+        }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        t1 = (minZ - oz) * iz;
+        t2 = (maxZ - oz) * iz;
+        if (t1 > t2) {
+            double t = t1;
+            t1 = t2;
+            t2 = t;
+        }
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Slab test of a ray against a box held in an array (minimal coordinates then maximal coordinates) - the sign
+     * bits of the ray's direction select the near and the far plane of each slab, so there are no comparisons of
+     * the two distances (the results are the same as of
+     * {@link #entryDistance(double, double, double, double, double, double, double)})
+     *
+     * @param bounds the array of the box
+     * @param offset the position of the box in the array
+     * @param sx     1 if the ray's direction x coordinate is negative, 0 otherwise (the same for sy and sz)
+     * @param tMax   the box must be entered closer than this distance
+     * @return the distance at which the ray enters the box (0 if it starts inside),
+     * or positive infinity if the ray misses the box
+     */
+    static double entryDistance(double[] bounds, int offset, double ox, double oy, double oz,
+                                double ix, double iy, double iz, int sx, int sy, int sz, double tMax) {
+        double tNear = 0, tFar = tMax;
+        double t1 = (bounds[offset + 3 * sx] - ox) * ix, t2 = (bounds[offset + 3 - 3 * sx] - ox) * ix;
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        t1 = (bounds[offset + 1 + 3 * sy] - oy) * iy;
+        t2 = (bounds[offset + 4 - 3 * sy] - oy) * iy;
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        t1 = (bounds[offset + 2 + 3 * sz] - oz) * iz;
+        t2 = (bounds[offset + 5 - 3 * sz] - oz) * iz;
+        if (t1 > tNear) tNear = t1;
+        if (t2 < tFar) tFar = t2;
+        return tNear <= tFar ? tNear : Double.POSITIVE_INFINITY;
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "BoundingBox{" +
+                "_min=(" + _minX + ", " + _minY + ", " + _minZ + ")" +
+                ", _max=(" + _maxX + ", " + _maxY + ", " + _maxZ + ")" +
+                '}';
+    }
+}
@@ -5,6 +5,11 @@ import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
 
+import java.util.Arrays;
+import java.util.List;
+
+import static primitives.Util.*;
+
 /**
  * Class Cylinder represent a smooth surface which defined with length, curvature at every point on its face fixed.
  * Represented by ray and radius, (direction, first and second points, radius)
@@ -20,7 +25,7 @@ public class Cylinder extends Tube {
      * Constructor of class Cylinder
      *
      * @param height represent the height of the cylinder, because it's actually a tube with length
-     * @param ray    represent the direction and the place
+     * @param ray    represent the direction and the place (copied)
      * @param radius the radius from the center line to the surface
      */
     public Cylinder(double height, Ray ray, double radius) {
@@ -40,10 +45,96 @@ public class Cylinder extends Tube {
         return _height;
     }
 
-    // TODO: implementation
     @Override
     public Vector getNormal(Point3D p) {
-        return null;
+        Point3D p0 = _axisRay.get_p00();
+        Vector v = _axisRay.get_direction();
+        if (p.equals(p0)) return v.scale(-1); // the center of the bottom base
+        double t = alignZero(p.subtract(p0).dotProduct(v));
+        if (t == 0) return v.scale(-1); // on the bottom base
+        if (isZero(t - _height)) return v; // on the top base
+        return super.getNormal(p);
+    }
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double inf = Double.POSITIVE_INFINITY;
+        // a cylinder is convex - a ray intersects it at most twice
+        double[] ts = new double[4];
+        int count = 0;
+        double t = sideIntersection(ox, oy, oz, dx, dy, dz, 0, inf, 0, _height);
+        if (t > 0) {
+            ts[count++] = t;
+            t = sideIntersection(ox, oy, oz, dx, dy, dz, t, inf, 0, _height);
+            if (t > 0) ts[count++] = t;
+        }
+        t = baseIntersection(ox, oy, oz, dx, dy, dz, inf, 0);
+        if (t > 0) ts[count++] = t;
+        t = baseIntersection(ox, oy, oz, dx, dy, dz, inf, _height);
+        if (t > 0) ts[count++] = t;
+        if (count == 0) return null;
+        Arrays.sort(ts, 0, count);
+        return count == 1 ? List.of(ray.getPoint(ts[0])) : List.of(ray.getPoint(ts[0]), ray.getPoint(ts[1]));
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double nearest = tMax;
+        double t = sideIntersection(ox, oy, oz, dx, dy, dz, 0, nearest, 0, _height);
+        if (t > 0) nearest = t;
+        t = baseIntersection(ox, oy, oz, dx, dy, dz, nearest, 0);
+        if (t > 0) nearest = t;
+        t = baseIntersection(ox, oy, oz, dx, dy, dz, nearest, _height);
+        if (t > 0) nearest = t;
+        if (nearest == tMax) return false;
+        hit.set(this, nearest, ox + nearest * dx, oy + nearest * dy, oz + nearest * dz);
+        return true;
+    }
+
+    /**
+     * The box bounding both bases of the cylinder - each base is a disc whose extent on an axis is
+     * radius * sqrt(1 - v<sub>axis</sub><sup>2</sup>) (v is the cylinder's unit direction)
+     *
+     * @return new bounding box of the cylinder
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        Point3D pa = _axisRay.get_p00();
+        Vector va = _axisRay.get_direction();
+        double vx = va.getX(), vy = va.getY(), vz = va.getZ();
+        double ex = _radius * Math.sqrt(Math.max(0, 1 - vx * vx));
+        double ey = _radius * Math.sqrt(Math.max(0, 1 - vy * vy));
+        double ez = _radius * Math.sqrt(Math.max(0, 1 - vz * vz));
+        double ax = pa.getX(), ay = pa.getY(), az = pa.getZ();
+        double bx = ax + _height * vx, by = ay + _height * vy, bz = az + _height * vz;
+        return new BoundingBox(Math.min(ax, bx) - ex, Math.min(ay, by) - ey, Math.min(az, bz) - ez,
+                Math.max(ax, bx) + ex, Math.max(ay, by) + ey, Math.max(az, bz) + ez);
+    }
+
+    /**
+     * Distance along a ray (given by primitive coordinates) to one of the cylinder's bases
+     *
+     * @param tMax  the intersection must be closer than this distance
+     * @param level the base's distance along the axis from the axis ray's beginning point (0 or the height)
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    private double baseIntersection(double ox, double oy, double oz, double dx, double dy, double dz,
+                                    double tMax, double level) {
+        Point3D pa = _axisRay.get_p00();
+        Vector va = _axisRay.get_direction();
+        double vx = va.getX(), vy = va.getY(), vz = va.getZ();
+        double dv = alignZero(dx * vx + dy * vy + dz * vz);
+        if (dv == 0) return 0; // the ray is parallel to the base
+        // center of the base
+        double cx = pa.getX() + level * vx, cy = pa.getY() + level * vy, cz = pa.getZ() + level * vz;
+        double t = alignZero(((cx - ox) * vx + (cy - oy) * vy + (cz - oz) * vz) / dv);
+        if (t <= 0 || t >= tMax) return 0;
+        double qx = ox + t * dx - cx, qy = oy + t * dy - cy, qz = oz + t * dz - cz;
+        return alignZero(_radius * _radius - (qx * qx + qy * qy + qz * qz)) > 0 ? t : 0;
     }
 
 
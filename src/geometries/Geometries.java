@@ -0,0 +1,387 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Class Geometries is a composite of intersectable objects (the Composite design pattern) - it is intersected
+ * as a single object.
+ * <p>
+ * The composite may be built into an acceleration structure over its bounded objects - a bounding volume
+ * hierarchy ({@link BVH}) or a uniform or two-level {@link Grid}, the unbounded ones (planes, tubes) are kept
+ * in a separate list which is always tested.
+ * Adding objects to a built composite (or removing them) drops its acceleration structure, it may be built again.
+ * <p>
+ * For animated scenes a hierarchy is updated instead of being built again - see
+ * {@link #update(Acceleration, ForkJoinPool)}: the objects added and removed since it was built are inserted into it
+ * and removed from it locally, and moved objects are taken into it by a refit.
+ */
+public class Geometries implements Intersectable {
+    /**
+     * The acceleration structures a composite may be built into
+     */
+    public enum Acceleration {
+        /**
+         * bounding volume hierarchy - see {@link geometries.BVH}
+         */
+        BVH,
+        /**
+         * uniform grid - see {@link Grid}
+         */
+        GRID,
+        /**
+         * two-level grid - see {@link Grid}
+         */
+        TWO_LEVEL_GRID
+    }
+
+    private final List<Intersectable> _geometries = new ArrayList<>();
+
+    // acceleration structure over the bounded objects and the rest of the objects (null if it is not built)
+    private Intersectable _hierarchy;
+    private Intersectable[] _unbounded;
+
+    // the last built hierarchy (kept after objects were added or removed) and its elements, with the objects added
+    // and removed since then
+    private BVH _bvh;
+    private Elements _elements;
+    private final List<Intersectable> _added = new ArrayList<>();
+    private final List<Intersectable> _removed = new ArrayList<>();
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a composite of intersectable objects
+     *
+     * @param geometries the objects of the composite
+     */
+    public Geometries(Intersectable... geometries) {
+        add(geometries);
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return number of the objects in the composite
+     */
+    public int size() {
+        return _geometries.size();
+    }
+
+    /**
+     * @return true if the composite was built into an acceleration structure (and no objects were added since)
+     */
+    public boolean isHierarchyBuilt() {
+        return _hierarchy != null;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Add objects to the composite - the acceleration structure must be updated (see {@link #update}) before the
+     * composite is intersected again; a hierarchy is kept and the objects are inserted into it incrementally
+     *
+     * @param geometries the objects to add
+     * @return the composite itself
+     */
+    public Geometries add(Intersectable... geometries) {
+        _geometries.addAll(List.of(geometries));
+        if (_bvh != null) _added.addAll(List.of(geometries));
+        _hierarchy = null;
+        _unbounded = null;
+        return this;
+    }
+
+    /**
+     * Remove objects from the composite - the acceleration structure must be updated (see {@link #update}) before
+     * the composite is intersected again; a hierarchy is kept and the objects are removed from it incrementally
+     *
+     * @param geometries the objects to remove (the same objects, not equal ones)
+     * @return the composite itself
+     */
+    public Geometries remove(Intersectable... geometries) {
+        for (Intersectable geometry : geometries) {
+            if (!removeSame(_geometries, geometry)) continue;
+            if (_bvh != null && !removeSame(_added, geometry)) _removed.add(geometry);
+        }
+        _hierarchy = null;
+        _unbounded = null;
+        return this;
+    }
+
+
+    //********** Acceleration ***********/
+
+    /**
+     * Build a bounding volume hierarchy over the bounded objects of the composite on the common fork-join pool
+     *
+     * @return the composite itself
+     */
+    public Geometries buildHierarchy() {
+        return buildHierarchy(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Build a bounding volume hierarchy over the bounded objects of the composite
+     *
+     * @param pool the fork-join pool for building the hierarchy in parallel
+     * @return the composite itself
+     */
+    public Geometries buildHierarchy(ForkJoinPool pool) {
+        return build(Acceleration.BVH, pool);
+    }
+
+    /**
+     * Build an acceleration structure over the bounded objects of the composite
+     *
+     * @param acceleration the kind of the acceleration structure
+     * @param pool         the fork-join pool for building the structure in parallel
+     * @return the composite itself
+     */
+    public Geometries build(Acceleration acceleration, ForkJoinPool pool) {
+        List<Intersectable> bounded = new ArrayList<>();
+        List<Intersectable> unbounded = new ArrayList<>();
+        for (Intersectable geometry : _geometries)
+            (geometry.isBounded() ? bounded : unbounded).add(geometry);
+        Elements elements = new Elements(bounded.toArray(new Intersectable[0]));
+        _hierarchy = switch (acceleration) {
+            case BVH -> new BVH(elements, pool);
+            case GRID -> new Grid(elements, false, pool);
+            case TWO_LEVEL_GRID -> new Grid(elements, true, pool);
+        };
+        _unbounded = unbounded.toArray(new Intersectable[0]);
+        _bvh = acceleration == Acceleration.BVH ? (BVH) _hierarchy : null;
+        _elements = _bvh == null ? null : elements;
+        _added.clear();
+        _removed.clear();
+        return this;
+    }
+
+    /**
+     * Update the acceleration structure after objects of the composite were moved (and objects were added or
+     * removed), e.g. between the frames of an animation. A hierarchy is updated in place: the removed objects are
+     * removed from it and the added ones are inserted into it (each by building a single leaf again), then it is
+     * refitted to the moved objects in linear time, and only its sub-trees which degraded too much are built again
+     * - see {@link BVH#rebuildDegraded(ForkJoinPool)}. A grid is built again (in linear time).
+     * <p>
+     * Compound objects (e.g. a {@link TriangleMesh} or a {@link SphereSet}) whose parts were moved must be updated
+     * themselves before.
+     *
+     * @param acceleration the kind of the acceleration structure - it is built if it differs from the current one
+     * @param pool         the fork-join pool for building in parallel
+     * @return the composite itself
+     */
+    public Geometries update(Acceleration acceleration, ForkJoinPool pool) {
+        if (acceleration != Acceleration.BVH || _bvh == null) return build(acceleration, pool);
+        for (Intersectable geometry : _removed)
+            if (geometry.isBounded()) _bvh.remove(_elements.remove(geometry), pool);
+        for (Intersectable geometry : _added)
+            if (geometry.isBounded()) _bvh.insert(_elements.add(geometry), pool);
+        _added.clear();
+        _removed.clear();
+        _bvh.refit().rebuildDegraded(pool);
+
+        List<Intersectable> unbounded = new ArrayList<>();
+        for (Intersectable geometry : _geometries)
+            if (!geometry.isBounded()) unbounded.add(geometry);
+        _hierarchy = _bvh;
+        _unbounded = unbounded.toArray(new Intersectable[0]);
+        return this;
+    }
+
+    /**
+     * Remove an object (the same object, not an equal one) from a list
+     *
+     * @return true if the object was in the list
+     */
+    private static boolean removeSame(List<Intersectable> list, Intersectable geometry) {
+        for (int i = 0; i < list.size(); ++i)
+            if (list.get(i) == geometry) {
+                list.remove(i);
+                return true;
+            }
+        return false;
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        List<Point3D> result = null;
+        for (Intersectable geometry : _hierarchy == null ? _geometries : Arrays.asList(_unbounded)) {
+            List<Point3D> points = geometry.findIntersections(ray);
+            if (points == null) continue;
+            if (result == null) result = new ArrayList<>();
+            result.addAll(points);
+        }
+        if (_hierarchy != null) {
+            List<Point3D> points = _hierarchy.findIntersections(ray);
+            if (points != null && result == null) return points; // already sorted
+            if (points != null) result.addAll(points);
+        }
+        if (result != null)
+            result.sort(Comparator.comparingDouble(ray.get_p00()::distanceSquared));
+        return result;
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        boolean found = false;
+        if (_hierarchy == null) {
+            for (Intersectable geometry : _geometries)
+                if (geometry.findNearestIntersection(ray, tMax, hit)) {
+                    found = true;
+                    tMax = hit._t;
+                }
+            return found;
+        }
+        for (Intersectable geometry : _unbounded)
+            if (geometry.findNearestIntersection(ray, tMax, hit)) {
+                found = true;
+                tMax = hit._t;
+            }
+        return _hierarchy.findNearestIntersection(ray, tMax, hit) || found;
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        if (_hierarchy == null) {
+            for (Intersectable geometry : _geometries)
+                if (geometry.isOccluded(ray, maxDistance, hit)) return true;
+            return false;
+        }
+        for (Intersectable geometry : _unbounded)
+            if (geometry.isOccluded(ray, maxDistance, hit)) return true;
+        return _hierarchy.isOccluded(ray, maxDistance, hit);
+    }
+
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        if (_hierarchy == null) {
+            for (Intersectable geometry : _geometries)
+                geometry.findNearestIntersections(packet);
+            return;
+        }
+        for (Intersectable geometry : _unbounded)
+            geometry.findNearestIntersections(packet);
+        _hierarchy.findNearestIntersections(packet);
+    }
+
+    /**
+     * The box bounding all the objects of the composite
+     *
+     * @return new bounding box, or null if the composite is empty or any of its objects is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = null;
+        for (Intersectable geometry : _geometries) {
+            BoundingBox other = geometry.getBoundingBox();
+            if (other == null) return null;
+            box = box == null ? other : box.union(other);
+        }
+        return box;
+    }
+
+    /**
+     * The bounded objects of the composite as elements of an acceleration structure - a removed object leaves an
+     * empty slot (so the indices of the rest are kept) which is reused by the next added object, so adding and
+     * removing objects frame after frame doesn't grow the index space. The indices of the objects are looked up by
+     * identity.
+     */
+    private static final class Elements implements BoundedElements {
+        private Intersectable[] _geometries;
+        private int _size;
+        private final Map<Intersectable, Integer> _indices = new IdentityHashMap<>();
+        // the empty slots (a stack)
+        private int[] _free = new int[0];
+        private int _freeCount;
+
+        Elements(Intersectable[] geometries) {
+            _geometries = geometries;
+            _size = geometries.length;
+            for (int index = 0; index < _size; ++index)
+                _indices.put(geometries[index], index);
+        }
+
+        /**
+         * @return index of the added object (an empty slot if there is one)
+         */
+        int add(Intersectable geometry) {
+            int index;
+            if (_freeCount > 0)
+                index = _free[--_freeCount];
+            else {
+                if (_size == _geometries.length)
+                    _geometries = Arrays.copyOf(_geometries, Math.max(16, 2 * _size));
+                index = _size++;
+            }
+            _geometries[index] = geometry;
+            _indices.put(geometry, index);
+            return index;
+        }
+
+        /**
+         * @return index of the removed object
+         * @throws IllegalArgumentException in case the object is not an element
+         */
+        int remove(Intersectable geometry) {
+            Integer index = _indices.remove(geometry);
+            if (index == null)
+                throw new IllegalArgumentException("The object is not an element");
+            _geometries[index] = null;
+            if (_freeCount == _free.length)
+                _free = Arrays.copyOf(_free, Math.max(16, 2 * _freeCount));
+            _free[_freeCount++] = index;
+            return index;
+        }
+
+        @Override
+        public int size() {
+            return _size;
+        }
+
+        @Override
+        public void getBounds(int index, double[] bounds, int offset) {
+            BoundingBox box = _geometries[index].getBoundingBox();
+            bounds[offset] = box._minX;
+            bounds[offset + 1] = box._minY;
+            bounds[offset + 2] = box._minZ;
+            bounds[offset + 3] = box._maxX;
+            bounds[offset + 4] = box._maxY;
+            bounds[offset + 5] = box._maxZ;
+        }
+
+        @Override
+        public List<Point3D> findIntersections(int index, Ray ray) {
+            return _geometries[index].findIntersections(ray);
+        }
+
+        @Override
+        public boolean findNearestIntersection(int index, Ray ray, double tMax, Hit hit) {
+            return _geometries[index].findNearestIntersection(ray, tMax, hit);
+        }
+
+        @Override
+        public boolean isOccluded(int index, Ray ray, double maxDistance, Hit hit) {
+            return _geometries[index].isOccluded(ray, maxDistance, hit);
+        }
+
+        @Override
+        public void findNearestIntersections(int index, RayPacket packet) {
+            _geometries[index].findNearestIntersections(packet);
+        }
+    }
+}
@@ -1,11 +1,86 @@
 package geometries;
 
+import primitives.Color;
+import primitives.Material;
 import primitives.Point3D;
+import primitives.Ray;
 import primitives.Vector;
 
 /**
- * interface for all 3D geometry objects with getNormal method
+ * Abstract class for all 3D geometry objects with getNormal method, their own (emission) color and their material
  */
-public interface Geometry {
-    Vector getNormal(Point3D _point);
+public abstract class Geometry implements Intersectable {
+    protected Color _emission = Color.BLACK;
+    protected Material _material = Material.DEFAULT;
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return the emission color of the geometry
+     */
+    public Color get_emission() {
+        return _emission;
+    }
+
+    /**
+     * @return the material of the geometry
+     */
+    public Material get_material() {
+        return _material;
+    }
+
+    public abstract Vector getNormal(Point3D _point);
+
+    /**
+     * The normal at a point of an element of a compound geometry (e.g. a face of a mesh), simple geometries ignore
+     * the index
+     *
+     * @param _point the point on the geometry
+     * @param index  index of the element the point is on (as written into a {@link Hit} record), -1 if unknown
+     * @return the normal at the point
+     */
+    public Vector getNormal(Point3D _point, int index) {
+        return getNormal(_point);
+    }
+
+
+    /**
+     * Any-hit query of a ray with an element of a compound geometry (e.g. the face of a mesh which blocked the
+     * previous shadow ray), simple geometries ignore the index - see {@link #isOccluded(Ray, double, Hit)}
+     *
+     * @param ray         the ray
+     * @param maxDistance the cutoff distance
+     * @param index       index of the element (as written into a {@link Hit} record), -1 for the whole geometry
+     * @param hit         the record to write the blocking intersection into
+     * @return true if the element blocks the ray closer than maxDistance
+     */
+    public boolean isOccluded(Ray ray, double maxDistance, int index, Hit hit) {
+        return isOccluded(ray, maxDistance, hit);
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Setter of the emission color of the geometry
+     *
+     * @param emission the emission color
+     * @return the geometry itself
+     */
+    public Geometry setEmission(Color emission) {
+        _emission = emission;
+        return this;
+    }
+
+    /**
+     * Setter of the material of the geometry
+     *
+     * @param material the material
+     * @return the geometry itself
+     */
+    public Geometry setMaterial(Material material) {
+        _material = material;
+        return this;
+    }
 }
@@ -0,0 +1,397 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Class Grid is a uniform grid over a set of bounded elements - an acceleration structure which is an alternative
+ * to a {@link BVH}: it is built in linear time (the elements are counted into the cells they overlap, then they
+ * are filled into one flat array), so it suits scenes which are rebuilt every frame.
+ * <p>
+ * The resolution is chosen by the heuristic of a given number of cells per element (a cell is a cube, as much as
+ * the box allows). A ray walks the cells it crosses front to back with the 3D-DDA (Amanatides-Woo) and stops at
+ * the first cell which ends behind the nearest intersection found. In a two-level grid the top grid is coarse and
+ * each of its crowded cells has a grid of its own over its elements, which adapts the resolution to unevenly
+ * distributed elements.
+ */
+public final class Grid implements Intersectable {
+    /**
+     * number of the cells per element of a uniform grid (and of the grids of the cells of a two-level grid)
+     */
+    private static final double DENSITY = 4;
+    /**
+     * number of the cells per element of the top grid of a two-level grid
+     */
+    private static final double TOP_DENSITY = 0.5;
+    /**
+     * maximal number of the cells on an axis
+     */
+    private static final int MAX_RESOLUTION = 256;
+    /**
+     * a cell of the top grid of a two-level grid with more elements than this gets its own grid
+     */
+    private static final int CELL_GRID_THRESHOLD = 16;
+
+    private final BoundedElements _elements;
+    private final double _minX, _minY, _minZ;
+    private final double _maxX, _maxY, _maxZ;
+    private final int _nx, _ny, _nz;
+    private final double _cellX, _cellY, _cellZ;
+    /**
+     * the elements of cell c are _cellElements[_cellStart[c]] .. _cellElements[_cellStart[c + 1] - 1]
+     */
+    private final int[] _cellStart;
+    private final int[] _cellElements;
+    /**
+     * the grids of the crowded cells of a two-level grid (null for a one-level grid and for the other cells)
+     */
+    private final Grid[] _cellGrids;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Build a uniform grid over a set of elements
+     *
+     * @param elements the elements
+     * @param pool     the fork-join pool for calculating the bounds of the elements in parallel
+     */
+    public Grid(BoundedElements elements, ForkJoinPool pool) {
+        this(elements, false, pool);
+    }
+
+    /**
+     * Build a grid over a set of elements
+     *
+     * @param elements the elements
+     * @param twoLevel true for a two-level grid, false for a uniform grid
+     * @param pool     the fork-join pool for calculating the bounds of the elements (and the grids of the cells)
+     *                 in parallel
+     */
+    public Grid(BoundedElements elements, boolean twoLevel, ForkJoinPool pool) {
+        this(elements, bounds(elements, pool), IntStream.range(0, elements.size()).toArray(), null,
+                twoLevel ? TOP_DENSITY : DENSITY, twoLevel, pool);
+    }
+
+    /**
+     * Build a grid over a subset of the elements
+     *
+     * @param elements the elements
+     * @param bounds   the bounds of all the elements (6 values for each element)
+     * @param subset   indices of the elements of the grid
+     * @param clip     box the grid is limited to (6 values), or null
+     * @param density  number of the cells per element
+     * @param twoLevel true for building grids of the crowded cells
+     * @param pool     the fork-join pool for building the grids of the cells in parallel
+     */
+    private Grid(BoundedElements elements, double[] bounds, int[] subset, double[] clip, double density,
+                 boolean twoLevel, ForkJoinPool pool) {
+        _elements = elements;
+        double[] box = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int index : subset)
+            for (int axis = 0; axis < 3; ++axis) {
+                box[axis] = Math.min(box[axis], bounds[6 * index + axis]);
+                box[axis + 3] = Math.max(box[axis + 3], bounds[6 * index + axis + 3]);
+            }
+        if (clip != null)
+            for (int axis = 0; axis < 3; ++axis) {
+                box[axis] = Math.max(box[axis], clip[axis]);
+                box[axis + 3] = Math.min(box[axis + 3], clip[axis + 3]);
+            }
+        _minX = box[0];
+        _minY = box[1];
+        _minZ = box[2];
+        _maxX = box[3];
+        _maxY = box[4];
+        _maxZ = box[5];
+
+        // resolution: cubic cells of the volume (of the non flat extents) per the wanted number of the cells
+        double ex = _maxX - _minX, ey = _maxY - _minY, ez = _maxZ - _minZ;
+        double floor = Math.max(ex, Math.max(ey, ez)) * 1e-3;
+        double volume = Math.max(ex, floor) * Math.max(ey, floor) * Math.max(ez, floor);
+        double perLength = subset.length == 0 || volume <= 0 ? 0 : Math.cbrt(density * subset.length / volume);
+        _nx = resolution(ex * perLength);
+        _ny = resolution(ey * perLength);
+        _nz = resolution(ez * perLength);
+        _cellX = ex / _nx;
+        _cellY = ey / _ny;
+        _cellZ = ez / _nz;
+
+        // count the elements of each cell, then fill them in after the counts' prefix sums
+        int cells = _nx * _ny * _nz;
+        _cellStart = new int[cells + 1];
+        int[] range = new int[6];
+        for (int index : subset) {
+            cellRange(bounds, index, range);
+            for (int z = range[2]; z <= range[5]; ++z)
+                for (int y = range[1]; y <= range[4]; ++y)
+                    for (int x = range[0]; x <= range[3]; ++x)
+                        ++_cellStart[cell(x, y, z) + 1];
+        }
+        for (int c = 0; c < cells; ++c)
+            _cellStart[c + 1] += _cellStart[c];
+        _cellElements = new int[_cellStart[cells]];
+        int[] cursor = new int[cells];
+        System.arraycopy(_cellStart, 0, cursor, 0, cells);
+        for (int index : subset) {
+            cellRange(bounds, index, range);
+            for (int z = range[2]; z <= range[5]; ++z)
+                for (int y = range[1]; y <= range[4]; ++y)
+                    for (int x = range[0]; x <= range[3]; ++x)
+                        _cellElements[cursor[cell(x, y, z)]++] = index;
+        }
+
+        if (!twoLevel) {
+            _cellGrids = null;
+            return;
+        }
+        _cellGrids = new Grid[cells];
+        pool.submit(() -> IntStream.range(0, cells).parallel().forEach(c -> {
+            int start = _cellStart[c], end = _cellStart[c + 1];
+            if (end - start <= CELL_GRID_THRESHOLD) return;
+            int x = c % _nx, y = c / _nx % _ny, z = c / (_nx * _ny);
+            double[] cellBox = {_minX + x * _cellX, _minY + y * _cellY, _minZ + z * _cellZ,
+                    _minX + (x + 1) * _cellX, _minY + (y + 1) * _cellY, _minZ + (z + 1) * _cellZ};
+            int[] cellSubset = new int[end - start];
+            System.arraycopy(_cellElements, start, cellSubset, 0, cellSubset.length);
+            _cellGrids[c] = new Grid(elements, bounds, cellSubset, cellBox, DENSITY, false, pool);
+        })).join();
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return number of the cells of the grid (the top grid of a two-level grid)
+     */
+    public int getCellCount() {
+        return _nx * _ny * _nz;
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        List<Point3D> result = new ArrayList<>();
+        collectIntersections(ray, new BitSet(_elements.size()), result);
+        if (result.isEmpty()) return null;
+        result.sort(Comparator.comparingDouble(ray.get_p00()::distanceSquared));
+        return result;
+    }
+
+    /**
+     * 3D-DDA walk over the cells crossed by the ray, front to back, while they begin before the nearest
+     * intersection found so far
+     */
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        return walk(ray, tMax, hit, false);
+    }
+
+    /**
+     * The same walk as for the nearest intersection, but it stops at the first blocking element
+     */
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        return walk(ray, maxDistance, hit, true);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        if (_cellElements.length == 0) return null;
+        return new BoundingBox(_minX, _minY, _minZ, _maxX, _maxY, _maxZ);
+    }
+
+    /**
+     * Walk the cells crossed by a ray (3D-DDA)
+     *
+     * @param ray    the ray
+     * @param tMax   the cutoff distance
+     * @param hit    the record to write the intersection into
+     * @param anyHit true for stopping at the first intersection (occlusion), false for the nearest one
+     * @return true if an intersection closer than tMax was found
+     */
+    private boolean walk(Ray ray, double tMax, Hit hit, boolean anyHit) {
+        if (_cellElements.length == 0) return false;
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double ix = ray.getInverseDirectionX(), iy = ray.getInverseDirectionY(), iz = ray.getInverseDirectionZ();
+        double tEnter = BoundingBox.entryDistance(_minX, _minY, _minZ, _maxX, _maxY, _maxZ,
+                ox, oy, oz, ix, iy, iz, tMax);
+        if (tEnter == Double.POSITIVE_INFINITY) return false;
+
+        // the first cell and the distances to the next cell boundary and between the boundaries on each axis
+        int x = cellIndex(ox + tEnter * dx, _minX, _cellX, _nx);
+        int y = cellIndex(oy + tEnter * dy, _minY, _cellY, _ny);
+        int z = cellIndex(oz + tEnter * dz, _minZ, _cellZ, _nz);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double inf = Double.POSITIVE_INFINITY;
+        double nextX = dx == 0 ? inf : (_minX + (x + (dx > 0 ? 1 : 0)) * _cellX - ox) * ix;
+        double nextY = dy == 0 ? inf : (_minY + (y + (dy > 0 ? 1 : 0)) * _cellY - oy) * iy;
+        double nextZ = dz == 0 ? inf : (_minZ + (z + (dz > 0 ? 1 : 0)) * _cellZ - oz) * iz;
+        double deltaX = dx == 0 ? inf : _cellX * Math.abs(ix);
+        double deltaY = dy == 0 ? inf : _cellY * Math.abs(iy);
+        double deltaZ = dz == 0 ? inf : _cellZ * Math.abs(iz);
+
+        double nearest = tMax;
+        boolean found = false;
+        while (true) {
+            int c = cell(x, y, z);
+            Grid cellGrid = _cellGrids == null ? null : _cellGrids[c];
+            if (cellGrid != null) {
+                if (cellGrid.walk(ray, nearest, hit, anyHit)) {
+                    if (anyHit) return true;
+                    found = true;
+                    nearest = hit._t;
+                }
+            } else
+                for (int k = _cellStart[c], end = _cellStart[c + 1]; k < end; ++k) {
+                    int element = _cellElements[k];
+                    if (anyHit) {
+                        if (_elements.isOccluded(element, ray, nearest, hit)) return true;
+                    } else if (_elements.findNearestIntersection(element, ray, nearest, hit)) {
+                        found = true;
+                        nearest = hit._t;
+                    }
+                }
+
+            // the next cell along the axis of the nearest boundary (the walk ends behind the nearest intersection
+            // or out of the grid)
+            if (nextX <= nextY && nextX <= nextZ) {
+                if (nearest <= nextX) return found;
+                x += stepX;
+                if (x < 0 || x >= _nx) return found;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                if (nearest <= nextY) return found;
+                y += stepY;
+                if (y < 0 || y >= _ny) return found;
+                nextY += deltaY;
+            } else {
+                if (nearest <= nextZ) return found;
+                z += stepZ;
+                if (z < 0 || z >= _nz) return found;
+                nextZ += deltaZ;
+            }
+        }
+    }
+
+    /**
+     * Collect the intersections of a ray with all the elements of the cells crossed by the ray (each element once) -
+     * the 3D-DDA walk of {@link #walk} through the whole grid
+     *
+     * @param ray     the ray
+     * @param visited the elements which were already intersected
+     * @param result  the list to add the intersection points to
+     */
+    private void collectIntersections(Ray ray, BitSet visited, List<Point3D> result) {
+        if (_cellElements.length == 0) return;
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double ix = ray.getInverseDirectionX(), iy = ray.getInverseDirectionY(), iz = ray.getInverseDirectionZ();
+        double inf = Double.POSITIVE_INFINITY;
+        double tEnter = BoundingBox.entryDistance(_minX, _minY, _minZ, _maxX, _maxY, _maxZ,
+                ox, oy, oz, ix, iy, iz, inf);
+        if (tEnter == inf) return;
+
+        int x = cellIndex(ox + tEnter * dx, _minX, _cellX, _nx);
+        int y = cellIndex(oy + tEnter * dy, _minY, _cellY, _ny);
+        int z = cellIndex(oz + tEnter * dz, _minZ, _cellZ, _nz);
+        int stepX = dx > 0 ? 1 : -1, stepY = dy > 0 ? 1 : -1, stepZ = dz > 0 ? 1 : -1;
+        double nextX = dx == 0 ? inf : (_minX + (x + (dx > 0 ? 1 : 0)) * _cellX - ox) * ix;
+        double nextY = dy == 0 ? inf : (_minY + (y + (dy > 0 ? 1 : 0)) * _cellY - oy) * iy;
+        double nextZ = dz == 0 ? inf : (_minZ + (z + (dz > 0 ? 1 : 0)) * _cellZ - oz) * iz;
+        double deltaX = dx == 0 ? inf : _cellX * Math.abs(ix);
+        double deltaY = dy == 0 ? inf : _cellY * Math.abs(iy);
+        double deltaZ = dz == 0 ? inf : _cellZ * Math.abs(iz);
+
+        while (true) {
+            int c = cell(x, y, z);
+            if (_cellGrids != null && _cellGrids[c] != null)
+                _cellGrids[c].collectIntersections(ray, visited, result);
+            else
+                for (int k = _cellStart[c], end = _cellStart[c + 1]; k < end; ++k) {
+                    int element = _cellElements[k];
+                    if (visited.get(element)) continue;
+                    visited.set(element);
+                    List<Point3D> points = _elements.findIntersections(element, ray);
+                    if (points != null) result.addAll(points);
+                }
+
+            // the next cell along the axis of the nearest boundary (the walk ends out of the grid)
+            if (nextX <= nextY && nextX <= nextZ) {
+                x += stepX;
+                if (x < 0 || x >= _nx) return;
+                nextX += deltaX;
+            } else if (nextY <= nextZ) {
+                y += stepY;
+                if (y < 0 || y >= _ny) return;
+                nextY += deltaY;
+            } else {
+                z += stepZ;
+                if (z < 0 || z >= _nz) return;
+                nextZ += deltaZ;
+            }
+        }
+    }
+
+
+    //********** Building ***********/
+
+    /**
+     * Calculate the bounds of all the elements in parallel
+     *
+     * @param elements the elements
+     * @param pool     the fork-join pool
+     * @return the bounds (6 values for each element)
+     */
+    private static double[] bounds(BoundedElements elements, ForkJoinPool pool) {
+        double[] bounds = new double[6 * elements.size()];
+        pool.submit(() -> IntStream.range(0, elements.size()).parallel()
+                .forEach(i -> elements.getBounds(i, bounds, 6 * i))).join();
+        return bounds;
+    }
+
+    private static int resolution(double cells) {
+        return (int) Math.max(1, Math.min(MAX_RESOLUTION, Math.round(cells)));
+    }
+
+    private int cell(int x, int y, int z) {
+        return (z * _ny + y) * _nx + x;
+    }
+
+    /**
+     * @return index of the cell containing a coordinate on an axis (clamped into the grid)
+     */
+    private static int cellIndex(double coordinate, double min, double cellSize, int resolution) {
+        if (cellSize == 0) return 0;
+        int index = (int) ((coordinate - min) / cellSize);
+        return Math.max(0, Math.min(resolution - 1, index));
+    }
+
+    /**
+     * The range of the cells overlapped by an element's box (clamped into the grid)
+     *
+     * @param bounds the bounds of all the elements
+     * @param index  the element's index
+     * @param range  array to write the minimal cell indices (x, y, z) followed by the maximal cell indices into
+     */
+    private void cellRange(double[] bounds, int index, int[] range) {
+        int b = 6 * index;
+        range[0] = cellIndex(bounds[b], _minX, _cellX, _nx);
+        range[1] = cellIndex(bounds[b + 1], _minY, _cellY, _ny);
+        range[2] = cellIndex(bounds[b + 2], _minZ, _cellZ, _nz);
+        range[3] = cellIndex(bounds[b + 3], _minX, _cellX, _nx);
+        range[4] = cellIndex(bounds[b + 4], _minY, _cellY, _ny);
+        range[5] = cellIndex(bounds[b + 5], _minZ, _cellZ, _nz);
+    }
+}
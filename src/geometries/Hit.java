@@ -0,0 +1,178 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Class Hit is a reusable record of the nearest intersection of a ray: the distance from the ray's beginning point,
+ * the intersection point and the intersected geometry (and the index of the intersected element of a compound
+ * geometry, e.g. a face of a mesh).
+ * <p>
+ * The record is owned by the caller (one per thread), it is filled by
+ * {@link Intersectable#findNearestIntersection(primitives.Ray, double, Hit)} and it keeps the point as primitive
+ * coordinates, so no objects are allocated while searching for the nearest intersection.
+ */
+public final class Hit {
+    double _t = Double.POSITIVE_INFINITY;
+    double _x;
+    double _y;
+    double _z;
+    Geometry _geometry;
+    int _index = -1;
+
+    // traversal stack of the acceleration structures (node indices and their entry distances), a structure nested
+    // in other one uses the part of the stack above the top it got
+    int[] _stack = new int[64];
+    double[] _stackDistance = new double[64];
+    int _stackTop;
+
+    // object space rays of the instances (see Instance), an instance nested in other one uses the next ray
+    Ray[] _rays = new Ray[0];
+    int _rayTop;
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return true if the record holds an intersection
+     */
+    public boolean isFound() {
+        return _geometry != null;
+    }
+
+    /**
+     * @return the distance of the intersection from the ray's beginning point
+     * (positive infinity if there is no intersection)
+     */
+    public double get_t() {
+        return _t;
+    }
+
+    /**
+     * @return the intersected geometry (null if there is no intersection)
+     */
+    public Geometry get_geometry() {
+        return _geometry;
+    }
+
+    /**
+     * @return index of the intersected element of a compound geometry (e.g. the face of a mesh), -1 otherwise
+     */
+    public int get_index() {
+        return _index;
+    }
+
+    /**
+     * @return the normal of the intersected geometry at the intersection point
+     */
+    public Vector getNormal() {
+        return _geometry.getNormal(getPoint(), _index);
+    }
+
+    /**
+     * @return new point of the intersection
+     */
+    public Point3D getPoint() {
+        return new Point3D(_x, _y, _z);
+    }
+
+    public double getX() {
+        return _x;
+    }
+
+    public double getY() {
+        return _y;
+    }
+
+    public double getZ() {
+        return _z;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Clear the record for a new search
+     *
+     * @return the record itself
+     */
+    public Hit reset() {
+        _t = Double.POSITIVE_INFINITY;
+        _geometry = null;
+        _index = -1;
+        _stackTop = 0;
+        _rayTop = 0;
+        return this;
+    }
+
+    /**
+     * Write an intersection into the record
+     *
+     * @param geometry the intersected geometry
+     * @param t        distance of the intersection from the ray's beginning point
+     * @param x        x coordinate of the intersection point
+     * @param y        y coordinate of the intersection point
+     * @param z        z coordinate of the intersection point
+     */
+    public void set(Geometry geometry, double t, double x, double y, double z) {
+        set(geometry, -1, t, x, y, z);
+    }
+
+    /**
+     * Write an intersection with an element of a compound geometry into the record
+     *
+     * @param geometry the intersected geometry
+     * @param index    index of the intersected element of the geometry
+     * @param t        distance of the intersection from the ray's beginning point
+     * @param x        x coordinate of the intersection point
+     * @param y        y coordinate of the intersection point
+     * @param z        z coordinate of the intersection point
+     */
+    public void set(Geometry geometry, int index, double t, double x, double y, double z) {
+        _geometry = geometry;
+        _index = index;
+        _t = t;
+        _x = x;
+        _y = y;
+        _z = z;
+    }
+
+
+    /**
+     * Take the next scratch ray (the caller returns it by decreasing _rayTop)
+     *
+     * @return the scratch ray
+     */
+    Ray pushRay() {
+        if (_rayTop == _rays.length) {
+            _rays = Arrays.copyOf(_rays, _rayTop + 2);
+            for (int i = _rayTop; i < _rays.length; ++i)
+                _rays[i] = new Ray();
+        }
+        return _rays[_rayTop++];
+    }
+
+    /**
+     * Double the size of the traversal stack
+     */
+    void growStack() {
+        _stack = Arrays.copyOf(_stack, 2 * _stack.length);
+        _stackDistance = Arrays.copyOf(_stackDistance, 2 * _stackDistance.length);
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "Hit{" +
+                "_t=" + _t +
+                ", _point=(" + _x + ", " + _y + ", " + _z + ")" +
+                ", _geometry=" + _geometry +
+                ", _index=" + _index +
+                '}';
+    }
+}
@@ -0,0 +1,189 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Transform;
+import primitives.Vector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class Instance is a placement of a shared geometry (a model, e.g. a {@link TriangleMesh} of a chair) in the
+ * scene by an affine transform: the model is kept once, in its own space with its own hierarchy (the bottom
+ * level), and each instance holds only a reference to it and the transform. Instances are bounded geometries,
+ * so the hierarchy of the scene's composite is built over them (the top level).
+ * <p>
+ * A ray is transformed into the model's space (and its direction normalized), the model is intersected and the
+ * distance and the point are brought back to the world space. An instance is a geometry of its own: the hit
+ * record reports the instance (with the model's element index), and it has its own emission and material
+ * (taken from the model unless they are set).
+ */
+public class Instance extends Geometry {
+    private final Geometry _model;
+    private final Transform _transform;
+    /**
+     * the transform (model to world) and its inverse (world to model) - 3x4 matrices, row by row
+     */
+    private final double[] _m = new double[12];
+    private final double[] _inv = new double[12];
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an instance of a model
+     *
+     * @param model     the shared model
+     * @param transform the placement of the model (from the model's space to the world space)
+     * @throws IllegalArgumentException in case the transform is singular
+     */
+    public Instance(Geometry model, Transform transform) {
+        _model = model;
+        _transform = transform;
+        Transform inverse = transform.inverse();
+        for (int row = 0; row < 3; ++row)
+            for (int column = 0; column < 4; ++column) {
+                _m[4 * row + column] = transform.get(row, column);
+                _inv[4 * row + column] = inverse.get(row, column);
+            }
+        _emission = model.get_emission();
+        _material = model.get_material();
+    }
+
+
+    //********** Getters ***********/
+
+    public Geometry get_model() {
+        return _model;
+    }
+
+    public Transform get_transform() {
+        return _transform;
+    }
+
+    @Override
+    public Vector getNormal(Point3D point) {
+        return getNormal(point, -1);
+    }
+
+    /**
+     * The model's normal at the point brought back to the model's space, transformed by the inverse transpose of
+     * the transform
+     */
+    @Override
+    public Vector getNormal(Point3D point, int index) {
+        double x = point.getX(), y = point.getY(), z = point.getZ();
+        Vector n = _model.getNormal(new Point3D(
+                _inv[0] * x + _inv[1] * y + _inv[2] * z + _inv[3],
+                _inv[4] * x + _inv[5] * y + _inv[6] * z + _inv[7],
+                _inv[8] * x + _inv[9] * y + _inv[10] * z + _inv[11]), index);
+        double nx = n.getX(), ny = n.getY(), nz = n.getZ();
+        return new Vector(_inv[0] * nx + _inv[4] * ny + _inv[8] * nz,
+                _inv[1] * nx + _inv[5] * ny + _inv[9] * nz,
+                _inv[2] * nx + _inv[6] * ny + _inv[10] * nz).normalize();
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        Ray modelRay = new Ray();
+        toModel(ray, modelRay);
+        List<Point3D> points = _model.findIntersections(modelRay);
+        if (points == null) return null;
+        List<Point3D> result = new ArrayList<>(points.size());
+        for (Point3D p : points) {
+            double x = p.getX(), y = p.getY(), z = p.getZ();
+            result.add(new Point3D(_m[0] * x + _m[1] * y + _m[2] * z + _m[3],
+                    _m[4] * x + _m[5] * y + _m[6] * z + _m[7],
+                    _m[8] * x + _m[9] * y + _m[10] * z + _m[11]));
+        }
+        return result;
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        Ray modelRay = hit.pushRay();
+        double scale = toModel(ray, modelRay);
+        boolean found = _model.findNearestIntersection(modelRay, tMax * scale, hit);
+        --hit._rayTop;
+        if (!found) return false;
+        double t = hit._t / scale;
+        hit.set(this, hit._index, t, ray.getOriginX() + t * ray.getDirectionX(),
+                ray.getOriginY() + t * ray.getDirectionY(), ray.getOriginZ() + t * ray.getDirectionZ());
+        return true;
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        return isOccluded(ray, maxDistance, -1, hit);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, int index, Hit hit) {
+        Ray modelRay = hit.pushRay();
+        double scale = toModel(ray, modelRay);
+        boolean occluded = _model.isOccluded(modelRay, maxDistance * scale, index, hit);
+        --hit._rayTop;
+        if (occluded) hit._geometry = this; // the occluder is the instance, with the model's element
+        return occluded;
+    }
+
+    /**
+     * The box of the transformed corners of the model's box
+     *
+     * @return new bounding box, or null if the model is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        BoundingBox box = _model.getBoundingBox();
+        if (box == null) return null;
+        double[] result = {Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY,
+                Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY, Double.NEGATIVE_INFINITY};
+        for (int corner = 0; corner < 8; ++corner) {
+            double x = (corner & 1) == 0 ? box._minX : box._maxX;
+            double y = (corner & 2) == 0 ? box._minY : box._maxY;
+            double z = (corner & 4) == 0 ? box._minZ : box._maxZ;
+            for (int axis = 0; axis < 3; ++axis) {
+                double value = _m[4 * axis] * x + _m[4 * axis + 1] * y + _m[4 * axis + 2] * z + _m[4 * axis + 3];
+                result[axis] = Math.min(result[axis], value);
+                result[axis + 3] = Math.max(result[axis + 3], value);
+            }
+        }
+        return new BoundingBox(result[0], result[1], result[2], result[3], result[4], result[5]);
+    }
+
+    /**
+     * Transform a ray into the model's space
+     *
+     * @param ray      the ray in the world space
+     * @param modelRay the ray to set to the ray in the model's space (e.g. a scratch ray of a hit record)
+     * @return the ratio of a distance along the model's ray to the distance along the world ray
+     */
+    private double toModel(Ray ray, Ray modelRay) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double mdx = _inv[0] * dx + _inv[1] * dy + _inv[2] * dz;
+        double mdy = _inv[4] * dx + _inv[5] * dy + _inv[6] * dz;
+        double mdz = _inv[8] * dx + _inv[9] * dy + _inv[10] * dz;
+        double scale = Math.sqrt(mdx * mdx + mdy * mdy + mdz * mdz);
+        modelRay.set(_inv[0] * ox + _inv[1] * oy + _inv[2] * oz + _inv[3],
+                _inv[4] * ox + _inv[5] * oy + _inv[6] * oz + _inv[7],
+                _inv[8] * ox + _inv[9] * oy + _inv[10] * oz + _inv[11],
+                mdx / scale, mdy / scale, mdz / scale);
+        return scale;
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "Instance{" +
+                "_model=" + _model +
+                ", _transform=" + _transform +
+                '}';
+    }
+}
@@ -0,0 +1,81 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+
+import java.util.List;
+
+/**
+ * Interface for all the objects which a ray can intersect (geometries and composites of geometries)
+ */
+public interface Intersectable {
+
+    /**
+     * Find all the intersection points of a ray with the object (in front of the ray's beginning point)
+     *
+     * @param ray the ray which intersects the object
+     * @return list of the intersection points ordered by their distance from the ray's beginning point,
+     * or null if there are no intersections
+     */
+    List<Point3D> findIntersections(Ray ray);
+
+    /**
+     * Find the nearest intersection of a ray with the object which is closer than a given distance.
+     * The result is written into a caller-owned (reusable) hit record, nothing is allocated.
+     * The hit record is changed only if such an intersection is found, so a composite may pass the distance of the
+     * nearest hit found so far as the cutoff of its next object.
+     *
+     * @param ray  the ray which intersects the object
+     * @param tMax the cutoff distance - farther intersections (or at this distance) are rejected
+     * @param hit  the record to write the intersection into
+     * @return true if an intersection closer than tMax was found (and written into the hit record)
+     */
+    boolean findNearestIntersection(Ray ray, double tMax, Hit hit);
+
+    /**
+     * Any-hit query - whether the object blocks a ray closer than a given distance (e.g. a shadow ray towards a
+     * light). Unlike {@link #findNearestIntersection(Ray, double, Hit)} the search stops at the first blocking
+     * intersection found, which is written into the hit record (it is not necessarily the nearest one), so the
+     * caller may remember the blocker and test it first next time.
+     * By default it is the nearest intersection search (the same for a simple geometry), composites and
+     * acceleration structures override it.
+     *
+     * @param ray         the ray
+     * @param maxDistance the cutoff distance - blockers farther (or at this distance) are ignored
+     * @param hit         the record to write the blocking intersection into (and the scratch traversal stack)
+     * @return true if the ray is blocked closer than maxDistance
+     */
+    default boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        return findNearestIntersection(ray, maxDistance, hit);
+    }
+
+    /**
+     * Find the nearest intersection of each ray of a packet which is closer than the nearest intersection already
+     * recorded in its lane (the lanes are updated in place).
+     * By default the lanes are intersected one by one, objects which benefit from intersecting the whole packet
+     * at once (simple geometries in straight loops over the lanes, hierarchies testing each node once per packet)
+     * override it.
+     *
+     * @param packet the rays and their nearest intersections so far
+     */
+    default void findNearestIntersections(RayPacket packet) {
+        packet.intersectLanes(this);
+    }
+
+    /**
+     * The axis aligned box bounding the object
+     *
+     * @return new bounding box, or null if the object is unbounded (e.g. a plane or an infinite tube)
+     */
+    BoundingBox getBoundingBox();
+
+    /**
+     * Unbounded objects can't be put in a spatial structure,
+     * they must be kept in a separate list which is always tested
+     *
+     * @return true if the object has a bounding box
+     */
+    default boolean isBounded() {
+        return getBoundingBox() != null;
+    }
+}
@@ -0,0 +1,56 @@
+package geometries;
+
+import primitives.Ray;
+
+import java.util.Arrays;
+
+/**
+ * Class OccluderCache answers shadow ray queries (any-hit, see {@link Intersectable#isOccluded(Ray, double, Hit)})
+ * and remembers for each slot (e.g. each light source) the last geometry - and its element - which blocked a
+ * shadow ray of the slot. The next query of the slot tests that occluder first: neighbouring shading points are
+ * mostly shadowed by the same occluder, so most of the shadowed queries don't traverse the scene at all.
+ * <p>
+ * The cache is owned by a single thread (one per rendering thread, like a {@link Hit} record), so the occluders
+ * are remembered per light and per thread with no synchronization.
+ */
+public final class OccluderCache {
+    private final Hit _hit = new Hit();
+    private Geometry[] _occluders = new Geometry[16];
+    private int[] _indices = new int[16];
+
+
+    //********** Operations ***********/
+
+    /**
+     * Whether a shadow ray of a slot is blocked closer than a given distance - the last occluder of the slot
+     * is tested first, then the scene
+     *
+     * @param scene       the scene's geometries
+     * @param slot        the slot (non negative, e.g. the index of the light source)
+     * @param ray         the shadow ray
+     * @param maxDistance the cutoff distance (e.g. the distance to the light source)
+     * @return true if the ray is blocked closer than maxDistance
+     */
+    public boolean isOccluded(Intersectable scene, int slot, Ray ray, double maxDistance) {
+        if (slot >= _occluders.length) {
+            int length = Math.max(slot + 1, 2 * _occluders.length);
+            _occluders = Arrays.copyOf(_occluders, length);
+            _indices = Arrays.copyOf(_indices, length);
+        }
+        Geometry occluder = _occluders[slot];
+        if (occluder != null && occluder.isOccluded(ray, maxDistance, _indices[slot], _hit.reset()))
+            return true;
+        if (!scene.isOccluded(ray, maxDistance, _hit.reset()))
+            return false;
+        _occluders[slot] = _hit._geometry;
+        _indices[slot] = _hit._index;
+        return true;
+    }
+
+    /**
+     * Forget all the occluders (e.g. when the scene is changed)
+     */
+    public void clear() {
+        Arrays.fill(_occluders, null);
+    }
+}
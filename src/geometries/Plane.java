@@ -1,16 +1,20 @@
 package geometries;
 
 import primitives.Point3D;
+import primitives.Ray;
 import primitives.Vector;
 
+import java.util.List;
+
 import static primitives.Point3D.ZERO;
+import static primitives.Util.*;
 
 /**
  * Class Plane is 2D basic object in geometry which represented by two vectors which come from the same point and
  * have different directions (together reflecting the basic 2D object.)
  * defined by a point and a normal vector
  */
-public class Plane implements Geometry {
+public class Plane extends Geometry {
     Point3D _p;
     Vector _normal;
 
@@ -26,7 +30,7 @@ public class Plane implements Geometry {
      * @param P3 vector represent other dimension
      */
     public Plane(Point3D P1, Point3D P2, Point3D P3) {
-        _p = new Point3D(P1);
+        _p = P1;
         Vector v1 = P2.subtract(P1);
         Vector v2 = P3.subtract(P1);
         _normal = (v1.crossProduct(v2)).normalize().scale(-1);
@@ -37,11 +41,11 @@ public class Plane implements Geometry {
      * which creates the 2D plane object, by the point we can represent the location
      *
      * @param p      represent the location
-     * @param normal represent the two dimensions
+     * @param normal represent the two dimensions (any length - it is normalized)
      */
     public Plane(Point3D p, Vector normal) {
-        _normal = new Vector(normal);
-        _p = new Point3D(p);
+        _normal = normal.normalize();
+        _p = p;
     }
 
 
@@ -53,14 +57,12 @@ public class Plane implements Geometry {
      * @return Point3D representing the location of class Plane
      */
     public Point3D get_p() {
-        return new Point3D(_p);
+        return _p;
     }
 
-    // TODO: implementation
     @Override
     public Vector getNormal(Point3D _point) {
-        return null;
-        //return new Vector(_normal);
+        return _normal;
     }
 
     // polygon get no input
@@ -68,18 +70,58 @@ public class Plane implements Geometry {
         return getNormal(ZERO);
     }
 
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        Hit hit = new Hit();
+        return findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit) ? List.of(hit.getPoint()) : null;
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double t = intersect(ox, oy, oz, dx, dy, dz);
+        if (t <= 0 || t >= tMax) return false;
+        hit.set(this, t, ox + t * dx, oy + t * dy, oz + t * dz);
+        return true;
+    }
+
+    /**
+     * Distance along a ray (given by primitive coordinates) to the plane
+     *
+     * @return the distance to the intersection, or 0 if the ray is parallel to the plane, starts on it
+     * or the plane is behind the ray
+     */
+    double intersect(double ox, double oy, double oz, double dx, double dy, double dz) {
+        double nx = _normal.getX(), ny = _normal.getY(), nz = _normal.getZ();
+        double nv = alignZero(nx * dx + ny * dy + nz * dz);
+        if (nv == 0) return 0; // the ray is parallel to the plane
+        double t = alignZero((nx * (_p.getX() - ox) + ny * (_p.getY() - oy) + nz * (_p.getZ() - oz)) / nv);
+        return t > 0 ? t : 0;
+    }
+
+    /**
+     * A plane is infinite
+     *
+     * @return null - a plane is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
+        return null;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || !(obj instanceof Plane)) return false;
         Plane other_plane = (Plane) obj;
-        try // check if the points are in the same 3D Plane
-        {
-            _p.subtract(other_plane._p).crossProduct(_normal);
-        } catch (IllegalArgumentException exception2) {   // check if the directions are the same
-            return (_normal.equals(other_plane._normal) || other_plane._normal.scale(-1).equals(_normal));
-        }
-        return false;
+        // check if the directions are the same (or opposite)
+        if (!_normal.isParallel(other_plane._normal))
+            return false;
+        // check if the other point is in this plane (orthogonal to the normal)
+        return isZero((other_plane._p.getX() - _p.getX()) * _normal.getX() +
+                (other_plane._p.getY() - _p.getY()) * _normal.getY() +
+                (other_plane._p.getZ() - _p.getZ()) * _normal.getZ());
     }
 
     @Override
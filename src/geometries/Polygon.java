@@ -1,6 +1,11 @@
 package geometries;
 
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
 import primitives.*;
 
@@ -12,7 +17,7 @@ import static primitives.Util.*;
  *
  * @author Dan Zilberstein
  */
-public class Polygon implements Geometry {
+public class Polygon extends Geometry {
     /**
      * List of polygon's vertices
      */
@@ -21,6 +26,24 @@ public class Polygon implements Geometry {
      * Associated plane in which the polygon lays.
      */
     protected Plane _plane;
+    /**
+     * Polygons with more vertices than this are tested by their fan triangulation (binary search of the fan triangle
+     * in which the plane's intersection point is) instead of by all of their edges
+     */
+    private static final int FAN_THRESHOLD = 8;
+    private static final String SAME_POINT = "Vertices of a polygon can't be in the same point";
+    private static final String SAME_LINE = "Three consequent vertices of a polygon can't lay in the same line";
+    /**
+     * For each edge (from vertex i to vertex i + 1): its normal in the polygon's plane pointing into the polygon
+     * (x, y, z) followed by the dot product of this normal with vertex i
+     */
+    private final double[] _edgeNormals;
+    /**
+     * Fan triangulation from the first vertex (null for polygons with few vertices): the first vertex (x, y, z) and
+     * then, for each other vertex i, the normal in the polygon's plane of the diagonal from the first vertex to
+     * vertex i, pointing towards the following vertices
+     */
+    private final double[] _fan;
 
     /**
      * Polygon constructor based on vertices list. The list must be ordered by edge
@@ -39,46 +62,247 @@ public class Polygon implements Geometry {
      *                                  </ul>
      */
     public Polygon(Point3D... vertices) {
-        if (vertices.length < 3)
+        this(vertices, true);
+    }
+
+    /**
+     * Polygon constructor which may skip the validation of the vertices (except their count)
+     *
+     * @param vertices list of vertices according to their order by edge path
+     * @param validate whether to validate the vertices - see {@link #Polygon(Point3D...)}
+     * @throws IllegalArgumentException in any case of illegal combination of vertices (with validation),
+     *                                  or less than 3 vertices (without validation)
+     */
+    private Polygon(Point3D[] vertices, boolean validate) {
+        if (validate) {
+            String error = validationError(vertices);
+            if (error != null)
+                throw new IllegalArgumentException(error);
+        } else if (vertices.length < 3)
             throw new IllegalArgumentException("A polygon can't have less than 3 vertices");
         _vertices = List.of(vertices);
         // Generate the plane according to the first three vertices and associate the
         // polygon with this plane.
         // The plane holds the invariant normal (orthogonal unit) vector to the polygon
         _plane = new Plane(vertices[0], vertices[1], vertices[2]);
-        if (vertices.length == 3) return; // no need for more tests for a Triangle
+        // Precompute the data for intersecting rays with the polygon
+        _edgeNormals = edgeNormals(vertices);
+        _fan = vertices.length > FAN_THRESHOLD ? fan(vertices) : null;
+    }
 
-        Vector n = _plane.getNormal();
+    /**
+     * Validate the vertices of a polygon without throwing exceptions - see {@link #Polygon(Point3D...)} for the
+     * illegal combinations of vertices. The calculations are done with scratch vectors whose ZERO vector is tested
+     * explicitly, instead of catching the exceptions of {@link Vector}.
+     *
+     * @param vertices list of vertices according to their order by edge path
+     * @return the reason why the vertices are illegal, or null if they are legal
+     */
+    private static String validationError(Point3D[] vertices) {
+        if (vertices.length < 3)
+            return "A polygon can't have less than 3 vertices";
+        MutableVector edge1 = new MutableVector();
+        MutableVector edge2 = new MutableVector();
+        MutableVector cross = new MutableVector();
+        MutableVector n = new MutableVector();
 
-        // Subtracting any subsequent points will throw an IllegalArgumentException
-        // because of Zero Vector if they are in the same point
-        Vector edge1 = vertices[0].subtract(vertices[vertices.length - 1]);
-        Vector edge2 = vertices[1].subtract(vertices[0]);
+        // The normal of the plane of the first three vertices - the same as calculated by Plane
+        if (edge1.setSubtract(vertices[1], vertices[0]).isZeroVector()
+                || edge2.setSubtract(vertices[2], vertices[0]).isZeroVector())
+            return SAME_POINT;
+        if (edge1.crossInto(edge2, n).isZeroVector())
+            return SAME_LINE;
+        n.normalizeInPlace().scaleInPlace(-1);
+        if (vertices.length == 3) return null; // no need for more tests for a Triangle
 
-        // Cross Product of any subsequent edges will throw an IllegalArgumentException
-        // because of Zero Vector if they connect three vertices that lay in the same
-        // line.
+        // Subtracting any subsequent points will give the Zero Vector if they are in the same point
+        if (edge1.setSubtract(vertices[0], vertices[vertices.length - 1]).isZeroVector()
+                || edge2.setSubtract(vertices[1], vertices[0]).isZeroVector())
+            return SAME_POINT;
+
+        // Cross Product of any subsequent edges will give the Zero Vector if they connect three vertices that lay in
+        // the same line.
         // Generate the direction of the polygon according to the angle between last and
         // first edge being less than 180 deg. It is hold by the sign of its dot product
         // with
         // the normal. If all the rest consequent edges will generate the same sign -
         // the
         // polygon is convex ("kamur" in Hebrew).
-        boolean positive = edge1.crossProduct(edge2).dotProduct(n) > 0;
+        if (edge1.crossInto(edge2, cross).isZeroVector())
+            return SAME_LINE;
+        boolean positive = cross.dotProduct(n) > 0;
         for (int i = 2; i < vertices.length; ++i) {
             // Test that the point is in the same plane as calculated originally
-            if (!isZero(vertices[i].subtract(vertices[0]).dotProduct(n)))
-                throw new IllegalArgumentException("All vertices of a polygon must lay in the same plane");
+            if (cross.setSubtract(vertices[i], vertices[0]).isZeroVector())
+                return SAME_POINT;
+            if (!isZero(cross.dotProduct(n)))
+                return "All vertices of a polygon must lay in the same plane";
             // Test the consequent edges have
-            edge1 = edge2;
-            edge2 = vertices[i].subtract(vertices[i - 1]);
-            if (positive != (edge1.crossProduct(edge2).dotProduct(n) > 0))
-                throw new IllegalArgumentException("All vertices must be ordered and the polygon must be convex");
+            edge1.set(edge2);
+            if (edge2.setSubtract(vertices[i], vertices[i - 1]).isZeroVector())
+                return SAME_POINT;
+            if (edge1.crossInto(edge2, cross).isZeroVector())
+                return SAME_LINE;
+            if (positive != (cross.dotProduct(n) > 0))
+                return "All vertices must be ordered and the polygon must be convex";
         }
+        return null;
+    }
+
+    /**
+     * Build a polygon from trusted vertices, e.g. of a mesh which was already validated offline - the coplanarity
+     * and convexity validation is skipped. The polygon of illegal vertices is not detected and its intersections are
+     * undefined.
+     *
+     * @param vertices list of vertices according to their order by edge path (the polygon must be convex)
+     * @return new polygon
+     * @throws IllegalArgumentException in case of less than 3 vertices
+     */
+    public static Polygon trusted(Point3D... vertices) {
+        return new Polygon(vertices, false);
+    }
+
+    /**
+     * Validate a batch of polygons in parallel (on the common fork-join pool) and report all the illegal ones at
+     * once, instead of failing on the first one
+     *
+     * @param polygons the vertices of each polygon
+     * @return the indices of the illegal polygons in the batch (in ascending order) mapped to the reasons,
+     * empty if all the polygons are legal
+     */
+    public static SortedMap<Integer, String> validateAll(List<Point3D[]> polygons) {
+        Map<Integer, String> failures = new ConcurrentHashMap<>();
+        IntStream.range(0, polygons.size()).parallel().forEach(i -> {
+            String error = validationError(polygons.get(i));
+            if (error != null)
+                failures.put(i, error);
+        });
+        return new TreeMap<>(failures);
+    }
+
+    /**
+     * In-plane normals of the edges pointing into the polygon - see {@link #_edgeNormals}
+     *
+     * @param vertices the polygon's vertices
+     * @return the edges' normals and their dot products with the edges' first vertices
+     */
+    private double[] edgeNormals(Point3D[] vertices) {
+        Vector n = _plane.getNormal();
+        double nx = n.getX(), ny = n.getY(), nz = n.getZ();
+        int size = vertices.length;
+        // the orientation of the vertices around the normal - so that the normals point into the polygon
+        double cx = 0, cy = 0, cz = 0;
+        for (Point3D vertex : vertices) {
+            cx += vertex.getX() / size;
+            cy += vertex.getY() / size;
+            cz += vertex.getZ() / size;
+        }
+        double[] normals = new double[4 * size];
+        for (int i = 0; i < size; ++i) {
+            Point3D a = vertices[i], b = vertices[(i + 1) % size];
+            double ex = b.getX() - a.getX(), ey = b.getY() - a.getY(), ez = b.getZ() - a.getZ();
+            double mx = ny * ez - nz * ey, my = nz * ex - nx * ez, mz = nx * ey - ny * ex;
+            double d = mx * a.getX() + my * a.getY() + mz * a.getZ();
+            if (mx * cx + my * cy + mz * cz - d < 0) {
+                mx = -mx;
+                my = -my;
+                mz = -mz;
+                d = -d;
+            }
+            normals[4 * i] = mx;
+            normals[4 * i + 1] = my;
+            normals[4 * i + 2] = mz;
+            normals[4 * i + 3] = d;
+        }
+        return normals;
+    }
+
+    /**
+     * Fan triangulation from the first vertex - see {@link #_fan}
+     *
+     * @param vertices the polygon's vertices
+     * @return the first vertex and the diagonals' normals
+     */
+    private double[] fan(Point3D[] vertices) {
+        Vector n = _plane.getNormal();
+        double nx = n.getX(), ny = n.getY(), nz = n.getZ();
+        Point3D v0 = vertices[0];
+        double[] fan = new double[3 * vertices.length];
+        fan[0] = v0.getX();
+        fan[1] = v0.getY();
+        fan[2] = v0.getZ();
+        double orientation = 0;
+        for (int i = 1; i < vertices.length; ++i) {
+            double fx = vertices[i].getX() - fan[0], fy = vertices[i].getY() - fan[1];
+            double fz = vertices[i].getZ() - fan[2];
+            double gx = ny * fz - nz * fy, gy = nz * fx - nx * fz, gz = nx * fy - ny * fx;
+            if (i == 1) { // the following vertices must be on the positive side of the first edge
+                Point3D next = vertices[2];
+                orientation = gx * (next.getX() - fan[0]) + gy * (next.getY() - fan[1])
+                        + gz * (next.getZ() - fan[2]) < 0 ? -1 : 1;
+            }
+            fan[3 * i] = orientation * gx;
+            fan[3 * i + 1] = orientation * gy;
+            fan[3 * i + 2] = orientation * gz;
+        }
+        return fan;
+    }
+
+    /**
+     * Checks whether a point of the polygon's plane is inside the polygon (not on its edges)
+     *
+     * @return true if the point is inside the polygon
+     */
+    private boolean isInside(double px, double py, double pz) {
+        if (_fan == null) {
+            for (int i = 0; i < _edgeNormals.length; i += 4)
+                if (alignZero(_edgeNormals[i] * px + _edgeNormals[i + 1] * py + _edgeNormals[i + 2] * pz
+                        - _edgeNormals[i + 3]) <= 0) return false;
+            return true;
+        }
+
+        // find the fan triangle (v0, v[low], v[low + 1]) by binary search and test its edge of the polygon,
+        // the first and the last diagonals are edges of the polygon as well
+        double qx = px - _fan[0], qy = py - _fan[1], qz = pz - _fan[2];
+        int last = _fan.length / 3 - 1;
+        if (alignZero(_fan[3] * qx + _fan[4] * qy + _fan[5] * qz) <= 0) return false;
+        if (alignZero(_fan[3 * last] * qx + _fan[3 * last + 1] * qy + _fan[3 * last + 2] * qz) >= 0) return false;
+        int low = 1, high = last;
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (_fan[3 * mid] * qx + _fan[3 * mid + 1] * qy + _fan[3 * mid + 2] * qz >= 0) low = mid;
+            else high = mid;
+        }
+        int i = 4 * low;
+        return alignZero(_edgeNormals[i] * px + _edgeNormals[i + 1] * py + _edgeNormals[i + 2] * pz
+                - _edgeNormals[i + 3]) > 0;
     }
 
     @Override
     public Vector getNormal(Point3D point) {
         return _plane.getNormal();
     }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return new BoundingBox(_vertices);
+    }
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        Hit hit = new Hit();
+        return findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit) ? List.of(hit.getPoint()) : null;
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double t = _plane.intersect(ox, oy, oz, dx, dy, dz);
+        if (t == 0 || t >= tMax) return false;
+        double px = ox + t * dx, py = oy + t * dy, pz = oz + t * dz;
+        if (!isInside(px, py, pz)) return false;
+        hit.set(this, t, px, py, pz);
+        return true;
+    }
 }
@@ -6,7 +6,7 @@ import static primitives.Util.alignZero;
 /**
  * Radial Geometry represent all the 3D geometry objects which including the param radius
  */
-public abstract class RadialGeometry implements Geometry {
+public abstract class RadialGeometry extends Geometry {
 
     double _radius;
 
@@ -0,0 +1,254 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.Arrays;
+
+/**
+ * Class RayPacket is a reusable packet of coherent rays (e.g. the primary rays of adjacent pixels) which are
+ * intersected together, with the nearest intersection of each ray (lane) recorded in the packet.
+ * <p>
+ * The rays and their intersections are kept as structure-of-arrays of primitive values, one array per component
+ * with an element per lane, so the geometries intersect all the lanes in straight loops (which the JIT compiler
+ * may unroll and vectorize) and a hierarchy fetches and tests each of its nodes once for the whole packet.
+ * The inverse directions for the slab tests are taken from the rays (each ray calculates them once).
+ * <p>
+ * Geometries which have no packet intersection intersect the lanes one by one (the packet holds a scratch ray and
+ * hit record for that). A packet is owned by a single thread, like a {@link Hit} record.
+ */
+public final class RayPacket {
+    final int _width;
+    int _size;
+
+    // the rays of the lanes
+    final double[] _ox, _oy, _oz;
+    final double[] _dx, _dy, _dz;
+    final double[] _ix, _iy, _iz;
+
+    // the nearest intersections of the lanes
+    final double[] _t;
+    final double[] _x, _y, _z;
+    final Geometry[] _geometry;
+    final int[] _index;
+
+    // traversal stack of the acceleration structures - see Hit
+    int[] _stack = new int[64];
+    double[] _stackDistance = new double[64];
+    int _stackTop;
+
+    // scratch ray and hit record for intersecting the lanes one by one
+    private final Ray _ray = new Ray();
+    private final Hit _hit = new Hit();
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an empty packet
+     *
+     * @param width maximal number of the rays in the packet (e.g. 4 or 8)
+     * @throws IllegalArgumentException in case of a non positive width
+     */
+    public RayPacket(int width) {
+        if (width <= 0)
+            throw new IllegalArgumentException("Packet width must be positive");
+        _width = width;
+        _ox = new double[width];
+        _oy = new double[width];
+        _oz = new double[width];
+        _dx = new double[width];
+        _dy = new double[width];
+        _dz = new double[width];
+        _ix = new double[width];
+        _iy = new double[width];
+        _iz = new double[width];
+        _t = new double[width];
+        _x = new double[width];
+        _y = new double[width];
+        _z = new double[width];
+        _geometry = new Geometry[width];
+        _index = new int[width];
+        reset(0);
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return maximal number of the rays in the packet
+     */
+    public int width() {
+        return _width;
+    }
+
+    /**
+     * @return number of the rays in the packet
+     */
+    public int size() {
+        return _size;
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return true if an intersection of the lane's ray was found
+     */
+    public boolean isFound(int lane) {
+        return _geometry[lane] != null;
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return distance of the lane's nearest intersection, or infinity if none was found
+     */
+    public double get_t(int lane) {
+        return _t[lane];
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return the geometry of the lane's nearest intersection, or null if none was found
+     */
+    public Geometry get_geometry(int lane) {
+        return _geometry[lane];
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return index of the intersected element of a compound geometry, -1 for a simple geometry
+     */
+    public int get_index(int lane) {
+        return _index[lane];
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return new vector of the lane's ray direction
+     */
+    public Vector getDirection(int lane) {
+        return new Vector(_dx[lane], _dy[lane], _dz[lane]);
+    }
+
+    /**
+     * @param lane the ray's lane
+     * @return new point of the lane's nearest intersection
+     */
+    public Point3D getPoint(int lane) {
+        return new Point3D(_x[lane], _y[lane], _z[lane]);
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Clear the packet for new rays
+     *
+     * @param size number of the rays which will be put into the packet
+     * @return the packet itself
+     * @throws IllegalArgumentException in case the size is bigger than the packet's width
+     */
+    public RayPacket reset(int size) {
+        if (size < 0 || size > _width)
+            throw new IllegalArgumentException("Packet size must be between 0 and its width");
+        _size = size;
+        for (int k = 0; k < _width; ++k) {
+            _t[k] = Double.POSITIVE_INFINITY;
+            _geometry[k] = null;
+            _index[k] = -1;
+        }
+        _stackTop = 0;
+        return this;
+    }
+
+    /**
+     * Put a ray into a lane of the packet (the ray itself is not kept, so a reusable ray may be passed)
+     *
+     * @param lane the lane
+     * @param ray  the ray
+     */
+    public void setRay(int lane, Ray ray) {
+        _ox[lane] = ray.getOriginX();
+        _oy[lane] = ray.getOriginY();
+        _oz[lane] = ray.getOriginZ();
+        _dx[lane] = ray.getDirectionX();
+        _dy[lane] = ray.getDirectionY();
+        _dz[lane] = ray.getDirectionZ();
+        _ix[lane] = ray.getInverseDirectionX();
+        _iy[lane] = ray.getInverseDirectionY();
+        _iz[lane] = ray.getInverseDirectionZ();
+    }
+
+    /**
+     * Write an intersection of a lane's ray into the packet (the point is calculated from the distance)
+     *
+     * @param lane     the lane
+     * @param geometry the intersected geometry
+     * @param index    index of the intersected element of the geometry, -1 for a simple geometry
+     * @param t        distance of the intersection
+     */
+    void set(int lane, Geometry geometry, int index, double t) {
+        _geometry[lane] = geometry;
+        _index[lane] = index;
+        _t[lane] = t;
+        _x[lane] = _ox[lane] + t * _dx[lane];
+        _y[lane] = _oy[lane] + t * _dy[lane];
+        _z[lane] = _oz[lane] + t * _dz[lane];
+    }
+
+
+    //********** Lane by lane intersections ***********/
+
+    /**
+     * Intersect the lanes one by one with an object which has no packet intersection
+     *
+     * @param intersectable the object
+     */
+    void intersectLanes(Intersectable intersectable) {
+        for (int k = 0; k < _size; ++k)
+            if (intersectable.findNearestIntersection(laneRay(k), _t[k], _hit.reset()))
+                setHit(k);
+    }
+
+    /**
+     * Intersect the lanes one by one with an element which has no packet intersection
+     *
+     * @param elements the elements
+     * @param index    the element's index
+     */
+    void intersectLanes(BoundedElements elements, int index) {
+        for (int k = 0; k < _size; ++k)
+            if (elements.findNearestIntersection(index, laneRay(k), _t[k], _hit.reset()))
+                setHit(k);
+    }
+
+    /**
+     * @param lane the lane
+     * @return the scratch ray set to the lane's ray
+     */
+    private Ray laneRay(int lane) {
+        return _ray.set(_ox[lane], _oy[lane], _oz[lane], _dx[lane], _dy[lane], _dz[lane]);
+    }
+
+    /**
+     * Copy the scratch hit record into a lane
+     *
+     * @param lane the lane
+     */
+    private void setHit(int lane) {
+        _geometry[lane] = _hit._geometry;
+        _index[lane] = _hit._index;
+        _t[lane] = _hit._t;
+        _x[lane] = _hit._x;
+        _y[lane] = _hit._y;
+        _z[lane] = _hit._z;
+    }
+
+    /**
+     * Double the size of the traversal stack
+     */
+    void growStack() {
+        _stack = Arrays.copyOf(_stack, 2 * _stack.length);
+        _stackDistance = Arrays.copyOf(_stackDistance, 2 * _stackDistance.length);
+    }
+}
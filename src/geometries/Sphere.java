@@ -1,9 +1,14 @@
 package geometries;
 
 import primitives.Point3D;
+import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
 
+import java.util.List;
+
+import static primitives.Util.alignZero;
+
 /**
  * Class Sphere is defined as the set of points that are all at the same distance _radius from a given point,
  * represented by center point for location and radius which is the distance
@@ -22,7 +27,7 @@ public class Sphere extends RadialGeometry {
      */
     public Sphere(Point3D center, double radius) {
         super(radius);
-        _center = new Point3D(center);
+        _center = center;
     }
 
 
@@ -34,13 +39,93 @@ public class Sphere extends RadialGeometry {
      * @return the center point of sphere
      */
     public Point3D get_center() {
-        return new Point3D(_center);
+        return _center;
     }
 
-    // TODO: implementation
     @Override
     public Vector getNormal(Point3D p) {
-        return null;
+        return p.subtract(_center).normalize();
+    }
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        Point3D p0 = ray.get_p00();
+        Vector v = ray.get_direction();
+        double[] t = intersect(p0, v);
+        if (t == null) return null;
+        if (t[0] <= 0) return List.of(ray.getPoint(t[1]));
+        return List.of(ray.getPoint(t[0]), ray.getPoint(t[1]));
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double lx = _center.getX() - ox, ly = _center.getY() - oy, lz = _center.getZ() - oz;
+        double tm = lx * dx + ly * dy + lz * dz;
+        double th2 = alignZero(_radius * _radius - (lx * lx + ly * ly + lz * lz - tm * tm));
+        if (th2 <= 0) return false; // the ray's line misses (or is tangent to) the sphere
+        double th = Math.sqrt(th2);
+        double t = alignZero(tm - th);
+        if (t <= 0) t = alignZero(tm + th); // the ray starts inside the sphere
+        if (t <= 0 || t >= tMax) return false;
+        hit.set(this, t, ox + t * dx, oy + t * dy, oz + t * dz);
+        return true;
+    }
+
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        double cx = _center.getX(), cy = _center.getY(), cz = _center.getZ(), r2 = _radius * _radius;
+        for (int k = 0; k < packet._size; ++k) {
+            double lx = cx - packet._ox[k], ly = cy - packet._oy[k], lz = cz - packet._oz[k];
+            double tm = lx * packet._dx[k] + ly * packet._dy[k] + lz * packet._dz[k];
+            double th2 = alignZero(r2 - (lx * lx + ly * ly + lz * lz - tm * tm));
+            if (th2 <= 0) continue;
+            double th = Math.sqrt(th2);
+            double t = alignZero(tm - th);
+            if (t <= 0) t = alignZero(tm + th);
+            if (t > 0 && t < packet._t[k]) packet.set(k, this, -1, t);
+        }
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        double x = _center.getX(), y = _center.getY(), z = _center.getZ();
+        return new BoundingBox(x - _radius, y - _radius, z - _radius, x + _radius, y + _radius, z + _radius);
+    }
+
+    /**
+     * Distances along a ray to the sphere
+     *
+     * @param p0 the ray's beginning point
+     * @param v  the ray's direction
+     * @return the two (ordered) distances, the first may be non positive, or null if there are no intersections
+     * in front of the ray
+     */
+    private double[] intersect(Point3D p0, Vector v) {
+        double lx = _center.getX() - p0.getX(), ly = _center.getY() - p0.getY(), lz = _center.getZ() - p0.getZ();
+        double tm = lx * v.getX() + ly * v.getY() + lz * v.getZ();
+        double th2 = alignZero(_radius * _radius - (lx * lx + ly * ly + lz * lz - tm * tm));
+        if (th2 <= 0) return null;
+        double th = Math.sqrt(th2);
+        double t2 = alignZero(tm + th);
+        if (t2 <= 0) return null;
+        return new double[]{alignZero(tm - th), t2};
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Move the sphere (e.g. in an animation) - an acceleration structure holding the sphere must be updated
+     * afterwards, see {@link Geometries#update(Geometries.Acceleration, java.util.concurrent.ForkJoinPool)}
+     *
+     * @param center the new center point
+     * @return the sphere itself
+     */
+    public Sphere setCenter(Point3D center) {
+        _center = center;
+        return this;
     }
 
 
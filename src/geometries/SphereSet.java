@@ -0,0 +1,282 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static primitives.Util.*;
+
+/**
+ * Class SphereSet is a set of (many, small) spheres - e.g. particles or atoms - stored as parallel primitive
+ * arrays: the x, y and z coordinates of the centers and the radii, instead of a {@link Sphere} object (and its
+ * center point) for each sphere.
+ * <p>
+ * The spheres are held in a {@link BVH} over their bounding boxes. The set is a single geometry, the intersected
+ * sphere is reported by {@link Hit#get_index()}.
+ * <p>
+ * e: the set takes the ownership of the given arrays (they are not copied), they must not be changed other than by
+ * {@link #setSphere(int, double, double, double, double)} - spheres moved by it are taken into the hierarchy by
+ * {@link #update(ForkJoinPool)} (a refit, not a new build)
+ */
+public class SphereSet extends Geometry {
+    private final double[] _x;
+    private final double[] _y;
+    private final double[] _z;
+    private final double[] _radii;
+    private final Spheres _spheres = new Spheres();
+    private final BVH _hierarchy;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a set of spheres by their centers and radii, the hierarchy of the spheres is built on the
+     * common fork-join pool
+     *
+     * @param x     x coordinates of the centers
+     * @param y     y coordinates of the centers
+     * @param z     z coordinates of the centers
+     * @param radii the radii
+     * @throws IllegalArgumentException in any case of illegal arrays:
+     *                                  <ul>
+     *                                  <li>The arrays' lengths differ</li>
+     *                                  <li>A radius is not positive</li>
+     *                                  </ul>
+     */
+    public SphereSet(double[] x, double[] y, double[] z, double[] radii) {
+        this(x, y, z, radii, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of a set of spheres by their centers and radii
+     *
+     * @param x     x coordinates of the centers
+     * @param y     y coordinates of the centers
+     * @param z     z coordinates of the centers
+     * @param radii the radii
+     * @param pool  the fork-join pool for building the hierarchy of the spheres in parallel
+     * @throws IllegalArgumentException in any case of illegal arrays
+     *                                  - see {@link #SphereSet(double[], double[], double[], double[])}
+     */
+    public SphereSet(double[] x, double[] y, double[] z, double[] radii, ForkJoinPool pool) {
+        if (x.length != radii.length || y.length != radii.length || z.length != radii.length)
+            throw new IllegalArgumentException("Sphere set arrays must have the same length");
+        for (int i = 0; i < radii.length; ++i)
+            if (alignZero(radii[i]) <= 0)
+                throw new IllegalArgumentException("Radius of sphere " + i + " must be positive");
+        _x = x;
+        _y = y;
+        _z = z;
+        _radii = radii;
+        _hierarchy = new BVH(_spheres, pool);
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return number of the spheres
+     */
+    public int getSphereCount() {
+        return _radii.length;
+    }
+
+    /**
+     * @param index index of the sphere
+     * @return new point of the sphere's center
+     */
+    public Point3D get_center(int index) {
+        return new Point3D(_x[index], _y[index], _z[index]);
+    }
+
+    /**
+     * @param index index of the sphere
+     * @return the sphere's radius
+     */
+    public double get_radius(int index) {
+        return _radii[index];
+    }
+
+    @Override
+    public Vector getNormal(Point3D point, int index) {
+        if (index < 0) return getNormal(point);
+        return new Vector(point.getX() - _x[index], point.getY() - _y[index], point.getZ() - _z[index]).normalize();
+    }
+
+    /**
+     * The normal at a point of the set - the sphere which contains the point is searched among all the spheres,
+     * prefer {@link #getNormal(Point3D, int)} with the sphere written in a {@link Hit} record
+     *
+     * @param point the point on a sphere of the set
+     * @return the normal of the sphere at the point
+     * @throws IllegalArgumentException in case the point is not on any sphere of the set
+     */
+    @Override
+    public Vector getNormal(Point3D point) {
+        double px = point.getX(), py = point.getY(), pz = point.getZ();
+        for (int i = 0; i < _radii.length; ++i) {
+            double wx = px - _x[i], wy = py - _y[i], wz = pz - _z[i];
+            if (isZero(Math.sqrt(wx * wx + wy * wy + wz * wz) - _radii[i]))
+                return getNormal(point, i);
+        }
+        throw new IllegalArgumentException("The point is not on the sphere set");
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Move (or resize) a sphere of the set, the set must be updated before it is intersected again
+     *
+     * @param index  index of the sphere
+     * @param x      x coordinate of the new center
+     * @param y      y coordinate of the new center
+     * @param z      z coordinate of the new center
+     * @param radius the new radius
+     * @return the set itself
+     * @throws IllegalArgumentException in case the radius is not positive
+     */
+    public SphereSet setSphere(int index, double x, double y, double z, double radius) {
+        if (alignZero(radius) <= 0)
+            throw new IllegalArgumentException("Radius of sphere " + index + " must be positive");
+        _x[index] = x;
+        _y[index] = y;
+        _z[index] = z;
+        _radii[index] = radius;
+        return this;
+    }
+
+    /**
+     * Update the hierarchy of the spheres after spheres were moved: it is refitted and only its sub-trees which
+     * degraded too much are built again - see {@link BVH#rebuildDegraded(ForkJoinPool)}
+     *
+     * @param pool the fork-join pool for building degraded sub-trees in parallel
+     * @return the set itself
+     */
+    public SphereSet update(ForkJoinPool pool) {
+        _hierarchy.refit().rebuildDegraded(pool);
+        return this;
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        return _hierarchy.findIntersections(ray);
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        return _hierarchy.findNearestIntersection(ray, tMax, hit);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, int index, Hit hit) {
+        return index < 0 ? isOccluded(ray, maxDistance, hit) : _spheres.isOccluded(index, ray, maxDistance, hit);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        return _hierarchy.isOccluded(ray, maxDistance, hit);
+    }
+
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        _hierarchy.findNearestIntersections(packet);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return _hierarchy.getBoundingBox();
+    }
+
+    /**
+     * Nearest intersection of a ray (given by primitive coordinates) with a sphere - the same as
+     * {@link Sphere#findNearestIntersection(Ray, double, Hit)}
+     *
+     * @param index index of the sphere
+     * @param tMax  the intersection must be closer than this distance
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    private double intersectSphere(int index, double ox, double oy, double oz, double dx, double dy, double dz,
+                                   double tMax) {
+        double radius = _radii[index];
+        double lx = _x[index] - ox, ly = _y[index] - oy, lz = _z[index] - oz;
+        double tm = lx * dx + ly * dy + lz * dz;
+        double th2 = alignZero(radius * radius - (lx * lx + ly * ly + lz * lz - tm * tm));
+        if (th2 <= 0) return 0; // the ray's line misses (or is tangent to) the sphere
+        double th = Math.sqrt(th2);
+        double t = alignZero(tm - th);
+        if (t <= 0) t = alignZero(tm + th); // the ray starts inside the sphere
+        return t > 0 && t < tMax ? t : 0;
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "SphereSet{" +
+                "_spheres=" + getSphereCount() +
+                '}';
+    }
+
+    /**
+     * The spheres of the set as elements of its hierarchy
+     */
+    private final class Spheres implements BoundedElements {
+        @Override
+        public int size() {
+            return getSphereCount();
+        }
+
+        @Override
+        public void getBounds(int index, double[] bounds, int offset) {
+            double radius = _radii[index];
+            bounds[offset] = _x[index] - radius;
+            bounds[offset + 1] = _y[index] - radius;
+            bounds[offset + 2] = _z[index] - radius;
+            bounds[offset + 3] = _x[index] + radius;
+            bounds[offset + 4] = _y[index] + radius;
+            bounds[offset + 5] = _z[index] + radius;
+        }
+
+        @Override
+        public List<Point3D> findIntersections(int index, Ray ray) {
+            double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+            double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+            double radius = _radii[index];
+            double lx = _x[index] - ox, ly = _y[index] - oy, lz = _z[index] - oz;
+            double tm = lx * dx + ly * dy + lz * dz;
+            double th2 = alignZero(radius * radius - (lx * lx + ly * ly + lz * lz - tm * tm));
+            if (th2 <= 0) return null;
+            double th = Math.sqrt(th2);
+            double t1 = alignZero(tm - th), t2 = alignZero(tm + th);
+            if (t2 <= 0) return null;
+            return t1 <= 0 ? List.of(ray.getPoint(t2)) : List.of(ray.getPoint(t1), ray.getPoint(t2));
+        }
+
+        @Override
+        public boolean findNearestIntersection(int index, Ray ray, double tMax, Hit hit) {
+            double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+            double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+            double t = intersectSphere(index, ox, oy, oz, dx, dy, dz, tMax);
+            if (t == 0) return false;
+            hit.set(SphereSet.this, index, t, ox + t * dx, oy + t * dy, oz + t * dz);
+            return true;
+        }
+
+        @Override
+        public void findNearestIntersections(int index, RayPacket packet) {
+            for (int k = 0; k < packet._size; ++k) {
+                double t = intersectSphere(index, packet._ox[k], packet._oy[k], packet._oz[k],
+                        packet._dx[k], packet._dy[k], packet._dz[k], packet._t[k]);
+                if (t != 0) packet.set(k, SphereSet.this, index, t);
+            }
+        }
+    }
+}
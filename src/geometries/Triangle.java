@@ -1,7 +1,9 @@
 package geometries;
 
 import primitives.Point3D;
-import primitives.Vector;
+import primitives.Ray;
+
+import static primitives.Util.*;
 
 /**
  * Class Triangle is the basic geometric structure which consists of three points in space. The sum of all internal angles
@@ -19,7 +21,10 @@ import primitives.Vector;
  * </ul>
  */
 public class Triangle extends Polygon {
-
+    // Möller–Trumbore data: the first vertex and the edges from it to the second and to the third vertices
+    private final double _v0x, _v0y, _v0z;
+    private final double _e1x, _e1y, _e1z;
+    private final double _e2x, _e2y, _e2z;
 
     //*********** Constructors ***********//
 
@@ -32,6 +37,58 @@ public class Triangle extends Polygon {
      */
     public Triangle(Point3D vertex, Point3D vertex1, Point3D vertex2) {
         super(new Point3D[]{vertex, vertex1, vertex2});
+        _v0x = vertex.getX();
+        _v0y = vertex.getY();
+        _v0z = vertex.getZ();
+        _e1x = vertex1.getX() - _v0x;
+        _e1y = vertex1.getY() - _v0y;
+        _e1z = vertex1.getZ() - _v0z;
+        _e2x = vertex2.getX() - _v0x;
+        _e2y = vertex2.getY() - _v0y;
+        _e2z = vertex2.getZ() - _v0z;
+    }
+
+    /**
+     * Möller–Trumbore intersection with the precomputed edges (the edges themselves don't belong to the triangle,
+     * the same as for a polygon)
+     */
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double px = dy * _e2z - dz * _e2y, py = dz * _e2x - dx * _e2z, pz = dx * _e2y - dy * _e2x;
+        double det = _e1x * px + _e1y * py + _e1z * pz;
+        if (isZero(det)) return false; // the ray is parallel to the triangle
+        double inv = 1 / det;
+        double sx = ox - _v0x, sy = oy - _v0y, sz = oz - _v0z;
+        double u = alignZero((sx * px + sy * py + sz * pz) * inv);
+        if (u <= 0 || u >= 1) return false;
+        double qx = sy * _e1z - sz * _e1y, qy = sz * _e1x - sx * _e1z, qz = sx * _e1y - sy * _e1x;
+        double w = alignZero((dx * qx + dy * qy + dz * qz) * inv);
+        if (w <= 0 || alignZero(u + w - 1) >= 0) return false;
+        double t = alignZero((_e2x * qx + _e2y * qy + _e2z * qz) * inv);
+        if (t <= 0 || t >= tMax) return false;
+        hit.set(this, t, ox + t * dx, oy + t * dy, oz + t * dz);
+        return true;
+    }
+
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        for (int k = 0; k < packet._size; ++k) {
+            double dx = packet._dx[k], dy = packet._dy[k], dz = packet._dz[k];
+            double px = dy * _e2z - dz * _e2y, py = dz * _e2x - dx * _e2z, pz = dx * _e2y - dy * _e2x;
+            double det = _e1x * px + _e1y * py + _e1z * pz;
+            if (isZero(det)) continue;
+            double inv = 1 / det;
+            double sx = packet._ox[k] - _v0x, sy = packet._oy[k] - _v0y, sz = packet._oz[k] - _v0z;
+            double u = alignZero((sx * px + sy * py + sz * pz) * inv);
+            if (u <= 0 || u >= 1) continue;
+            double qx = sy * _e1z - sz * _e1y, qy = sz * _e1x - sx * _e1z, qz = sx * _e1y - sy * _e1x;
+            double w = alignZero((dx * qx + dy * qy + dz * qz) * inv);
+            if (w <= 0 || alignZero(u + w - 1) >= 0) continue;
+            double t = alignZero((_e2x * qx + _e2y * qy + _e2z * qz) * inv);
+            if (t > 0 && t < packet._t[k]) packet.set(k, this, -1, t);
+        }
     }
 
     /*************** Admin *****************/
@@ -0,0 +1,328 @@
+package geometries;
+
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import static primitives.Util.*;
+
+/**
+ * Class TriangleMesh is a set of triangles (faces) which share their vertices, stored as primitive arrays:
+ * a vertex buffer (x, y, z of each vertex) and an index buffer (three vertex indices of each face).
+ * <p>
+ * Each face keeps its two edges from its first vertex and its unit normal (precomputed, for intersecting a ray
+ * with the face with no allocation), and the faces are held in a {@link BVH}. The mesh is a single geometry, the
+ * intersected face is reported by {@link Hit#get_index()}.
+ * <p>
+ * e:
+ * <ul>
+ * <li>the mesh takes the ownership of the given arrays (they are not copied), they must not be changed other than
+ * by {@link #setVertex(int, double, double, double)} - a deformed mesh is taken into its hierarchy by
+ * {@link #update(ForkJoinPool)} (a refit, not a new build)</li>
+ * <li>the faces are double sided, unlike a {@link Triangle} the edges of a face belong to it (no cracks between
+ * neighbouring faces)</li>
+ * </ul>
+ */
+public class TriangleMesh extends Geometry {
+    private final double[] _vertices;
+    private final int[] _indices;
+    /**
+     * for each face: the edge from its first to its second vertex followed by the edge to its third vertex
+     */
+    private final double[] _edges;
+    /**
+     * unit normal of each face
+     */
+    private final double[] _normals;
+    private final Faces _faces = new Faces();
+    private final BVH _hierarchy;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a mesh by its vertex and index buffers, the hierarchy of the faces is built on the common
+     * fork-join pool
+     *
+     * @param vertices the coordinates of the vertices (x, y, z of each vertex)
+     * @param indices  the indices of the vertices of the faces (three for each face)
+     * @throws IllegalArgumentException in any case of illegal buffers:
+     *                                  <ul>
+     *                                  <li>The buffers' lengths are not multiples of 3</li>
+     *                                  <li>An index is not of a vertex in the vertex buffer</li>
+     *                                  <li>The vertices of a face lay in the same line</li>
+     *                                  </ul>
+     */
+    public TriangleMesh(double[] vertices, int[] indices) {
+        this(vertices, indices, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor of a mesh by its vertex and index buffers
+     *
+     * @param vertices the coordinates of the vertices (x, y, z of each vertex)
+     * @param indices  the indices of the vertices of the faces (three for each face)
+     * @param pool     the fork-join pool for building the hierarchy of the faces in parallel
+     * @throws IllegalArgumentException in any case of illegal buffers - see {@link #TriangleMesh(double[], int[])}
+     */
+    public TriangleMesh(double[] vertices, int[] indices, ForkJoinPool pool) {
+        if (vertices.length % 3 != 0 || indices.length % 3 != 0)
+            throw new IllegalArgumentException("Mesh buffers must hold three values for each vertex and face");
+        int vertexCount = vertices.length / 3;
+        for (int index : indices)
+            if (index < 0 || index >= vertexCount)
+                throw new IllegalArgumentException("Mesh face index out of the vertex buffer: " + index);
+        _vertices = vertices;
+        _indices = indices;
+
+        int faces = indices.length / 3;
+        _edges = new double[6 * faces];
+        _normals = new double[3 * faces];
+        for (int f = 0; f < faces; ++f)
+            calculateFace(f);
+        _hierarchy = new BVH(_faces, pool);
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @return number of the vertices
+     */
+    public int getVertexCount() {
+        return _vertices.length / 3;
+    }
+
+    /**
+     * @return number of the faces
+     */
+    public int getFaceCount() {
+        return _indices.length / 3;
+    }
+
+    /**
+     * The normal of a face
+     *
+     * @param face index of the face
+     * @return new unit normal of the face
+     */
+    public Vector getNormal(int face) {
+        return new Vector(_normals[3 * face], _normals[3 * face + 1], _normals[3 * face + 2]);
+    }
+
+    @Override
+    public Vector getNormal(Point3D point, int index) {
+        return index < 0 ? getNormal(point) : getNormal(index);
+    }
+
+    /**
+     * The normal at a point of the mesh - the face which contains the point is searched among all the faces,
+     * prefer {@link #getNormal(Point3D, int)} with the face written in a {@link Hit} record
+     *
+     * @param point the point on the mesh
+     * @return the normal of the face containing the point
+     * @throws IllegalArgumentException in case the point is not on the mesh
+     */
+    @Override
+    public Vector getNormal(Point3D point) {
+        double px = point.getX(), py = point.getY(), pz = point.getZ();
+        for (int f = 0, faces = getFaceCount(); f < faces; ++f) {
+            int a = 3 * _indices[3 * f];
+            double wx = px - _vertices[a], wy = py - _vertices[a + 1], wz = pz - _vertices[a + 2];
+            // distance from the face's plane and barycentric coordinates of the point's projection
+            if (!isZero(wx * _normals[3 * f] + wy * _normals[3 * f + 1] + wz * _normals[3 * f + 2])) continue;
+            double e1x = _edges[6 * f], e1y = _edges[6 * f + 1], e1z = _edges[6 * f + 2];
+            double e2x = _edges[6 * f + 3], e2y = _edges[6 * f + 4], e2z = _edges[6 * f + 5];
+            double d11 = e1x * e1x + e1y * e1y + e1z * e1z, d12 = e1x * e2x + e1y * e2y + e1z * e2z;
+            double d22 = e2x * e2x + e2y * e2y + e2z * e2z;
+            double dw1 = wx * e1x + wy * e1y + wz * e1z, dw2 = wx * e2x + wy * e2y + wz * e2z;
+            double denominator = d11 * d22 - d12 * d12;
+            double u = alignZero((d22 * dw1 - d12 * dw2) / denominator);
+            double v = alignZero((d11 * dw2 - d12 * dw1) / denominator);
+            if (u >= 0 && v >= 0 && alignZero(1 - u - v) >= 0) return getNormal(f);
+        }
+        throw new IllegalArgumentException("The point is not on the mesh");
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Move a vertex of the mesh (e.g. in an animation), the mesh must be updated before it is intersected again
+     *
+     * @param vertex index of the vertex
+     * @param x      the new x coordinate
+     * @param y      the new y coordinate
+     * @param z      the new z coordinate
+     * @return the mesh itself
+     */
+    public TriangleMesh setVertex(int vertex, double x, double y, double z) {
+        _vertices[3 * vertex] = x;
+        _vertices[3 * vertex + 1] = y;
+        _vertices[3 * vertex + 2] = z;
+        return this;
+    }
+
+    /**
+     * Update the mesh after its vertices were moved: the edges and the normals of the faces are calculated again,
+     * the hierarchy is refitted and only its sub-trees which degraded too much are built again
+     * - see {@link BVH#rebuildDegraded(ForkJoinPool)}
+     *
+     * @param pool the fork-join pool for building degraded sub-trees in parallel
+     * @return the mesh itself
+     * @throws IllegalArgumentException in case the vertices of a face lay in the same line
+     */
+    public TriangleMesh update(ForkJoinPool pool) {
+        for (int f = 0; f < getFaceCount(); ++f)
+            calculateFace(f);
+        _hierarchy.refit().rebuildDegraded(pool);
+        return this;
+    }
+
+
+    //********** Intersections ***********/
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        return _hierarchy.findIntersections(ray);
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        return _hierarchy.findNearestIntersection(ray, tMax, hit);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, int index, Hit hit) {
+        return index < 0 ? isOccluded(ray, maxDistance, hit) : _faces.isOccluded(index, ray, maxDistance, hit);
+    }
+
+    @Override
+    public boolean isOccluded(Ray ray, double maxDistance, Hit hit) {
+        return _hierarchy.isOccluded(ray, maxDistance, hit);
+    }
+
+    @Override
+    public void findNearestIntersections(RayPacket packet) {
+        _hierarchy.findNearestIntersections(packet);
+    }
+
+    @Override
+    public BoundingBox getBoundingBox() {
+        return _hierarchy.getBoundingBox();
+    }
+
+    /**
+     * Calculate the edges and the normal of a face from its vertices
+     *
+     * @param f index of the face
+     * @throws IllegalArgumentException in case the vertices of the face lay in the same line
+     */
+    private void calculateFace(int f) {
+        int a = 3 * _indices[3 * f], b = 3 * _indices[3 * f + 1], c = 3 * _indices[3 * f + 2];
+        double e1x = _vertices[b] - _vertices[a], e1y = _vertices[b + 1] - _vertices[a + 1];
+        double e1z = _vertices[b + 2] - _vertices[a + 2];
+        double e2x = _vertices[c] - _vertices[a], e2y = _vertices[c + 1] - _vertices[a + 1];
+        double e2z = _vertices[c + 2] - _vertices[a + 2];
+        // same orientation as a Plane (and a Triangle) of the face's vertices: edge2 x edge1
+        double nx = e2y * e1z - e2z * e1y, ny = e2z * e1x - e2x * e1z, nz = e2x * e1y - e2y * e1x;
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (isZero(length))
+            throw new IllegalArgumentException("The vertices of mesh face " + f + " lay in the same line");
+        _edges[6 * f] = e1x;
+        _edges[6 * f + 1] = e1y;
+        _edges[6 * f + 2] = e1z;
+        _edges[6 * f + 3] = e2x;
+        _edges[6 * f + 4] = e2y;
+        _edges[6 * f + 5] = e2z;
+        _normals[3 * f] = nx / length;
+        _normals[3 * f + 1] = ny / length;
+        _normals[3 * f + 2] = nz / length;
+    }
+
+    /**
+     * Möller–Trumbore intersection of a ray (given by primitive coordinates) with a face
+     *
+     * @param face index of the face
+     * @param tMax the intersection must be closer than this distance
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    private double intersectFace(int face, double ox, double oy, double oz, double dx, double dy, double dz,
+                                 double tMax) {
+        double e1x = _edges[6 * face], e1y = _edges[6 * face + 1], e1z = _edges[6 * face + 2];
+        double e2x = _edges[6 * face + 3], e2y = _edges[6 * face + 4], e2z = _edges[6 * face + 5];
+        double px = dy * e2z - dz * e2y, py = dz * e2x - dx * e2z, pz = dx * e2y - dy * e2x;
+        double det = e1x * px + e1y * py + e1z * pz;
+        if (isZero(det)) return 0; // the ray is parallel to the face
+        double inv = 1 / det;
+        int a = 3 * _indices[3 * face];
+        double sx = ox - _vertices[a], sy = oy - _vertices[a + 1], sz = oz - _vertices[a + 2];
+        double u = (sx * px + sy * py + sz * pz) * inv;
+        if (u < 0 || u > 1) return 0;
+        double qx = sy * e1z - sz * e1y, qy = sz * e1x - sx * e1z, qz = sx * e1y - sy * e1x;
+        double v = (dx * qx + dy * qy + dz * qz) * inv;
+        if (v < 0 || u + v > 1) return 0;
+        double t = alignZero((e2x * qx + e2y * qy + e2z * qz) * inv);
+        return t > 0 && t < tMax ? t : 0;
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "TriangleMesh{" +
+                "_vertices=" + getVertexCount() +
+                ", _faces=" + getFaceCount() +
+                '}';
+    }
+
+    /**
+     * The faces of the mesh as elements of its hierarchy
+     */
+    private final class Faces implements BoundedElements {
+        @Override
+        public int size() {
+            return getFaceCount();
+        }
+
+        @Override
+        public void getBounds(int index, double[] bounds, int offset) {
+            int a = 3 * _indices[3 * index], b = 3 * _indices[3 * index + 1], c = 3 * _indices[3 * index + 2];
+            for (int axis = 0; axis < 3; ++axis) {
+                double va = _vertices[a + axis], vb = _vertices[b + axis], vc = _vertices[c + axis];
+                bounds[offset + axis] = Math.min(va, Math.min(vb, vc));
+                bounds[offset + axis + 3] = Math.max(va, Math.max(vb, vc));
+            }
+        }
+
+        @Override
+        public List<Point3D> findIntersections(int index, Ray ray) {
+            double t = intersectFace(index, ray.getOriginX(), ray.getOriginY(), ray.getOriginZ(),
+                    ray.getDirectionX(), ray.getDirectionY(), ray.getDirectionZ(), Double.POSITIVE_INFINITY);
+            return t == 0 ? null : List.of(ray.getPoint(t));
+        }
+
+        @Override
+        public boolean findNearestIntersection(int index, Ray ray, double tMax, Hit hit) {
+            double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+            double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+            double t = intersectFace(index, ox, oy, oz, dx, dy, dz, tMax);
+            if (t == 0) return false;
+            hit.set(TriangleMesh.this, index, t, ox + t * dx, oy + t * dy, oz + t * dz);
+            return true;
+        }
+
+        @Override
+        public void findNearestIntersections(int index, RayPacket packet) {
+            for (int k = 0; k < packet._size; ++k) {
+                double t = intersectFace(index, packet._ox[k], packet._oy[k], packet._oz[k],
+                        packet._dx[k], packet._dy[k], packet._dz[k], packet._t[k]);
+                if (t != 0) packet.set(k, TriangleMesh.this, index, t);
+            }
+        }
+    }
+}
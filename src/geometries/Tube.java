@@ -5,7 +5,9 @@ import primitives.Ray;
 import primitives.Util;
 import primitives.Vector;
 
-import static primitives.Util.isZero;
+import java.util.List;
+
+import static primitives.Util.*;
 
 /**
  * Class Tube represent a smooth infinite surface, curvature at every point on its face fixed.
@@ -21,7 +23,7 @@ public class Tube extends RadialGeometry {
     /**
      * Constructor for class Tube,
      *
-     * @param axisRay represent the direction and the place
+     * @param axisRay represent the direction and the place (copied - a reusable ray may be refilled later)
      * @param radius  the radius from the center line to the surface
      */
     public Tube(Ray axisRay, double radius) {
@@ -30,13 +32,14 @@ public class Tube extends RadialGeometry {
     }
 
     /**
-     * Copy Constructor of class Tube, deep copy of the members: radius, ray
+     * Copy Constructor of class Tube, the members are copied: radius, ray (the tube's own copy which is never
+     * refilled - it is shared)
      *
-     * @param tube the tube to do deep copy
+     * @param tube the tube to copy
      */
     public Tube(Tube tube) {
         super(tube._radius);
-        _axisRay = new Ray(tube._axisRay);
+        _axisRay = tube._axisRay;
     }
 
     //********** Getters ***********/
@@ -44,18 +47,93 @@ public class Tube extends RadialGeometry {
     /**
      * getter to the ray (values of direction and place) which represent the tube
      *
-     * @return value ray of the tube
+     * @return copy of the ray of the tube (refilling it doesn't change the tube)
      */
     public Ray get_axisRay() {
         return new Ray(_axisRay);
     }
 
-    // TODO: implementation
     @Override
     public Vector getNormal(Point3D p) {
+        Point3D p0 = _axisRay.get_p00();
+        Vector v = _axisRay.get_direction();
+        double t = alignZero(p.subtract(p0).dotProduct(v));
+        Point3D o = t == 0 ? p0 : p0.add(v.scale(t)); // projection of the point on the axis
+        return p.subtract(o).normalize();
+    }
+
+    @Override
+    public List<Point3D> findIntersections(Ray ray) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double inf = Double.POSITIVE_INFINITY;
+        double t1 = sideIntersection(ox, oy, oz, dx, dy, dz, 0, inf, -inf, inf);
+        if (t1 == 0) return null;
+        double t2 = sideIntersection(ox, oy, oz, dx, dy, dz, t1, inf, -inf, inf);
+        return t2 == 0 ? List.of(ray.getPoint(t1)) : List.of(ray.getPoint(t1), ray.getPoint(t2));
+    }
+
+    @Override
+    public boolean findNearestIntersection(Ray ray, double tMax, Hit hit) {
+        double ox = ray.getOriginX(), oy = ray.getOriginY(), oz = ray.getOriginZ();
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        double t = sideIntersection(ox, oy, oz, dx, dy, dz, 0, tMax, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY);
+        if (t == 0) return false;
+        hit.set(this, t, ox + t * dx, oy + t * dy, oz + t * dz);
+        return true;
+    }
+
+    /**
+     * A tube is infinite
+     *
+     * @return null - a tube is unbounded
+     */
+    @Override
+    public BoundingBox getBoundingBox() {
         return null;
     }
 
+    /**
+     * Distance along a ray (given by primitive coordinates) to the nearest intersection with the tube's surface
+     * in a range of distances and in a range along the axis (measured from the axis ray's beginning point)
+     *
+     * @param tMin the intersection must be farther than this distance
+     * @param tMax the intersection must be closer than this distance
+     * @param hMin the intersection's projection on the axis must be farther than this
+     * @param hMax the intersection's projection on the axis must be closer than this
+     * @return the distance to the intersection, or 0 if there is none
+     */
+    double sideIntersection(double ox, double oy, double oz, double dx, double dy, double dz,
+                            double tMin, double tMax, double hMin, double hMax) {
+        Point3D pa = _axisRay.get_p00();
+        Vector va = _axisRay.get_direction();
+        double vx = va.getX(), vy = va.getY(), vz = va.getZ();
+        double px = ox - pa.getX(), py = oy - pa.getY(), pz = oz - pa.getZ();
+        double dv = dx * vx + dy * vy + dz * vz;
+        double pv = px * vx + py * vy + pz * vz;
+        // components of the ray's direction and beginning point which are orthogonal to the axis
+        double ax = dx - dv * vx, ay = dy - dv * vy, az = dz - dv * vz;
+        double cx = px - pv * vx, cy = py - pv * vy, cz = pz - pv * vz;
+        double a = ax * ax + ay * ay + az * az;
+        if (isZero(a)) return 0; // the ray is parallel to the axis
+        double b = 2 * (ax * cx + ay * cy + az * cz);
+        double c = cx * cx + cy * cy + cz * cz - _radius * _radius;
+        double discriminant = alignZero(b * b - 4 * a * c);
+        if (discriminant <= 0) return 0; // the ray's line misses (or is tangent to) the tube
+        double sqrt = Math.sqrt(discriminant);
+        double t = alignZero((-b - sqrt) / (2 * a));
+        if (t > tMin && t < tMax) {
+            double h = pv + t * dv;
+            if (h > hMin && h < hMax) return t;
+        }
+        t = alignZero((-b + sqrt) / (2 * a));
+        if (t > tMin && t < tMax) {
+            double h = pv + t * dv;
+            if (h > hMin && h < hMax) return t;
+        }
+        return 0;
+    }
+
 
     /*************** Admin *****************/
 
@@ -65,17 +143,12 @@ public class Tube extends RadialGeometry {
         if (obj == null) return false;
         if (!(obj instanceof Tube)) return false;
         Tube other_tube = (Tube) obj;
-        // need same direction, don't need same length
-        // compare points of tubes, compare radius and compare directions of tubes (could be -1 from the other but it's the same)
-        try  // two beginning points should be on the same line (crossProduct should give point ZERO as a direction point)
-        {    // if we do (p1 - p2) we get a vector from p2 to p1, it suppose to be the same direction of the two tubes.
-            this._axisRay.get_p00().subtract(other_tube._axisRay.get_p00()).crossProduct(other_tube._axisRay.get_direction());
-        } catch (IllegalArgumentException exception2) {
-            return (isZero(this._radius - other_tube._radius)) &&
-                    (this._axisRay.get_direction().equals(other_tube._axisRay.get_direction())
-                            || this._axisRay.get_direction().equals(other_tube._axisRay.get_direction().scale(-1)));
-        }
-        return false;
+        // need parallel directions (the same or opposite), the beginning points on the same axis line and the
+        // same radius
+        Point3D p1 = this._axisRay.get_p00(), p2 = other_tube._axisRay.get_p00();
+        Vector v = other_tube._axisRay.get_direction();
+        return isZero(this._radius - other_tube._radius) && this._axisRay.get_direction().isParallel(v)
+                && (p1.equals(p2) || p1.subtract(p2).isParallel(v));
     }
 
     @Override
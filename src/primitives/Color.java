@@ -0,0 +1,138 @@
+package primitives;
+
+/**
+ * Class Color is a color of RGB components held as doubles (not limited to 0..255 while calculating), so the
+ * colors can be added and scaled without losing accuracy; the components are limited only when the color is
+ * converted to {@link java.awt.Color}.
+ * A color is immutable.
+ */
+public final class Color {
+    final double _r;
+    final double _g;
+    final double _b;
+
+    public static final Color BLACK = new Color(0, 0, 0);
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a color by its RGB components (non negative)
+     *
+     * @param r red component
+     * @param g green component
+     * @param b blue component
+     * @throws IllegalArgumentException in case of a negative component
+     */
+    public Color(double r, double g, double b) {
+        if (r < 0 || g < 0 || b < 0)
+            throw new IllegalArgumentException("Negative color component is illegal");
+        _r = r;
+        _g = g;
+        _b = b;
+    }
+
+    /**
+     * Constructor of a color by a java.awt.Color
+     *
+     * @param other the color
+     */
+    public Color(java.awt.Color other) {
+        this(other.getRed(), other.getGreen(), other.getBlue());
+    }
+
+
+    //********** Getters ***********/
+
+    public double getR() {
+        return _r;
+    }
+
+    public double getG() {
+        return _g;
+    }
+
+    public double getB() {
+        return _b;
+    }
+
+    /**
+     * @return the color as java.awt.Color (components limited to 255)
+     */
+    public java.awt.Color getColor() {
+        return new java.awt.Color(getRGB());
+    }
+
+    /**
+     * @return the color packed into an int (0xRRGGBB, components limited to 255)
+     */
+    public int getRGB() {
+        int r = (int) Math.min(255, _r), g = (int) Math.min(255, _g), b = (int) Math.min(255, _b);
+        return r << 16 | g << 8 | b;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * Add colors
+     *
+     * @param colors the colors to add to this one
+     * @return new color - the sum of the colors
+     */
+    public Color add(Color... colors) {
+        double r = _r, g = _g, b = _b;
+        for (Color c : colors) {
+            r += c._r;
+            g += c._g;
+            b += c._b;
+        }
+        return new Color(r, g, b);
+    }
+
+    /**
+     * Scale the color by a (non negative) factor
+     *
+     * @param k the factor
+     * @return new color - the scaled color
+     */
+    public Color scale(double k) {
+        return new Color(_r * k, _g * k, _b * k);
+    }
+
+    /**
+     * Reduce the color by a (positive) factor
+     *
+     * @param k the factor
+     * @return new color - the reduced color
+     */
+    public Color reduce(double k) {
+        return new Color(_r / k, _g / k, _b / k);
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Color)) return false;
+        Color other = (Color) obj;
+        return Util.isZero(_r - other._r) && Util.isZero(_g - other._g) && Util.isZero(_b - other._b);
+    }
+
+    /**
+     * The hash of the components rounded to the equality's accuracy - equal colors hash alike unless a component
+     * lies on a rounding boundary
+     */
+    @Override
+    public int hashCode() {
+        return (Long.hashCode(Math.round(_r * 0x1p40)) * 31 + Long.hashCode(Math.round(_g * 0x1p40))) * 31
+                + Long.hashCode(Math.round(_b * 0x1p40));
+    }
+
+    @Override
+    public String toString() {
+        return "Color{" + _r + ", " + _g + ", " + _b + '}';
+    }
+}
@@ -0,0 +1,103 @@
+package primitives;
+
+/**
+ * Class Material holds the attenuation factors of the light reflected from a geometry's surface (Phong model):
+ * the diffusive factor, the specular factor and the shininess exponent of the specular reflection, and the
+ * attenuation factors of the light coming through the surface (transparency) and mirrored by it (reflection).
+ * A rough surface scatters the reflected light (glossiness) and the light coming through it (blur) around the
+ * ideal directions - the spread is the radius of the scattering cone at the unit distance (0 - no scattering).
+ * A material is immutable, so it may be shared by many geometries.
+ */
+public final class Material {
+    final double _kD;
+    final double _kS;
+    final int _nShininess;
+    final double _kT;
+    final double _kR;
+    final double _glossiness;
+    final double _blur;
+
+    public static final Material DEFAULT = new Material(0, 0, 0);
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an opaque, non reflecting material
+     *
+     * @param kD         diffusive attenuation factor
+     * @param kS         specular attenuation factor
+     * @param nShininess shininess exponent of the specular reflection
+     */
+    public Material(double kD, double kS, int nShininess) {
+        this(kD, kS, nShininess, 0, 0);
+    }
+
+    /**
+     * Constructor of a material
+     *
+     * @param kD         diffusive attenuation factor
+     * @param kS         specular attenuation factor
+     * @param nShininess shininess exponent of the specular reflection
+     * @param kT         transparency attenuation factor
+     * @param kR         reflection attenuation factor
+     */
+    public Material(double kD, double kS, int nShininess, double kT, double kR) {
+        this(kD, kS, nShininess, kT, kR, 0, 0);
+    }
+
+    /**
+     * Constructor of a material with a rough surface
+     *
+     * @param kD         diffusive attenuation factor
+     * @param kS         specular attenuation factor
+     * @param nShininess shininess exponent of the specular reflection
+     * @param kT         transparency attenuation factor
+     * @param kR         reflection attenuation factor
+     * @param glossiness spread of the reflected light
+     * @param blur       spread of the light coming through the surface
+     * @throws IllegalArgumentException in case of a negative spread
+     */
+    public Material(double kD, double kS, int nShininess, double kT, double kR, double glossiness, double blur) {
+        if (glossiness < 0 || blur < 0)
+            throw new IllegalArgumentException("Glossiness and blur must not be negative");
+        _kD = kD;
+        _kS = kS;
+        _nShininess = nShininess;
+        _kT = kT;
+        _kR = kR;
+        _glossiness = glossiness;
+        _blur = blur;
+    }
+
+
+    //********** Getters ***********/
+
+    public double get_kD() {
+        return _kD;
+    }
+
+    public double get_kS() {
+        return _kS;
+    }
+
+    public int get_nShininess() {
+        return _nShininess;
+    }
+
+    public double get_kT() {
+        return _kT;
+    }
+
+    public double get_kR() {
+        return _kR;
+    }
+
+    public double get_glossiness() {
+        return _glossiness;
+    }
+
+    public double get_blur() {
+        return _blur;
+    }
+}
@@ -0,0 +1,280 @@
+package primitives;
+
+import static primitives.Util.*;
+
+/**
+ * Class MutableVector is a scratch (mutable) companion of {@link Vector} for the hot paths of ray tracing.
+ * <p>
+ * All the operations change the object on which they were summoned (and return it for concatenation of
+ * operations), so an inner loop can keep one or a few scratch objects and compute dot products, cross products
+ * and normalizations without any allocation. The results are aligned to zero exactly the same way as the
+ * immutable {@link Vector} and {@link Point3D} do, so every operation gives bit-for-bit the same coordinates as
+ * its immutable counterpart.
+ * <p>
+ * e:
+ * <ul>
+ * <li>unlike {@link Vector}, a scratch vector may hold the ZERO vector (no exception is thrown)</li>
+ * <li>a scratch vector is not thread safe - keep one per thread (or per call frame)</li>
+ * </ul>
+ */
+public final class MutableVector {
+    double _x;
+    double _y;
+    double _z;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor for a scratch vector which is initially the ZERO vector
+     */
+    public MutableVector() {
+    }
+
+    /**
+     * Constructor for a scratch vector by input of three numbers representing coordinates
+     *
+     * @param x number representing the place of coordinate in x axis
+     * @param y number representing the place of coordinate in y axis
+     * @param z number representing the place of coordinate in z axis
+     */
+    public MutableVector(double x, double y, double z) {
+        set(x, y, z);
+    }
+
+    /**
+     * Constructor for a scratch vector holding the head of a vector
+     *
+     * @param vector the vector to copy
+     */
+    public MutableVector(Vector vector) {
+        set(vector);
+    }
+
+
+    //********** Getters ***********/
+
+    public double getX() {
+        return _x;
+    }
+
+    public double getY() {
+        return _y;
+    }
+
+    public double getZ() {
+        return _z;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Set the head by input of three numbers
+     *
+     * @param x number representing the place of coordinate in x axis
+     * @param y number representing the place of coordinate in y axis
+     * @param z number representing the place of coordinate in z axis
+     * @return the scratch vector itself
+     */
+    public MutableVector set(double x, double y, double z) {
+        _x = alignZero(x);
+        _y = alignZero(y);
+        _z = alignZero(z);
+        return this;
+    }
+
+    /**
+     * Set the head to the head of a vector
+     *
+     * @param vector the vector to copy
+     * @return the scratch vector itself
+     */
+    public MutableVector set(Vector vector) {
+        _x = vector._x;
+        _y = vector._y;
+        _z = vector._z;
+        return this;
+    }
+
+    /**
+     * Set the head to a point (vector from the beginning of the axes to the point)
+     *
+     * @param point the point to copy
+     * @return the scratch vector itself
+     */
+    public MutableVector set(Point3D point) {
+        _x = point._x;
+        _y = point._y;
+        _z = point._z;
+        return this;
+    }
+
+    /**
+     * Set the head to the head of other scratch vector
+     *
+     * @param other the scratch vector to copy
+     * @return the scratch vector itself
+     */
+    public MutableVector set(MutableVector other) {
+        _x = other._x;
+        _y = other._y;
+        _z = other._z;
+        return this;
+    }
+
+    /**
+     * Set the vector to the subtraction of two points - same as {@link Point3D#subtract(Point3D)}
+     *
+     * @param head the point at which the vector ends
+     * @param tail the point at which the vector starts
+     * @return the scratch vector itself
+     */
+    public MutableVector setSubtract(Point3D head, Point3D tail) {
+        return set(head._x - tail._x, head._y - tail._y, head._z - tail._z);
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * In place vector interconnect - same as {@link Vector#add(Vector)}
+     *
+     * @param vector the vector to add
+     * @return the scratch vector itself
+     */
+    public MutableVector addInPlace(Vector vector) {
+        return set(_x + vector._x, _y + vector._y, _z + vector._z);
+    }
+
+    /**
+     * In place vector interconnect - same as {@link Vector#add(Vector)}
+     *
+     * @param other the scratch vector to add
+     * @return the scratch vector itself
+     */
+    public MutableVector addInPlace(MutableVector other) {
+        return set(_x + other._x, _y + other._y, _z + other._z);
+    }
+
+    /**
+     * In place vector subtraction - same as {@link Vector#subtract(Vector)}
+     *
+     * @param other the scratch vector to subtract
+     * @return the scratch vector itself
+     */
+    public MutableVector subtractInPlace(MutableVector other) {
+        return set(_x - other._x, _y - other._y, _z - other._z);
+    }
+
+    /**
+     * In place scalar multiplication - same as {@link Vector#scale(double)}
+     *
+     * @param c scalar to multiply the coordinates by
+     * @return the scratch vector itself
+     */
+    public MutableVector scaleInPlace(double c) {
+        return set(_x * c, _y * c, _z * c);
+    }
+
+    /**
+     * dotProduct - same as {@link Vector#dotProduct(Vector)}
+     *
+     * @param other the second vector
+     * @return dot product (double)
+     */
+    public double dotProduct(MutableVector other) {
+        return _x * other._x + _y * other._y + _z * other._z;
+    }
+
+    /**
+     * dotProduct - same as {@link Vector#dotProduct(Vector)}
+     *
+     * @param other the second vector
+     * @return dot product (double)
+     */
+    public double dotProduct(Vector other) {
+        return _x * other._x + _y * other._y + _z * other._z;
+    }
+
+    /**
+     * Cross product of this vector and other one written into a destination scratch vector - same as
+     * {@link Vector#crossProduct(Vector)}. The destination may be one of the operands.
+     *
+     * @param other the second vector
+     * @param dst   the scratch vector to write the result into
+     * @return the destination scratch vector
+     */
+    public MutableVector crossInto(MutableVector other, MutableVector dst) {
+        return dst.set(_y * other._z - _z * other._y,
+                _z * other._x - _x * other._z,
+                _x * other._y - _y * other._x);
+    }
+
+    /**
+     * The length of the vector squared
+     *
+     * @return the length squared
+     */
+    public double lengthSquared() {
+        return dotProduct(this);
+    }
+
+    /**
+     * The length of the vector
+     *
+     * @return the length
+     */
+    public double length() {
+        return Math.sqrt(lengthSquared());
+    }
+
+    /**
+     * In place normalization - same as {@link Vector#normalize()}, the ZERO vector stays as is
+     *
+     * @return the scratch vector itself
+     */
+    public MutableVector normalizeInPlace() {
+        double length = length();
+        if (isZero(length) || isZero(length - 1)) // can't divide by zero, or already a unit vector
+            return this;
+        return scaleInPlace(1 / length);
+    }
+
+    /**
+     * Checks whether the scratch vector is the ZERO vector
+     *
+     * @return true if all the coordinates are zero
+     */
+    public boolean isZeroVector() {
+        return _x == 0 && _y == 0 && _z == 0;
+    }
+
+
+    //********** Conversions ***********/
+
+    /**
+     * @return a new (immutable) vector with the same head
+     * @throws IllegalArgumentException in case the scratch vector is the ZERO vector
+     */
+    public Vector toVector() {
+        return new Vector(_x, _y, _z);
+    }
+
+    /**
+     * @return a new point which is the head of the scratch vector
+     */
+    public Point3D toPoint3D() {
+        return new Point3D(_x, _y, _z);
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public String toString() {
+        return "MutableVector{" +
+                "_head=(" + _x + ", " + _y + ", " + _z + ")" +
+                '}';
+    }
+}
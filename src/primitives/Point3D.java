@@ -1,13 +1,19 @@
 package primitives;
 
+import static primitives.Util.*;
+
 /**
  * Point3D: class for representing a point in 3D dimension
  * represented by three coordinates (places on x y and z axises)
+ * <p>
+ * The coordinates are held as primitive values (already aligned to zero by {@link Util#alignZero(double)}),
+ * intentionally "package-friendly" due to performance constraints.
+ * A point is immutable, so it may be shared freely.
  */
-public class Point3D {
-    Coordinate _x;
-    Coordinate _y;
-    Coordinate _z;
+public final class Point3D {
+    final double _x;
+    final double _y;
+    final double _z;
     // static readonly member point called ZERO
     public final static Point3D ZERO = new Point3D(0.0, 0.0, 0.0);
 
@@ -22,9 +28,9 @@ public class Point3D {
      * @param _z coordinate on the z axis
      */
     public Point3D(Coordinate _x, Coordinate _y, Coordinate _z) {
-        this._x = _x;
-        this._y = _y;
-        this._z = _z;
+        this._x = _x._coord;
+        this._y = _y._coord;
+        this._z = _z._coord;
     }
 
     /**
@@ -35,7 +41,10 @@ public class Point3D {
      * @param z number representing the place of coordinate in z axis
      */
     public Point3D(double x, double y, double z) {
-        this(new Coordinate(x), new Coordinate(y), new Coordinate(z));
+        // if it too close to zero make it zero (same as Coordinate)
+        _x = alignZero(x);
+        _y = alignZero(y);
+        _z = alignZero(z);
     }
 
     /**
@@ -44,7 +53,9 @@ public class Point3D {
      * @param _point representing a point, including three coordinates
      */
     public Point3D(Point3D _point) {
-        this(_point._x.get(), _point._y.get(), _point._z.get());
+        _x = _point._x;
+        _y = _point._y;
+        _z = _point._z;
     }
 
 
@@ -65,6 +76,27 @@ public class Point3D {
         return new Coordinate(_z);
     }
 
+    /**
+     * @return the x coordinate value as a primitive double (no allocation)
+     */
+    public double getX() {
+        return _x;
+    }
+
+    /**
+     * @return the y coordinate value as a primitive double (no allocation)
+     */
+    public double getY() {
+        return _y;
+    }
+
+    /**
+     * @return the z coordinate value as a primitive double (no allocation)
+     */
+    public double getZ() {
+        return _z;
+    }
+
 
     //********** Calculation methods ***********/
 
@@ -75,10 +107,9 @@ public class Point3D {
      * @return a vector from the second point to the point at which the action is performed
      */
     public Vector subtract(Point3D vertex) {
-        return new Vector(
-                new Point3D(this._x.get() - vertex._x.get(),
-                        this._y.get() - vertex._y.get(),
-                        this._z.get() - vertex._z.get()));
+        return new Vector(_x - vertex._x,
+                _y - vertex._y,
+                _z - vertex._z);
     }
 
     /**
@@ -88,9 +119,9 @@ public class Point3D {
      * @return a new point whose coordinate values are the result of the points interconnect operation
      */
     public Point3D add(Vector _vector) {
-        return new Point3D(this._x.get() + _vector._head._x.get(),
-                this._y.get() + _vector._head._y.get(),
-                this._z.get() + _vector._head._z.get());
+        return new Point3D(_x + _vector._x,
+                _y + _vector._y,
+                _z + _vector._z);
     }
 
     /**
@@ -100,9 +131,10 @@ public class Point3D {
      * @return the number representing the distance squared
      */
     public double distanceSquared(Point3D other_point) {
-        return (this._x.get() - other_point._x.get()) * (this._x.get() - other_point._x.get()) +
-                (this._y.get() - other_point._y.get()) * (this._y.get() - other_point._y.get()) +
-                (this._z.get() - other_point._z.get()) * (this._z.get() - other_point._z.get());
+        double dx = _x - other_point._x;
+        double dy = _y - other_point._y;
+        double dz = _z - other_point._z;
+        return dx * dx + dy * dy + dz * dz;
     }
 
     /**
@@ -124,9 +156,9 @@ public class Point3D {
         if (o == null || getClass() != o.getClass())
             return false;                                 // step 2 - we are talking about object which isn't a point or null
         Point3D point3D = (Point3D) o;                    // step 3 - let's treat it as a point, and check coordinates
-        return this._x.equals(point3D._x) &&
-                this._y.equals(point3D._y) &&
-                this._z.equals(point3D._z);
+        return isZero(_x - point3D._x) &&
+                isZero(_y - point3D._y) &&
+                isZero(_z - point3D._z);
     }
 
     @Override
@@ -1,12 +1,30 @@
 package primitives;
 
+import static primitives.Util.*;
+
 /**
  * Class Ray is the a basic object in geometry - the set of points on a straight line that are on one side relatively
  * to a given point on the straight line called the beginning of the ray. Defined by point and direction (unit vector).
+ * <p>
+ * The beginning point and the direction are held as primitive values, so the intersection code reads them
+ * without any objects. A ray built by the constructors is never changed by the library and may be shared;
+ * a ray which is owned by a single thread may be refilled by its owner with {@link #set} instead of allocating
+ * a new ray per sample (e.g. the camera rays).
+ * <p>
+ * For the traversal of the acceleration structures the ray also keeps the inverses of its direction's coordinates
+ * and their sign bits, calculated once when the ray is made: a slab test of a box is then a few multiplications
+ * with no divisions, and the sign bits select the near and the far planes of each slab with no comparisons.
  */
-public class Ray {
-    Point3D _p00;
-    Vector _direction;
+public final class Ray {
+    double _ox, _oy, _oz;
+    double _dx, _dy, _dz;
+    // inverses of the direction's coordinates (infinite for a zero coordinate) and their sign bits (1 - negative)
+    double _ix, _iy, _iz;
+    int _sx, _sy, _sz;
+
+    // the point and vector objects of the ray (created on demand, dropped when the ray is refilled)
+    private Point3D _p00;
+    private Vector _direction;
 
 
     //********** Constructors ***********/
@@ -19,29 +37,182 @@ public class Ray {
      *                   by the start point and direction we can find the end point of the ray
      */
     public Ray(Point3D _p00, Vector _direction) {
-        this._p00 = new Point3D(_p00);
-        this._direction = _direction.normalized();
+        this._p00 = _p00;
+        this._direction = _direction.normalize(); // the same vector if it is already a unit vector
+        _ox = _p00._x;
+        _oy = _p00._y;
+        _oz = _p00._z;
+        _dx = this._direction._x;
+        _dy = this._direction._y;
+        _dz = this._direction._z;
+        invert();
     }
 
     /**
-     * Copy constructor for a deep copy of an Ray object.
+     * Copy constructor of an Ray object (the immutable members are shared).
      *
      * @param ray the ray which been copied
      */
     public Ray(Ray ray) {
-        this._p00 = new Point3D(ray._p00);
-        this._direction = ray._direction.normalized();
+        _p00 = ray._p00;
+        _direction = ray._direction;
+        _ox = ray._ox;
+        _oy = ray._oy;
+        _oz = ray._oz;
+        _dx = ray._dx;
+        _dy = ray._dy;
+        _dz = ray._dz;
+        _ix = ray._ix;
+        _iy = ray._iy;
+        _iz = ray._iz;
+        _sx = ray._sx;
+        _sy = ray._sy;
+        _sz = ray._sz;
+    }
+
+    /**
+     * Constructor of a reusable ray - it has to be filled with {@link #set} before it is used
+     */
+    public Ray() {
+        _dz = 1;
+        invert();
     }
 
 
     //********** Getters ***********/
 
     public Point3D get_p00() {
-        return new Point3D(_p00);
+        Point3D p00 = _p00;
+        if (p00 == null) _p00 = p00 = new Point3D(_ox, _oy, _oz);
+        return p00;
     }
 
     public Vector get_direction() {
-        return new Vector(_direction);
+        Vector direction = _direction;
+        if (direction == null) _direction = direction = new Vector(_dx, _dy, _dz);
+        return direction;
+    }
+
+    public double getOriginX() {
+        return _ox;
+    }
+
+    public double getOriginY() {
+        return _oy;
+    }
+
+    public double getOriginZ() {
+        return _oz;
+    }
+
+    public double getDirectionX() {
+        return _dx;
+    }
+
+    public double getDirectionY() {
+        return _dy;
+    }
+
+    public double getDirectionZ() {
+        return _dz;
+    }
+
+    public double getInverseDirectionX() {
+        return _ix;
+    }
+
+    public double getInverseDirectionY() {
+        return _iy;
+    }
+
+    public double getInverseDirectionZ() {
+        return _iz;
+    }
+
+    /**
+     * @return 1 if the direction's x coordinate is negative, 0 otherwise
+     */
+    public int getSignX() {
+        return _sx;
+    }
+
+    /**
+     * @return 1 if the direction's y coordinate is negative, 0 otherwise
+     */
+    public int getSignY() {
+        return _sy;
+    }
+
+    /**
+     * @return 1 if the direction's z coordinate is negative, 0 otherwise
+     */
+    public int getSignZ() {
+        return _sz;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Refill the ray (allocation free) - the direction is normalized exactly as by the constructor
+     *
+     * @param ox x of the beginning point
+     * @param oy y of the beginning point
+     * @param oz z of the beginning point
+     * @param dx x of the direction
+     * @param dy y of the direction
+     * @param dz z of the direction
+     * @return the ray itself
+     * @throws IllegalArgumentException in case of a zero direction
+     */
+    public Ray set(double ox, double oy, double oz, double dx, double dy, double dz) {
+        dx = alignZero(dx);
+        dy = alignZero(dy);
+        dz = alignZero(dz);
+        if (Vector.isZeroVector(dx, dy, dz))
+            throw new IllegalArgumentException("A ray's direction can't be the ZERO vector");
+        double length = Math.sqrt(dx * dx + dy * dy + dz * dz);
+        if (!isZero(length - 1)) {
+            double c = 1 / length;
+            dx = alignZero(dx * c);
+            dy = alignZero(dy * c);
+            dz = alignZero(dz * c);
+        }
+        _ox = alignZero(ox);
+        _oy = alignZero(oy);
+        _oz = alignZero(oz);
+        _dx = dx;
+        _dy = dy;
+        _dz = dz;
+        invert();
+        _p00 = null;
+        _direction = null;
+        return this;
+    }
+
+    /**
+     * Calculate the inverses of the direction's coordinates and their sign bits
+     */
+    private void invert() {
+        _ix = 1 / _dx;
+        _iy = 1 / _dy;
+        _iz = 1 / _dz;
+        _sx = _ix < 0 ? 1 : 0;
+        _sy = _iy < 0 ? 1 : 0;
+        _sz = _iz < 0 ? 1 : 0;
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * The point on the ray's line at a given distance from the beginning point
+     *
+     * @param t the distance from the beginning point (the direction is a unit vector)
+     * @return new point at the distance t
+     */
+    public Point3D getPoint(double t) {
+        return new Point3D(_ox + t * _dx, _oy + t * _dy, _oz + t * _dz);
     }
 
 
@@ -52,15 +223,15 @@ public class Ray {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         Ray other_ray = (Ray) o;
-        return _p00.equals(other_ray._p00) &&
-                _direction.equals(other_ray._direction);
+        return isZero(_ox - other_ray._ox) && isZero(_oy - other_ray._oy) && isZero(_oz - other_ray._oz) &&
+                isZero(_dx - other_ray._dx) && isZero(_dy - other_ray._dy) && isZero(_dz - other_ray._dz);
     }
 
     @Override
     public String toString() {
         return "Ray{" +
-                "_p00=" + _p00 +
-                ", _direction=" + _direction +
+                "_p00=" + get_p00() +
+                ", _direction=" + get_direction() +
                 '}';
     }
 }
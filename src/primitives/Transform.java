@@ -0,0 +1,177 @@
+package primitives;
+
+import static primitives.Util.isZero;
+
+/**
+ * Class Transform is an affine transformation of the space - a 3x3 linear part (rotation, scaling, shearing)
+ * followed by a translation, kept as the 12 coefficients of a 3x4 matrix (row by row, the translation is the
+ * last column). A transform is immutable, so it may be shared by many geometries.
+ */
+public final class Transform {
+    /**
+     * the matrix rows: m[0..3] - x row, m[4..7] - y row, m[8..11] - z row
+     */
+    final double[] _m;
+
+    public static final Transform IDENTITY = new Transform(new double[]{1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0});
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a transform by its matrix (the array is not copied)
+     *
+     * @param m the 12 coefficients of the 3x4 matrix, row by row
+     */
+    private Transform(double[] m) {
+        _m = m;
+    }
+
+    /**
+     * @param offset the translation vector
+     * @return new translation transform
+     */
+    public static Transform translation(Vector offset) {
+        return new Transform(new double[]{1, 0, 0, offset._x, 0, 1, 0, offset._y, 0, 0, 1, offset._z});
+    }
+
+    /**
+     * @param sx scale factor along the x axis
+     * @param sy scale factor along the y axis
+     * @param sz scale factor along the z axis
+     * @return new scaling transform
+     * @throws IllegalArgumentException in case a scale factor is zero
+     */
+    public static Transform scaling(double sx, double sy, double sz) {
+        if (isZero(sx) || isZero(sy) || isZero(sz))
+            throw new IllegalArgumentException("Scale factors must not be zero");
+        return new Transform(new double[]{sx, 0, 0, 0, 0, sy, 0, 0, 0, 0, sz, 0});
+    }
+
+    /**
+     * Rotation around an axis through the origin (Rodrigues' formula)
+     *
+     * @param axis  the rotation axis (any length)
+     * @param angle the rotation angle in radians (counterclockwise when looking against the axis)
+     * @return new rotation transform
+     */
+    public static Transform rotation(Vector axis, double angle) {
+        Vector u = axis.normalized();
+        double x = u._x, y = u._y, z = u._z;
+        double c = Math.cos(angle), s = Math.sin(angle), d = 1 - c;
+        return new Transform(new double[]{
+                c + x * x * d, x * y * d - z * s, x * z * d + y * s, 0,
+                y * x * d + z * s, c + y * y * d, y * z * d - x * s, 0,
+                z * x * d - y * s, z * y * d + x * s, c + z * z * d, 0});
+    }
+
+
+    //********** Getters ***********/
+
+    /**
+     * @param row    the matrix row (0..2)
+     * @param column the matrix column (0..3, the translation is the last column)
+     * @return the matrix coefficient
+     */
+    public double get(int row, int column) {
+        return _m[4 * row + column];
+    }
+
+
+    //********** Calculation methods ***********/
+
+    /**
+     * Compose two transforms
+     *
+     * @param next the transform to apply after this one
+     * @return new transform which applies this transform and then the next one
+     */
+    public Transform then(Transform next) {
+        double[] a = next._m, b = _m;
+        double[] m = new double[12];
+        for (int row = 0; row < 3; ++row)
+            for (int column = 0; column < 4; ++column) {
+                double value = a[4 * row] * b[column] + a[4 * row + 1] * b[4 + column]
+                        + a[4 * row + 2] * b[8 + column];
+                m[4 * row + column] = column == 3 ? value + a[4 * row + 3] : value;
+            }
+        return new Transform(m);
+    }
+
+    /**
+     * @return new transform which undoes this one
+     * @throws IllegalArgumentException in case the transform is singular (it has no inverse)
+     */
+    public Transform inverse() {
+        double[] m = _m;
+        // the inverse of the linear part by the cofactors, then the translation is moved back by it
+        double c00 = m[5] * m[10] - m[6] * m[9], c01 = m[2] * m[9] - m[1] * m[10], c02 = m[1] * m[6] - m[2] * m[5];
+        double c10 = m[6] * m[8] - m[4] * m[10], c11 = m[0] * m[10] - m[2] * m[8], c12 = m[2] * m[4] - m[0] * m[6];
+        double c20 = m[4] * m[9] - m[5] * m[8], c21 = m[1] * m[8] - m[0] * m[9], c22 = m[0] * m[5] - m[1] * m[4];
+        double det = m[0] * c00 + m[1] * c10 + m[2] * c20;
+        if (isZero(det))
+            throw new IllegalArgumentException("A singular transform has no inverse");
+        double inv = 1 / det;
+        double[] r = {c00 * inv, c01 * inv, c02 * inv, 0, c10 * inv, c11 * inv, c12 * inv, 0,
+                c20 * inv, c21 * inv, c22 * inv, 0};
+        for (int row = 0; row < 3; ++row)
+            r[4 * row + 3] = -(r[4 * row] * m[3] + r[4 * row + 1] * m[7] + r[4 * row + 2] * m[11]);
+        return new Transform(r);
+    }
+
+    /**
+     * @param point the point
+     * @return new transformed point
+     */
+    public Point3D apply(Point3D point) {
+        double x = point._x, y = point._y, z = point._z;
+        return new Point3D(_m[0] * x + _m[1] * y + _m[2] * z + _m[3],
+                _m[4] * x + _m[5] * y + _m[6] * z + _m[7],
+                _m[8] * x + _m[9] * y + _m[10] * z + _m[11]);
+    }
+
+    /**
+     * @param vector the vector (a direction - it is not translated)
+     * @return new transformed vector
+     */
+    public Vector apply(Vector vector) {
+        double x = vector._x, y = vector._y, z = vector._z;
+        return new Vector(_m[0] * x + _m[1] * y + _m[2] * z,
+                _m[4] * x + _m[5] * y + _m[6] * z,
+                _m[8] * x + _m[9] * y + _m[10] * z);
+    }
+
+
+    /*************** Admin *****************/
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Transform)) return false;
+        double[] other = ((Transform) obj)._m;
+        for (int i = 0; i < 12; ++i)
+            if (!isZero(_m[i] - other[i])) return false;
+        return true;
+    }
+
+    /**
+     * The hash of the entries rounded to the equality's accuracy - equal transforms hash alike unless an entry
+     * lies on a rounding boundary
+     */
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        for (int i = 0; i < 12; ++i)
+            hash = hash * 31 + Long.hashCode(Math.round(_m[i] * 0x1p40));
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "Transform{" +
+                "_m=[" + _m[0] + ", " + _m[1] + ", " + _m[2] + ", " + _m[3] +
+                "; " + _m[4] + ", " + _m[5] + ", " + _m[6] + ", " + _m[7] +
+                "; " + _m[8] + ", " + _m[9] + ", " + _m[10] + ", " + _m[11] + "]" +
+                '}';
+    }
+}
@@ -1,17 +1,20 @@
 package primitives;
 
-import geometries.Tube;
-
-import static primitives.Util.isZero;
-import static primitives.Point3D.ZERO;
+import static primitives.Util.*;
 
 /**
  * Class Vector is basic object in geometry of direction and size, defined by the end point
  * (where a starting point is the beginning of the axis)
+ * <p>
+ * The head point coordinates are held as primitive values (aligned to zero the same way as {@link Point3D}),
+ * intentionally "package-friendly" due to performance constraints.
+ * A vector is immutable (all the operations return new vectors), so it may be shared freely.
  */
-public class Vector {
+public final class Vector {
 
-    Point3D _head;
+    final double _x;
+    final double _y;
+    final double _z;
 
 
     //*********** Constructors ***********//
@@ -23,9 +26,7 @@ public class Vector {
      * @throws IllegalArgumentException in any case of the head point input is the beginning of the axes
      */
     public Vector(Point3D _head) throws IllegalArgumentException {
-        if (_head.equals(ZERO))
-            throw new IllegalArgumentException("A vector can't have head point to be the ZERO point");
-        this._head = new Point3D(_head);
+        this(_head._x, _head._y, _head._z);
     }
 
     /**
@@ -37,7 +38,7 @@ public class Vector {
      * @throws IllegalArgumentException in case of the three coordinates input value are zero
      */
     public Vector(Coordinate _x, Coordinate _y, Coordinate _z) throws IllegalArgumentException {
-        this(new Point3D(_x, _y, _z));
+        this(_x._coord, _y._coord, _z._coord);
     }
 
     /**
@@ -49,7 +50,11 @@ public class Vector {
      * @throws IllegalArgumentException in case of the three numbers input are zero
      */
     public Vector(double x, double y, double z) throws IllegalArgumentException {
-        this(new Point3D(x, y, z));
+        _x = alignZero(x);
+        _y = alignZero(y);
+        _z = alignZero(z);
+        if (isZeroVector(_x, _y, _z))
+            throw new IllegalArgumentException("A vector can't have head point to be the ZERO point");
     }
 
     /**
@@ -58,7 +63,9 @@ public class Vector {
      * @param _vector Vector representing the vector to build as new one
      */
     public Vector(Vector _vector) {
-        this._head = new Point3D(_vector._head);
+        _x = _vector._x;
+        _y = _vector._y;
+        _z = _vector._z;
     }
 
 
@@ -70,7 +77,28 @@ public class Vector {
      * @return head of vector value in Point3D representation
      */
     public Point3D get_head() {
-        return new Point3D(_head);
+        return new Point3D(_x, _y, _z);
+    }
+
+    /**
+     * @return the x coordinate of the head as a primitive double (no allocation)
+     */
+    public double getX() {
+        return _x;
+    }
+
+    /**
+     * @return the y coordinate of the head as a primitive double (no allocation)
+     */
+    public double getY() {
+        return _y;
+    }
+
+    /**
+     * @return the z coordinate of the head as a primitive double (no allocation)
+     */
+    public double getZ() {
+        return _z;
     }
 
 
@@ -84,7 +112,7 @@ public class Vector {
      * @return a vector from the second vector's head point to the first vector's head point at which the action is performed.
      */
     public Vector subtract(Vector _vector) {
-        return new Vector(_head.subtract(_vector.get_head()));
+        return new Vector(_x - _vector._x, _y - _vector._y, _z - _vector._z);
     }
 
     /**
@@ -94,7 +122,7 @@ public class Vector {
      * @return a new vector whose head point coordinate values are the result of the vector interconnect operation
      */
     public Vector add(Vector _vector) {
-        return new Vector(_head.add(_vector));
+        return new Vector(_x + _vector._x, _y + _vector._y, _z + _vector._z);
     }
 
     /**
@@ -104,9 +132,7 @@ public class Vector {
      * @return a new vector contains a point which it's value represent the result of the multiplication operation
      */
     public Vector scale(double c) {
-        return new Vector(_head._x.get() * c,
-                _head._y.get() * c,
-                _head._z.get() * c);
+        return new Vector(_x * c, _y * c, _z * c);
     }
 
     /**
@@ -116,9 +142,7 @@ public class Vector {
      * @return dot product (double)
      */
     public double dotProduct(Vector other) {
-        return _head._x.get() * other._head._x.get() +
-                _head._y.get() * other._head._y.get() +
-                _head._z.get() * other._head._z.get();
+        return _x * other._x + _y * other._y + _z * other._z;
     }
 
     /**
@@ -128,9 +152,49 @@ public class Vector {
      * @return Vector for cross product using right thumb rule
      */
     public Vector crossProduct(Vector _vector) {
-        return new Vector(this._head._y.get() * _vector._head._z.get() - this._head._z.get() * _vector._head._y.get(),
-                this._head._z.get() * _vector._head._x.get() - this._head._x.get() * _vector._head._z.get(),
-                this._head._x.get() * _vector._head._y.get() - this._head._y.get() * _vector._head._x.get());
+        return new Vector(_y * _vector._z - _z * _vector._y,
+                _z * _vector._x - _x * _vector._z,
+                _x * _vector._y - _y * _vector._x);
+    }
+
+    /**
+     * Cross product which doesn't throw for parallel vectors - the result is written into a scratch vector
+     *
+     * @param _vector the other Vector which we about to do on him the cross product
+     * @param result  scratch vector to write the cross product into (ZERO for parallel vectors)
+     * @return true if the cross product is not the ZERO vector (the vectors are not parallel)
+     */
+    public boolean tryCrossProduct(Vector _vector, MutableVector result) {
+        result.set(_y * _vector._z - _z * _vector._y,
+                _z * _vector._x - _x * _vector._z,
+                _x * _vector._y - _y * _vector._x);
+        return !result.isZeroVector();
+    }
+
+    /**
+     * Checks whether two vectors are parallel (same or opposite directions) without throwing
+     * - i.e. whether {@link #crossProduct(Vector)} would throw for them
+     *
+     * @param _vector the other vector
+     * @return true if the vectors are parallel
+     */
+    public boolean isParallel(Vector _vector) {
+        return isZeroVector(_y * _vector._z - _z * _vector._y,
+                _z * _vector._x - _x * _vector._z,
+                _x * _vector._y - _y * _vector._x);
+    }
+
+    /**
+     * Checks whether three coordinates are of the ZERO vector (after aligning them to zero)
+     * - i.e. whether the constructor {@link #Vector(double, double, double)} would throw for them
+     *
+     * @param x number representing the place of coordinate in x axis
+     * @param y number representing the place of coordinate in y axis
+     * @param z number representing the place of coordinate in z axis
+     * @return true if the coordinates are of the ZERO vector
+     */
+    public static boolean isZeroVector(double x, double y, double z) {
+        return alignZero(x) == 0 && alignZero(y) == 0 && alignZero(z) == 0;
     }
 
     /**
@@ -152,27 +216,27 @@ public class Vector {
     }
 
     /**
-     * The vector normalization action changes the vector itself
-     * (the only action that changes the object on which it was summoned)
+     * The vector normalization action - the vector itself is not changed (vectors are immutable)
      * the action also return the vector for concatenation of operations if necessary
      *
-     * @return the vector after it normalized
+     * @return new unit vector of the same direction, or the vector itself if it is already a unit vector
      */
     public Vector normalize() {
-        if (isZero(length())) // if we try to normalize vector ZERO
-            return this; // can't davide by zero
-        this._head = scale(1 / length())._head;
-        return this;
+        double length = length();
+        if (isZero(length - 1)) // already a unit vector - it can be shared
+            return this;
+        double c = 1 / length;
+        return new Vector(_x * c, _y * c, _z * c);
     }
 
     /**
-     * normalization action which change a copy of the vector
+     * normalization action - the same as {@link #normalize()}
      * the action also return the vector for concatenation of operations if necessary
      *
-     * @return a copy of the vector after it normalized
+     * @return unit vector of the same direction (the vector itself if it is already a unit vector)
      */
     public Vector normalized() {
-        return (new Vector(this)).normalize();
+        return normalize();
     }
 
 
@@ -183,13 +247,15 @@ public class Vector {
         if (this == obj) return true;
         if (obj == null || !(obj instanceof Vector)) return false;
         Vector other_vector = (Vector) obj;
-        return this._head.equals(other_vector._head);
+        return isZero(_x - other_vector._x) &&
+                isZero(_y - other_vector._y) &&
+                isZero(_z - other_vector._z);
     }
 
     @Override
     public String toString() {
         return "(Vector{)" +
-                "_head=" + _head +
+                "_head=(" + _x + ", " + _y + ", " + _z + ")" +
                 '}';
     }
 }
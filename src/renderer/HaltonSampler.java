@@ -0,0 +1,102 @@
+package renderer;
+
+/**
+ * Class HaltonSampler generates the coordinates of the samples of the stochastic effects (soft shadows, glossy
+ * reflection, blurry transparency) by the Halton low-discrepancy sequence: the coordinate of dimension d of
+ * sample i is the radical inverse of i in the d-th prime base, so the samples of a path fill the sampled domain
+ * evenly instead of clumping as uniform random samples do.
+ * <p>
+ * Each sequence is keyed (e.g. by a camera ray's pixel) and randomized by a rotation of every dimension by
+ * a hash of the seed, the key and the dimension (Cranley-Patterson rotation), so adjacent keys don't share the
+ * same pattern. The dimensions past the table of the prime bases (deep paths of several area lights and glossy
+ * bounces) take hashed random values instead - reusing a base would make the two dimensions fully correlated.
+ * The coordinates depend only on the seed, the key, the sample index and the dimension - not on the thread or
+ * the order of the rendering. A sampler is owned by a single thread (nothing is shared, so there is no
+ * contention as on a shared {@link java.util.Random}).
+ */
+final class HaltonSampler {
+    private static final int[] PRIMES = {2, 3, 5, 7, 11, 13, 17, 19, 23, 29, 31, 37, 41, 43, 47, 53,
+            59, 61, 67, 71, 73, 79, 83, 89, 97, 101, 103, 107, 109, 113, 127, 131};
+
+    private final long _seed;
+    private long _key;
+    private int _index;
+    private int _dimension;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * @param seed the seed of the randomization of all the sequences
+     */
+    HaltonSampler(long seed) {
+        _seed = seed;
+    }
+
+
+    //********** Operations ***********/
+
+    /**
+     * Start a sample of a sequence - its first dimension is the next coordinate
+     *
+     * @param key   the key of the sequence
+     * @param index the index of the sample in the sequence
+     */
+    void start(long key, int index) {
+        _key = key;
+        _index = index;
+        _dimension = 0;
+    }
+
+    /**
+     * @return the next coordinate of the current sample, in [0, 1)
+     */
+    double next() {
+        int dimension = _dimension++;
+        if (dimension >= PRIMES.length) // no more bases - a hashed random value, uncorrelated with the others
+            return (mix(_seed ^ mix(_key + dimension) ^ _index) >>> 11) * 0x1.0p-53;
+        double value = radicalInverse(PRIMES[dimension], _index)
+                + (mix(_seed ^ mix(_key + dimension)) >>> 11) * 0x1.0p-53;
+        return value < 1 ? value : value - 1;
+    }
+
+    /**
+     * @return true if a coordinate of the current sample was taken (the sample is stochastic)
+     */
+    boolean isUsed() {
+        return _dimension > 0;
+    }
+
+    /**
+     * A key of a point of a grid over the view plane - a hash of its coordinates
+     *
+     * @param column the point's column
+     * @param row    the point's row
+     * @param cells  the grid's cells per pixel side (0 for the pixels themselves)
+     * @return the key
+     */
+    static long key(int column, int row, int cells) {
+        return mix(mix(mix(column) ^ row) ^ cells);
+    }
+
+    /**
+     * @return the digits of the index in the base mirrored around the radix point
+     */
+    private static double radicalInverse(int base, int index) {
+        double inverse = 1d / base, factor = inverse, value = 0;
+        for (int i = index; i > 0; i /= base) {
+            value += i % base * factor;
+            factor *= inverse;
+        }
+        return value;
+    }
+
+    /**
+     * The finalizer of SplitMix64 - a bijective hash of 64 bits
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
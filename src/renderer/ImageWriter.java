@@ -0,0 +1,106 @@
+package renderer;
+
+import primitives.Color;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Class ImageWriter holds the pixels of a rendered image and writes them into an image file.
+ * <p>
+ * The pixels are kept in a plain int array (0xRRGGBB) - every pixel is written by exactly one rendering thread,
+ * so pixels may be written concurrently without any locks.
+ */
+public class ImageWriter {
+    private static final String PROJECT_PATH = System.getProperty("user.dir");
+
+    final String _imageName;
+    final double _width;
+    final double _height;
+    final int _nX;
+    final int _nY;
+    private final int[] _pixels;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an image writer
+     *
+     * @param imageName name of the image file (without the extension)
+     * @param width     width of the view plane
+     * @param height    height of the view plane
+     * @param nX        number of pixels in a row
+     * @param nY        number of pixels in a column
+     */
+    public ImageWriter(String imageName, double width, double height, int nX, int nY) {
+        _imageName = imageName;
+        _width = width;
+        _height = height;
+        _nX = nX;
+        _nY = nY;
+        _pixels = new int[nX * nY];
+    }
+
+
+    //********** Getters ***********/
+
+    public double getWidth() {
+        return _width;
+    }
+
+    public double getHeight() {
+        return _height;
+    }
+
+    public int getNx() {
+        return _nX;
+    }
+
+    public int getNy() {
+        return _nY;
+    }
+
+    /**
+     * @param xIndex column of the pixel
+     * @param yIndex row of the pixel
+     * @return the color of the pixel packed into an int (0xRRGGBB)
+     */
+    public int getRGB(int xIndex, int yIndex) {
+        return _pixels[yIndex * _nX + xIndex];
+    }
+
+
+    //********** Operations ***********/
+
+    /**
+     * Write the color of a pixel
+     *
+     * @param xIndex column of the pixel
+     * @param yIndex row of the pixel
+     * @param color  the color of the pixel
+     */
+    public void writePixel(int xIndex, int yIndex, Color color) {
+        _pixels[yIndex * _nX + xIndex] = color.getRGB();
+    }
+
+    /**
+     * Write the image into a PNG file in the images folder of the project
+     *
+     * @throws UncheckedIOException in case the file cannot be written
+     */
+    public void writeToImage() {
+        BufferedImage image = new BufferedImage(_nX, _nY, BufferedImage.TYPE_INT_RGB);
+        image.setRGB(0, 0, _nX, _nY, _pixels, 0, _nX);
+        File file = new File(PROJECT_PATH + "/images/" + _imageName + ".png");
+        file.getParentFile().mkdirs();
+        try {
+            ImageIO.write(image, "png", file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write the image " + file, e);
+        }
+    }
+}
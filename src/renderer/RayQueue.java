@@ -0,0 +1,171 @@
+package renderer;
+
+import primitives.Ray;
+
+import java.util.Arrays;
+
+/**
+ * Class RayQueue is a growable queue of rays for the wavefront mode of the renderer, kept as structure-of-arrays
+ * of primitive values (a component per array, an element per ray) with the payload of each ray: the pixel it
+ * belongs to, a slot (e.g. the light source of a shadow ray) and the distance it is traced to.
+ * <p>
+ * The queue may be sorted so that rays which start near each other and go in similar directions are traced one
+ * after the other: the sort key of a ray is the Morton code (Z-order) of its quantized direction followed by the
+ * Morton code of its beginning point quantized in the box of all the beginning points. The rays themselves are not
+ * moved - the sorted order is a permutation of their positions, so their results stay in the order they were
+ * added. A queue is owned by a single thread.
+ */
+final class RayQueue {
+    /**
+     * bits of each coordinate of a beginning point in the sort key
+     */
+    private static final int POINT_BITS = 10;
+    /**
+     * bits of each coordinate of a direction in the sort key
+     */
+    private static final int DIRECTION_BITS = 3;
+    /**
+     * bits of a ray's position in a packed sort entry (key above it)
+     */
+    private static final int POSITION_BITS = 24;
+
+    int _size;
+    double[] _ox = new double[0], _oy = new double[0], _oz = new double[0];
+    double[] _dx = new double[0], _dy = new double[0], _dz = new double[0];
+    double[] _distance = new double[0];
+    int[] _pixel = new int[0];
+    int[] _slot = new int[0];
+    /**
+     * positions of the rays in the sorted order
+     */
+    int[] _order = new int[0];
+    private long[] _entries = new long[0];
+
+
+    //********** Operations ***********/
+
+    /**
+     * Empty the queue (the arrays are kept for reuse)
+     */
+    void clear() {
+        _size = 0;
+    }
+
+    /**
+     * Add a ray to the queue
+     *
+     * @param ray      the ray (it is not kept, so a reusable ray may be passed)
+     * @param distance the distance the ray is traced to
+     * @param pixel    the pixel the ray belongs to
+     * @param slot     the slot of the ray (e.g. the light source of a shadow ray)
+     */
+    void add(Ray ray, double distance, int pixel, int slot) {
+        if (_size == _ox.length) grow();
+        int i = _size++;
+        _ox[i] = ray.getOriginX();
+        _oy[i] = ray.getOriginY();
+        _oz[i] = ray.getOriginZ();
+        _dx[i] = ray.getDirectionX();
+        _dy[i] = ray.getDirectionY();
+        _dz[i] = ray.getDirectionZ();
+        _distance[i] = distance;
+        _pixel[i] = pixel;
+        _slot[i] = slot;
+    }
+
+    /**
+     * Set a reusable ray to a ray of the queue
+     *
+     * @param i   the ray's position
+     * @param ray the reusable ray
+     * @return the reusable ray
+     */
+    Ray get(int i, Ray ray) {
+        return ray.set(_ox[i], _oy[i], _oz[i], _dx[i], _dy[i], _dz[i]);
+    }
+
+    /**
+     * Calculate the sorted order of the rays (by direction, then by beginning point - see the class comment)
+     *
+     * @throws IllegalStateException in case the queue holds too many rays for the packed sort entries
+     */
+    void sort() {
+        if (_size >= 1 << POSITION_BITS)
+            throw new IllegalStateException("Too many rays in a queue for sorting: " + _size);
+        double minX = Double.POSITIVE_INFINITY, minY = minX, minZ = minX;
+        double maxX = Double.NEGATIVE_INFINITY, maxY = maxX, maxZ = maxX;
+        for (int i = 0; i < _size; ++i) {
+            minX = Math.min(minX, _ox[i]);
+            minY = Math.min(minY, _oy[i]);
+            minZ = Math.min(minZ, _oz[i]);
+            maxX = Math.max(maxX, _ox[i]);
+            maxY = Math.max(maxY, _oy[i]);
+            maxZ = Math.max(maxZ, _oz[i]);
+        }
+        int cells = 1 << POINT_BITS;
+        double sx = maxX > minX ? cells / (maxX - minX) : 0;
+        double sy = maxY > minY ? cells / (maxY - minY) : 0;
+        double sz = maxZ > minZ ? cells / (maxZ - minZ) : 0;
+        int directions = 1 << DIRECTION_BITS;
+        for (int i = 0; i < _size; ++i) {
+            long point = morton(quantize((_ox[i] - minX) * sx, cells), quantize((_oy[i] - minY) * sy, cells),
+                    quantize((_oz[i] - minZ) * sz, cells));
+            long direction = morton(quantize((_dx[i] + 1) * directions / 2, directions),
+                    quantize((_dy[i] + 1) * directions / 2, directions),
+                    quantize((_dz[i] + 1) * directions / 2, directions));
+            long key = direction << 3 * POINT_BITS | point;
+            _entries[i] = key << POSITION_BITS | i;
+        }
+        Arrays.sort(_entries, 0, _size);
+        int mask = (1 << POSITION_BITS) - 1;
+        for (int k = 0; k < _size; ++k)
+            _order[k] = (int) (_entries[k] & mask);
+    }
+
+    /**
+     * Keep the order of the rays as they were added (no sorting)
+     */
+    void keepOrder() {
+        for (int k = 0; k < _size; ++k)
+            _order[k] = k;
+    }
+
+    private static int quantize(double value, int cells) {
+        int cell = (int) value;
+        return cell < 0 ? 0 : Math.min(cell, cells - 1);
+    }
+
+    /**
+     * @return the bits of three coordinates (up to 10 bits each) interleaved - x in the lowest bit
+     */
+    private static long morton(int x, int y, int z) {
+        return spread(x) | spread(y) << 1 | spread(z) << 2;
+    }
+
+    /**
+     * @return the lowest 10 bits of a value spread to every third bit
+     */
+    private static long spread(int value) {
+        long v = value & 0x3ff;
+        v = (v | v << 16) & 0x30000ffL;
+        v = (v | v << 8) & 0x300f00fL;
+        v = (v | v << 4) & 0x30c30c3L;
+        v = (v | v << 2) & 0x9249249L;
+        return v;
+    }
+
+    private void grow() {
+        int length = Math.max(256, 2 * _ox.length);
+        _ox = Arrays.copyOf(_ox, length);
+        _oy = Arrays.copyOf(_oy, length);
+        _oz = Arrays.copyOf(_oz, length);
+        _dx = Arrays.copyOf(_dx, length);
+        _dy = Arrays.copyOf(_dy, length);
+        _dz = Arrays.copyOf(_dz, length);
+        _distance = Arrays.copyOf(_distance, length);
+        _pixel = Arrays.copyOf(_pixel, length);
+        _slot = Arrays.copyOf(_slot, length);
+        _order = Arrays.copyOf(_order, length);
+        _entries = Arrays.copyOf(_entries, length);
+    }
+}
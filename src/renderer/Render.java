@@ -0,0 +1,1119 @@
+package renderer;
+
+import elements.AreaLight;
+import elements.Camera;
+import elements.LightIndex;
+import elements.LightSource;
+import geometries.Geometries;
+import geometries.Geometry;
+import geometries.Hit;
+import geometries.OccluderCache;
+import geometries.RayPacket;
+import primitives.Color;
+import primitives.Material;
+import primitives.Point3D;
+import primitives.Ray;
+import primitives.Vector;
+import scene.Scene;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveAction;
+
+import static primitives.Util.alignZero;
+
+/**
+ * Class Render renders the image of a scene.
+ * <p>
+ * The image is split into square tiles which are rendered concurrently - on a work-stealing fork-join pool
+ * (the tiles range is split recursively in halves, idle workers steal the halves), or, optionally, one virtual
+ * thread per tile when the runtime supports virtual threads. A tile is rendered with a set of scratch objects (hit
+ * record, caches, camera rays generator...) checked out of a pool of a set per worker, so no locks are taken and
+ * no scratch objects are shared while rendering the pixels, and the sets (and their caches) are reused by the
+ * following tiles in both modes. The camera rays are generated incrementally into a reusable ray, so rendering
+ * a pixel allocates nothing but its color.
+ * <p>
+ * Optionally (packet mode) the rays of adjacent pixels in a row of a tile are intersected together as a
+ * {@link RayPacket}, which suits the coherent primary rays.
+ * <p>
+ * Optionally (wavefront mode) a tile is rendered breadth-first in stages over batches of rays kept in
+ * structure-of-arrays {@link RayQueue}s: all the camera rays of the tile are generated, then intersected, then the
+ * hit points are shaded, spawning their shadow rays and the next generation of reflected and transparency rays,
+ * which is intersected and shaded in turn. The secondary rays are sorted by direction and beginning point (Morton
+ * order) before they are traced, so consecutive rays walk the same nodes and geometries. The colors are composed
+ * in the original order, so the image is identical to the depth-first one. Larger tiles make larger batches.
+ * The pixels whose colors are stochastic (see below) are sampled depth-first.
+ * <p>
+ * Optionally (adaptive supersampling) a pixel's color is the average of the rays through its corners, and where
+ * the corners' colors differ beyond a threshold the pixel is split into quarters recursively (down to a given
+ * depth). The samples are kept in a per tile cache on the lattice of the finest subdivision, so a sample at a
+ * corner or on a side is traced once and shared by all the pixels and quarters which meet there; flat areas cost
+ * about one ray per pixel.
+ * <p>
+ * The color of a point is calculated by the Phong model: the emission, the ambient light and the diffusive and
+ * specular reflections of the light sources which are not blocked (shadow rays are any-hit queries through
+ * a per worker {@link OccluderCache}). The light sources are found by a {@link LightIndex}, so a point is lit only
+ * by the lights whose influence reaches it. Reflective and transparent materials add the colors brought by
+ * a reflected and a transparency ray; the recursion stops at a maximal level, and a ray isn't spawned at all once
+ * the attenuation accumulated along its path falls below a minimum (its contribution would be invisible).
+ * <p>
+ * The color seen by a camera ray is stochastic if it depends on samples - of an {@link AreaLight}'s disk (soft
+ * shadows) or of the cone of a glossy reflection or of a blurry transparency. Such a color is the average of
+ * samples whose coordinates are taken from a per worker {@link HaltonSampler} sequence keyed by the ray's pixel
+ * (or supersampling lattice point), so the image is the same for any number of threads; the samples are taken
+ * until the standard error of their average is small enough, so smooth areas take few samples and the penumbras
+ * and the glossy highlights take more.
+ */
+public class Render {
+    private static final int DEFAULT_TILE_SIZE = 16;
+    /**
+     * offset of the shadow rays' beginning from the surface (so the surface doesn't shadow itself)
+     */
+    private static final double DELTA = 0.1;
+    /**
+     * the default difference of a color component (of 255) between the corners of a pixel or of its part which
+     * is split in adaptive supersampling
+     */
+    private static final double DEFAULT_SAMPLING_THRESHOLD = 8;
+    /**
+     * the maximal depth of the adaptive supersampling (a pixel is split into up to 4^depth parts)
+     */
+    private static final int MAX_SAMPLING_DEPTH = 6;
+    /**
+     * the default maximal number of ray generations from the camera (the camera ray is the first)
+     */
+    private static final int MAX_CALC_COLOR_LEVEL = 10;
+    /**
+     * the default minimal attenuation accumulated along a path for which reflected and transparency rays are
+     * still spawned
+     */
+    private static final double MIN_CALC_COLOR_K = 0.001;
+    /**
+     * the default minimal and maximal numbers of the samples of a camera ray whose color is stochastic (it sees
+     * an area light or a glossy or blurry surface)
+     */
+    private static final int DEFAULT_MIN_SAMPLES = 8;
+    private static final int DEFAULT_MAX_SAMPLES = 64;
+    /**
+     * the default standard error (of a color component of 255) of the average of the samples, below which no more
+     * samples are taken
+     */
+    private static final double DEFAULT_NOISE_THRESHOLD = 1;
+    /**
+     * the seed of the randomization of the samples' sequences
+     */
+    private static final long SAMPLER_SEED = 5780;
+
+    final ImageWriter _imageWriter;
+    final Scene _scene;
+    private int _threads = 0;
+    private int _tileSize = DEFAULT_TILE_SIZE;
+    private boolean _virtualThreads = false;
+    private int _packetWidth = 0;
+    private boolean _wavefront = false;
+    private int _samplingDepth = 0;
+    private double _samplingThreshold = DEFAULT_SAMPLING_THRESHOLD;
+    private int _maxCalcColorLevel = MAX_CALC_COLOR_LEVEL;
+    private double _minCalcColorK = MIN_CALC_COLOR_K;
+    private int _minSamples = DEFAULT_MIN_SAMPLES;
+    private int _maxSamples = DEFAULT_MAX_SAMPLES;
+    private double _noiseThreshold = DEFAULT_NOISE_THRESHOLD;
+
+    // the pool of the scratch objects of the current rendering (a set per worker) and whether it runs on virtual
+    // threads
+    private BlockingQueue<Scratch> _scratches;
+    private boolean _onVirtualThreads;
+    private LightIndex _lights;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of a renderer of a scene into an image
+     *
+     * @param imageWriter the image to render into
+     * @param scene       the scene to render
+     */
+    public Render(ImageWriter imageWriter, Scene scene) {
+        _imageWriter = imageWriter;
+        _scene = scene;
+    }
+
+
+    //********** Setters ***********/
+
+    /**
+     * Set the number of the rendering threads
+     *
+     * @param threads number of threads, 0 for all the available processors
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative number of threads
+     */
+    public Render setThreads(int threads) {
+        if (threads < 0)
+            throw new IllegalArgumentException("Number of threads must not be negative");
+        _threads = threads;
+        return this;
+    }
+
+    /**
+     * Set the size of the (square) tiles the image is split into
+     *
+     * @param tileSize size of a tile side in pixels
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a non positive size
+     */
+    public Render setTileSize(int tileSize) {
+        if (tileSize <= 0)
+            throw new IllegalArgumentException("Tile size must be positive");
+        _tileSize = tileSize;
+        return this;
+    }
+
+    /**
+     * Render the tiles on virtual threads instead of the fork-join pool (ignored if the runtime has no
+     * virtual threads - see {@link #isVirtualThreadsSupported()} and {@link #isRenderedOnVirtualThreads()}); the
+     * number of the threads still bounds the number of the tiles rendered at once
+     *
+     * @param virtualThreads true for virtual threads
+     * @return the renderer itself
+     */
+    public Render setVirtualThreads(boolean virtualThreads) {
+        _virtualThreads = virtualThreads;
+        return this;
+    }
+
+    /**
+     * Set the packet mode - the number of the adjacent pixels whose rays are intersected together
+     *
+     * @param packetWidth number of the rays in a packet (e.g. 4 or 8), 0 or 1 turns the packet mode off
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative width
+     */
+    public Render setPacketWidth(int packetWidth) {
+        if (packetWidth < 0)
+            throw new IllegalArgumentException("Packet width must not be negative");
+        _packetWidth = packetWidth;
+        return this;
+    }
+
+    /**
+     * Set the wavefront mode - the rays of a tile are processed in stages over sorted batches (the packet mode is
+     * ignored in this mode)
+     *
+     * @param wavefront true for the wavefront mode
+     * @return the renderer itself
+     */
+    public Render setWavefront(boolean wavefront) {
+        _wavefront = wavefront;
+        return this;
+    }
+
+    /**
+     * Set the adaptive supersampling - the depth a pixel is split to where the colors of its corners differ (the
+     * packet and the wavefront modes are ignored while supersampling)
+     *
+     * @param depth maximal number of the recursive splits of a pixel into quarters, 0 turns the supersampling off
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative depth or a depth above {@value #MAX_SAMPLING_DEPTH}
+     */
+    public Render setSamplingDepth(int depth) {
+        if (depth < 0 || depth > MAX_SAMPLING_DEPTH)
+            throw new IllegalArgumentException("Sampling depth must be between 0 and " + MAX_SAMPLING_DEPTH);
+        _samplingDepth = depth;
+        return this;
+    }
+
+    /**
+     * Set the contrast threshold of the adaptive supersampling
+     *
+     * @param threshold the difference of a color component (of 255) between corners above which a pixel (or its
+     *                  part) is split, 0 splits all the pixels down to the sampling depth
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative threshold
+     */
+    public Render setSamplingThreshold(double threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Sampling threshold must not be negative");
+        _samplingThreshold = threshold;
+        return this;
+    }
+
+
+    /**
+     * Set the maximal depth of the reflection and the transparency
+     *
+     * @param level maximal number of ray generations from the camera, 1 for no reflected and transparency rays
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a non positive level
+     */
+    public Render setMaxCalcColorLevel(int level) {
+        if (level <= 0)
+            throw new IllegalArgumentException("Maximal color calculation level must be positive");
+        _maxCalcColorLevel = level;
+        return this;
+    }
+
+    /**
+     * Set the cutoff of the reflection and the transparency - a reflected or a transparency ray isn't spawned if
+     * the attenuation accumulated along its path from the camera falls below the minimum
+     *
+     * @param k the minimal accumulated attenuation
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative minimum
+     */
+    public Render setMinCalcColorK(double k) {
+        if (k < 0)
+            throw new IllegalArgumentException("Minimal color calculation attenuation must not be negative");
+        _minCalcColorK = k;
+        return this;
+    }
+
+    /**
+     * Set the numbers of the samples of a camera ray whose color is stochastic - the samples are taken until their
+     * average is accurate enough (see {@link #setNoiseThreshold}), at least the minimum and at most the maximum
+     *
+     * @param minSamples minimal number of the samples
+     * @param maxSamples maximal number of the samples
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case the minimum is not positive or it is above the maximum
+     */
+    public Render setSamples(int minSamples, int maxSamples) {
+        if (minSamples <= 0 || minSamples > maxSamples)
+            throw new IllegalArgumentException("Numbers of samples must be positive, the minimum up to the maximum");
+        _minSamples = minSamples;
+        _maxSamples = maxSamples;
+        return this;
+    }
+
+    /**
+     * Set the accuracy of the average of a stochastic color's samples
+     *
+     * @param threshold the standard error (of a color component of 255) of the average below which no more samples
+     *                  are taken, 0 to always take the maximal number of the samples
+     * @return the renderer itself
+     * @throws IllegalArgumentException in case of a negative threshold
+     */
+    public Render setNoiseThreshold(double threshold) {
+        if (threshold < 0)
+            throw new IllegalArgumentException("Noise threshold must not be negative");
+        _noiseThreshold = threshold;
+        return this;
+    }
+
+
+    //********** Operations ***********/
+
+    /**
+     * Render the image of the scene (builds or updates the scene's acceleration structure if it is not built)
+     */
+    public void renderImage() {
+        int threads = _threads == 0 ? Runtime.getRuntime().availableProcessors() : _threads;
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Geometries geometries = _scene.get_geometries();
+            if (!geometries.isHierarchyBuilt())
+                geometries.update(_scene.get_acceleration(), pool);
+            _lights = new LightIndex(_scene.get_lights(), pool);
+
+            Camera camera = _scene.get_camera();
+            _scratches = new ArrayBlockingQueue<>(threads);
+            for (int k = 0; k < threads; ++k) {
+                Scratch scratch = new Scratch(camera.rayGenerator(_imageWriter.getNx(), _imageWriter.getNy(),
+                        _scene.get_distance(), _imageWriter.getWidth(), _imageWriter.getHeight()),
+                        _packetWidth > 1 ? new RayPacket(_packetWidth) : null);
+                if (_samplingDepth > 0) scratch._adaptive = new AdaptiveSampler(scratch);
+                _scratches.add(scratch);
+            }
+
+            int tilesX = (_imageWriter.getNx() + _tileSize - 1) / _tileSize;
+            int tilesY = (_imageWriter.getNy() + _tileSize - 1) / _tileSize;
+            ExecutorService virtual = _virtualThreads ? newVirtualThreadExecutor() : null;
+            _onVirtualThreads = virtual != null;
+            if (virtual == null)
+                pool.invoke(new Tiles(0, tilesX * tilesY, tilesX));
+            else
+                renderOnVirtualThreads(virtual, tilesX * tilesY, tilesX);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * @return true if the last rendering ran on virtual threads (virtual threads were requested and the runtime
+     * supports them), false if it ran on the fork-join pool
+     */
+    public boolean isRenderedOnVirtualThreads() {
+        return _onVirtualThreads;
+    }
+
+    /**
+     * @return true if the runtime supports virtual threads (otherwise {@link #setVirtualThreads} has no effect)
+     */
+    public static boolean isVirtualThreadsSupported() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Print a grid of lines over the image
+     *
+     * @param interval distance in pixels between the lines
+     * @param color    color of the lines
+     */
+    public void printGrid(int interval, Color color) {
+        int nX = _imageWriter.getNx();
+        int nY = _imageWriter.getNy();
+        for (int i = 0; i < nY; ++i)
+            for (int j = 0; j < nX; ++j)
+                if (i % interval == 0 || j % interval == 0)
+                    _imageWriter.writePixel(j, i, color);
+    }
+
+    /**
+     * Write the rendered image into its file
+     */
+    public void writeToImage() {
+        _imageWriter.writeToImage();
+    }
+
+
+    //********** Rendering ***********/
+
+    /**
+     * Render the pixels of a tile with a set of scratch objects checked out of the pool (waits for a free set)
+     *
+     * @param tile   index of the tile (row major)
+     * @param tilesX number of tiles in a row
+     * @throws IllegalStateException in case the rendering thread is interrupted while waiting
+     */
+    private void renderTile(int tile, int tilesX) {
+        Scratch scratch;
+        try {
+            scratch = _scratches.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        }
+        try {
+            renderTile(tile, tilesX, scratch);
+        } finally {
+            _scratches.add(scratch);
+        }
+    }
+
+    /**
+     * Render the pixels of a tile
+     *
+     * @param tile    index of the tile (row major)
+     * @param tilesX  number of tiles in a row
+     * @param scratch the checked out scratch objects
+     */
+    private void renderTile(int tile, int tilesX, Scratch scratch) {
+        Geometries geometries = _scene.get_geometries();
+        Color background = _scene.get_background();
+        Camera.RayGenerator rays = scratch._rays;
+        Hit hit = scratch._hit;
+
+        int x0 = tile % tilesX * _tileSize, y0 = tile / tilesX * _tileSize;
+        int x1 = Math.min(x0 + _tileSize, _imageWriter.getNx());
+        int y1 = Math.min(y0 + _tileSize, _imageWriter.getNy());
+        if (scratch._adaptive != null) {
+            scratch._adaptive.renderTile(x0, y0, x1, y1);
+            return;
+        }
+        if (_wavefront) {
+            renderWavefront(x0, y0, x1, y1, scratch);
+            return;
+        }
+        if (scratch._packet != null) {
+            RayPacket packet = scratch._packet;
+            for (int i = y0; i < y1; ++i)
+                for (int j = x0; j < x1; j += packet.width()) {
+                    packet.reset(Math.min(packet.width(), x1 - j));
+                    for (int k = 0; k < packet.size(); ++k)
+                        packet.setRay(k, j + k == x0 ? rays.rayThroughPixel(x0, i) : rays.nextPixel());
+                    geometries.findNearestIntersections(packet);
+                    for (int k = 0; k < packet.size(); ++k)
+                        _imageWriter.writePixel(j + k, i, !packet.isFound(k) ? background
+                                : calcColor(packet.get_geometry(k), packet.get_index(k), packet.getPoint(k),
+                                packet.getDirection(k), HaltonSampler.key(j + k, i, 0), scratch));
+                }
+            return;
+        }
+        for (int i = y0; i < y1; ++i)
+            for (int j = x0; j < x1; ++j) {
+                Ray ray = j == x0 ? rays.rayThroughPixel(j, i) : rays.nextPixel();
+                _imageWriter.writePixel(j, i,
+                        geometries.findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit.reset())
+                                ? calcColor(hit.get_geometry(), hit.get_index(), hit.getPoint(), ray.get_direction(),
+                                HaltonSampler.key(j, i, 0), scratch)
+                                : background);
+            }
+    }
+
+    /**
+     * Render the pixels of a tile in the wavefront mode, generation by generation of rays: intersect the rays
+     * (the camera rays in their order, the reflected and transparency rays sorted), shade the hit points spawning
+     * the shadow rays and the next generation; then sort and trace all the shadow rays, and compose the colors
+     * from the last generation back to the pixels. A pixel found to need stochastic sampling (an area light, a glossy
+     * or blurry surface) spawns no more rays and is rendered depth-first instead
+     *
+     * @param x0      first column of the tile
+     * @param y0      first row of the tile
+     * @param x1      column after the tile
+     * @param y1      row after the tile
+     * @param scratch the checked out scratch objects
+     */
+    private void renderWavefront(int x0, int y0, int x1, int y1, Scratch scratch) {
+        Geometries geometries = _scene.get_geometries();
+        Camera.RayGenerator rays = scratch._rays;
+        Wavefront wave = scratch.wavefront();
+        RayQueue queue = wave._rays, next = wave._next, shadows = wave._shadows;
+        Ray ray = wave._ray;
+        Hit hit = scratch._hit;
+
+        // generate - a node per pixel
+        int width = x1 - x0;
+        wave._nodes = 0;
+        queue.clear();
+        shadows.clear();
+        for (int i = y0; i < y1; ++i)
+            for (int j = x0; j < x1; ++j)
+                queue.add(j == x0 ? rays.rayThroughPixel(j, i) : rays.nextPixel(), Double.POSITIVE_INFINITY,
+                        wave.addNode(_maxCalcColorLevel, 1, wave._nodes), 0);
+        int pixels = wave._nodes;
+        wave.ensurePixels(pixels);
+        for (int p = 0; p < pixels; ++p) {
+            wave._vx[p] = queue._dx[p];
+            wave._vy[p] = queue._dy[p];
+            wave._vz[p] = queue._dz[p];
+            wave._stochastic[p] = false;
+        }
+
+        Color ambient = _scene.get_ambientLight().getIntensity();
+        for (boolean cameraRays = true; queue._size > 0; cameraRays = false) {
+            // intersect
+            if (cameraRays) queue.keepOrder();
+            else queue.sort();
+            for (int k = 0; k < queue._size; ++k) {
+                int s = queue._order[k], node = queue._pixel[s];
+                if (wave._stochastic[wave._pixel[node]]) continue;
+                if (!geometries.findNearestIntersection(queue.get(s, ray), queue._distance[s], hit.reset())) {
+                    wave._geometry[node] = null;
+                    continue;
+                }
+                wave._geometry[node] = hit.get_geometry();
+                wave._index[node] = hit.get_index();
+                wave._px[node] = hit.getX();
+                wave._py[node] = hit.getY();
+                wave._pz[node] = hit.getZ();
+            }
+
+            // shade, spawning the shadow rays and the next generation (none for a pixel sampled depth-first)
+            next.clear();
+            for (int s = 0; s < queue._size; ++s) {
+                int node = queue._pixel[s], pixel = wave._pixel[node];
+                if (wave._stochastic[pixel]) continue;
+                Geometry geometry = wave._geometry[node];
+                if (geometry == null) {
+                    wave._colors[node] = _scene.get_background();
+                    continue;
+                }
+                wave._colors[node] = ambient.add(geometry.get_emission());
+                Point3D point = new Point3D(wave._px[node], wave._py[node], wave._pz[node]);
+                Vector v = queue.get(s, ray).get_direction();
+                Vector n = geometry.getNormal(point, wave._index[node]);
+                double nv = alignZero(n.dotProduct(v));
+                if (nv == 0) continue;
+                Material material = geometry.get_material();
+                LightIndex.Lights lights = _lights.findLights(point, scratch._lights);
+                int firstShadow = shadows._size;
+                for (int k = 0; k < lights.size(); ++k) {
+                    int slot = lights.get(k);
+                    LightSource light = _lights.get(slot);
+                    Vector l = light.getL(point);
+                    double nl = alignZero(n.dotProduct(l));
+                    if (nl * nv <= 0) continue;
+                    if (isArea(light)) {
+                        wave._stochastic[pixel] = true;
+                        break;
+                    }
+                    Ray shadowRay = shadowRay(l, n, nl, point, scratch._shadowRay);
+                    int shadow = shadows._size;
+                    shadows.add(shadowRay, light.getDistance(shadowRay.get_p00()), node, slot);
+                    Color lightIntensity = light.getIntensity(point);
+                    wave.ensureShadows(shadow + 1);
+                    wave._diffuse[shadow] = calcDiffusive(material.get_kD(), nl, lightIntensity);
+                    wave._specular[shadow] = calcSpecular(material.get_kS(), l, n, nl, v,
+                            material.get_nShininess(), lightIntensity);
+                }
+                if (wave._stochastic[pixel]) {
+                    shadows._size = firstShadow;
+                    continue;
+                }
+                int level = wave._level[node];
+                if (level == 1) continue;
+                double k = wave._k[node], kR = material.get_kR(), kT = material.get_kT();
+                if (isVisible(k, kR) && material.get_glossiness() > 0 || isVisible(k, kT) && material.get_blur() > 0) {
+                    wave._stochastic[pixel] = true;
+                    shadows._size = firstShadow;
+                    continue;
+                }
+                if (isVisible(k, kR)) {
+                    int child = wave.addNode(level - 1, k * kR, pixel);
+                    wave._reflected[node] = child;
+                    next.add(reflectedRay(point, n, v, nv, scratch._bounceRay), Double.POSITIVE_INFINITY, child, 0);
+                }
+                if (isVisible(k, kT)) {
+                    int child = wave.addNode(level - 1, k * kT, pixel);
+                    wave._refracted[node] = child;
+                    next.add(refractedRay(point, n, v, nv, scratch._bounceRay), Double.POSITIVE_INFINITY, child, 0);
+                }
+            }
+            RayQueue spawned = next;
+            next = queue;
+            queue = spawned;
+        }
+
+        // sort and trace the shadow rays (but those of the pixels found stochastic after they were spawned)
+        shadows.sort();
+        for (int k = 0; k < shadows._size; ++k) {
+            int s = shadows._order[k];
+            wave._occluded[s] = wave._stochastic[wave._pixel[shadows._pixel[s]]]
+                    || scratch._occluders.isOccluded(geometries, shadows._slot[s], shadows.get(s, ray),
+                    shadows._distance[s]);
+        }
+
+        // compose (in the order of the lights, and the children before their parents, as the depth-first shading)
+        // skipping the stochastic pixels
+        for (int s = 0; s < shadows._size; ++s)
+            if (!wave._occluded[s]) {
+                int node = shadows._pixel[s];
+                wave._colors[node] = wave._colors[node].add(wave._diffuse[s], wave._specular[s]);
+            }
+        for (int node = wave._nodes - 1; node >= 0; --node) {
+            int reflected = wave._reflected[node], refracted = wave._refracted[node];
+            if (reflected < 0 && refracted < 0 || wave._stochastic[wave._pixel[node]]) continue;
+            Material material = wave._geometry[node].get_material();
+            wave._colors[node] = wave._colors[node].add(
+                    reflected < 0 ? Color.BLACK : wave._colors[reflected].scale(material.get_kR()),
+                    refracted < 0 ? Color.BLACK : wave._colors[refracted].scale(material.get_kT()));
+        }
+        // the stochastic pixels are sampled depth-first
+        for (int p = 0; p < pixels; ++p)
+            if (wave._stochastic[p])
+                wave._colors[p] = calcColor(wave._geometry[p], wave._index[p],
+                        new Point3D(wave._px[p], wave._py[p], wave._pz[p]),
+                        new Vector(wave._vx[p], wave._vy[p], wave._vz[p]),
+                        HaltonSampler.key(x0 + p % width, y0 + p / width, 0), scratch);
+        for (int p = 0; p < pixels; ++p)
+            _imageWriter.writePixel(x0 + p % width, y0 + p / width, wave._colors[p]);
+    }
+
+    /**
+     * The color of an intersection point seen by a camera ray. If the color is stochastic (a sample coordinate
+     * was taken while calculating it) it is the average of the samples of the ray's sequence, taken until the
+     * average's standard error falls below the noise threshold
+     *
+     * @param key the key of the camera ray's sequence of samples (see {@link HaltonSampler#key})
+     */
+    private Color calcColor(Geometry geometry, int index, Point3D point, Vector v, long key, Scratch scratch) {
+        HaltonSampler sampler = scratch._sampler;
+        sampler.start(key, 0);
+        Color color = calcColor(geometry, index, point, v, _maxCalcColorLevel, 1, scratch);
+        if (!sampler.isUsed()) return color;
+        double r = color.getR(), g = color.getG(), b = color.getB();
+        double r2 = r * r, g2 = g * g, b2 = b * b;
+        int samples = 1;
+        while (samples < _maxSamples && (samples < _minSamples
+                || isNoisy(r, r2, samples) || isNoisy(g, g2, samples) || isNoisy(b, b2, samples))) {
+            sampler.start(key, samples++);
+            color = calcColor(geometry, index, point, v, _maxCalcColorLevel, 1, scratch);
+            r += color.getR();
+            g += color.getG();
+            b += color.getB();
+            r2 += color.getR() * color.getR();
+            g2 += color.getG() * color.getG();
+            b2 += color.getB() * color.getB();
+        }
+        return new Color(r / samples, g / samples, b / samples);
+    }
+
+    /**
+     * Whether the average of samples of a color component is not accurate enough
+     *
+     * @param sum        the sum of the samples
+     * @param sumSquares the sum of the samples' squares
+     * @param samples    the number of the samples
+     * @return true if the standard error of the average is above the noise threshold
+     */
+    private boolean isNoisy(double sum, double sumSquares, int samples) {
+        if (samples < 2) return true;
+        double variance = (sumSquares - sum * sum / samples) / (samples - 1);
+        return variance > _noiseThreshold * _noiseThreshold * samples;
+    }
+
+    /**
+     * The color of an intersection point (Phong model) with the reflection and the transparency
+     *
+     * @param geometry the intersected geometry
+     * @param index    the intersected element of the geometry
+     * @param point    the intersection point
+     * @param v        direction of the ray
+     * @param level    number of the ray generations left (1 - no more reflected or transparency rays)
+     * @param k        the attenuation accumulated along the path from the camera to the point
+     * @param scratch  the checked out scratch objects
+     * @return the color
+     */
+    private Color calcColor(Geometry geometry, int index, Point3D point, Vector v, int level, double k,
+                            Scratch scratch) {
+        Color color = _scene.get_ambientLight().getIntensity().add(geometry.get_emission());
+        Vector n = geometry.getNormal(point, index);
+        double nv = alignZero(n.dotProduct(v));
+        if (nv == 0) return color;
+        Material material = geometry.get_material();
+        LightIndex.Lights lights = _lights.findLights(point, scratch._lights);
+        for (int i = 0; i < lights.size(); ++i) {
+            int slot = lights.get(i);
+            LightSource light = _lights.get(slot);
+            Vector l = light.getL(point);
+            double nl = alignZero(n.dotProduct(l));
+            if (nl * nv <= 0 || isShadowed(slot, light, l, n, nl, point, scratch)) continue;
+            Color lightIntensity = light.getIntensity(point);
+            color = color.add(calcDiffusive(material.get_kD(), nl, lightIntensity),
+                    calcSpecular(material.get_kS(), l, n, nl, v, material.get_nShininess(), lightIntensity));
+        }
+        if (level == 1) return color;
+        double kR = material.get_kR(), kT = material.get_kT();
+        boolean reflects = isVisible(k, kR), transparent = isVisible(k, kT);
+        if (!reflects && !transparent) return color;
+        Color reflected = !reflects ? Color.BLACK : calcGlobalEffect(scatter(reflectedRay(point, n, v, nv,
+                scratch._bounceRay), n, material.get_glossiness(), scratch._sampler), kR, level, k, scratch);
+        Color refracted = !transparent ? Color.BLACK : calcGlobalEffect(scatter(refractedRay(point, n, v, nv,
+                scratch._bounceRay), n, material.get_blur(), scratch._sampler), kT, level, k, scratch);
+        return color.add(reflected, refracted);
+    }
+
+    /**
+     * The color brought by a reflected or a transparency ray
+     *
+     * @param ray   the ray (the scratch reusable ray - it is overwritten by the deeper generations)
+     * @param kx    the attenuation factor of the reflection or of the transparency
+     * @param level number of the ray generations left at the ray's beginning
+     * @param k     the attenuation accumulated along the path to the ray's beginning
+     * @return the attenuated color
+     */
+    private Color calcGlobalEffect(Ray ray, double kx, int level, double k, Scratch scratch) {
+        Hit hit = scratch._hit;
+        if (!_scene.get_geometries().findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit.reset()))
+            return _scene.get_background().scale(kx);
+        return calcColor(hit.get_geometry(), hit.get_index(), hit.getPoint(), ray.get_direction(), level - 1,
+                k * kx, scratch).scale(kx);
+    }
+
+    /**
+     * Whether a reflected or a transparency ray is worth tracing - its contribution to the pixel is visible
+     *
+     * @param k  the attenuation accumulated along the path to the ray's beginning
+     * @param kx the attenuation factor of the reflection or of the transparency
+     * @return true if the accumulated attenuation with the factor stays above the minimum
+     */
+    private boolean isVisible(double k, double kx) {
+        return kx != 0 && k * kx >= _minCalcColorK;
+    }
+
+    /**
+     * Whether a light source is blocked from a point - an any-hit shadow ray from the point (moved a bit off the
+     * surface towards the light) to the light
+     *
+     * @return true if the point is in the shadow of the light
+     */
+    private boolean isShadowed(int slot, LightSource light, Vector l, Vector n, double nl, Point3D point,
+                               Scratch scratch) {
+        if (isArea(light)) return isShadowed(slot, (AreaLight) light, n, nl, point, scratch);
+        Ray shadowRay = shadowRay(l, n, nl, point, scratch._shadowRay);
+        return scratch._occluders.isOccluded(_scene.get_geometries(), slot, shadowRay,
+                light.getDistance(shadowRay.get_p00()));
+    }
+
+    /**
+     * Whether a sample point of an area light is blocked from a point - a shadow ray to the sample point (the
+     * sample's coordinates are the next coordinates of the scratch sampler)
+     *
+     * @return true if the sample point is in the shadow or behind the surface
+     */
+    private boolean isShadowed(int slot, AreaLight light, Vector n, double nl, Point3D point, Scratch scratch) {
+        HaltonSampler sampler = scratch._sampler;
+        Point3D sample = light.getSamplePoint(point, sampler.next(), sampler.next());
+        double lx = point.getX() - sample.getX(), ly = point.getY() - sample.getY(), lz = point.getZ() - sample.getZ();
+        double nls = n.getX() * lx + n.getY() * ly + n.getZ() * lz;
+        if (nls * nl <= 0) return true;
+        Ray shadowRay = offsetRay(point, n, -lx, -ly, -lz, -nls, scratch._shadowRay);
+        return scratch._occluders.isOccluded(_scene.get_geometries(), slot, shadowRay,
+                shadowRay.get_p00().distance(sample));
+    }
+
+    private static boolean isArea(LightSource light) {
+        return light instanceof AreaLight && ((AreaLight) light).get_size() > 0;
+    }
+
+    /**
+     * Scatter the direction of a reflected or a transparency ray in the cone around it (the sample's coordinates
+     * are the next coordinates of the sampler); a direction scattered to the other side of the surface is not
+     * taken, the ray is kept
+     *
+     * @param ray     the ray
+     * @param n       the normal of the surface at the ray's beginning
+     * @param spread  radius of the cone at the unit distance, 0 - the ray is kept (no coordinates are taken)
+     * @param sampler the scratch sampler
+     * @return the ray
+     */
+    private static Ray scatter(Ray ray, Vector n, double spread, HaltonSampler sampler) {
+        if (spread == 0) return ray;
+        double dx = ray.getDirectionX(), dy = ray.getDirectionY(), dz = ray.getDirectionZ();
+        // axes of the cone's base - perpendicular to the direction and to each other
+        double ax, ay, az;
+        if (Math.abs(dx) < 0.9) {
+            ax = 0;
+            ay = dz;
+            az = -dy;
+        } else {
+            ax = -dz;
+            ay = 0;
+            az = dx;
+        }
+        double a = Math.sqrt(ax * ax + ay * ay + az * az);
+        ax /= a;
+        ay /= a;
+        az /= a;
+        double bx = dy * az - dz * ay, by = dz * ax - dx * az, bz = dx * ay - dy * ax;
+        double r = spread * Math.sqrt(sampler.next()), angle = 2 * Math.PI * sampler.next();
+        double s = r * Math.cos(angle), t = r * Math.sin(angle);
+        double sx = dx + s * ax + t * bx, sy = dy + s * ay + t * by, sz = dz + s * az + t * bz;
+        double nx = n.getX(), ny = n.getY(), nz = n.getZ();
+        if ((nx * dx + ny * dy + nz * dz) * (nx * sx + ny * sy + nz * sz) <= 0) return ray;
+        return ray.set(ray.getOriginX(), ray.getOriginY(), ray.getOriginZ(), sx, sy, sz);
+    }
+
+    /**
+     * Set a reusable ray to the shadow ray from a point to a light
+     *
+     * @return the reusable ray
+     */
+    private static Ray shadowRay(Vector l, Vector n, double nl, Point3D point, Ray ray) {
+        return offsetRay(point, n, -l.getX(), -l.getY(), -l.getZ(), -nl, ray);
+    }
+
+    /**
+     * Set a reusable ray to the mirror reflection of a ray at a point
+     *
+     * @return the reusable ray
+     */
+    private static Ray reflectedRay(Point3D point, Vector n, Vector v, double nv, Ray ray) {
+        return offsetRay(point, n, v.getX() - 2 * nv * n.getX(), v.getY() - 2 * nv * n.getY(),
+                v.getZ() - 2 * nv * n.getZ(), -nv, ray);
+    }
+
+    /**
+     * Set a reusable ray to the continuation of a ray through the surface at a point (no bending)
+     *
+     * @return the reusable ray
+     */
+    private static Ray refractedRay(Point3D point, Vector n, Vector v, double nv, Ray ray) {
+        return offsetRay(point, n, v.getX(), v.getY(), v.getZ(), nv, ray);
+    }
+
+    /**
+     * Set a reusable ray beginning at a point moved a bit off the surface to the side the ray goes to (so the
+     * surface doesn't block or intersect its own secondary ray)
+     *
+     * @param nd the dot product of the surface's normal and the ray's direction
+     * @return the reusable ray
+     */
+    private static Ray offsetRay(Point3D point, Vector n, double dx, double dy, double dz, double nd, Ray ray) {
+        double delta = nd > 0 ? DELTA : -DELTA;
+        double ox = point.getX() + delta * n.getX(), oy = point.getY() + delta * n.getY();
+        double oz = point.getZ() + delta * n.getZ();
+        return ray.set(ox, oy, oz, dx, dy, dz);
+    }
+
+    private static Color calcDiffusive(double kD, double nl, Color lightIntensity) {
+        return lightIntensity.scale(kD * Math.abs(nl));
+    }
+
+    private static Color calcSpecular(double kS, Vector l, Vector n, double nl, Vector v, int nShininess,
+                                      Color lightIntensity) {
+        Vector r = l.add(n.scale(-2 * nl)); // the reflection of the light's direction
+        double minusVR = -alignZero(r.dotProduct(v));
+        if (minusVR <= 0) return Color.BLACK;
+        return lightIntensity.scale(kS * Math.pow(minusVR, nShininess));
+    }
+
+    /**
+     * The adaptive supersampling of the tiles rendered with a set of scratch objects. The samples of a tile are
+     * cached on the lattice of the finest subdivision of its pixels (cells per pixel side = 2^depth), so each
+     * lattice point is traced at most once per tile.
+     */
+    private final class AdaptiveSampler {
+        private final int _cells = 1 << _samplingDepth;
+        private final double _threshold = _samplingThreshold;
+        private final Camera.RayGenerator _generator;
+        private final Scratch _scratch;
+        private Color[] _samples = new Color[0];
+        private int _stride;
+        private int _x0, _y0;
+
+        AdaptiveSampler(Scratch scratch) {
+            _generator = scratch._rays;
+            _scratch = scratch;
+        }
+
+        /**
+         * Render the pixels of a tile
+         */
+        void renderTile(int x0, int y0, int x1, int y1) {
+            _x0 = x0;
+            _y0 = y0;
+            _stride = (x1 - x0) * _cells + 1;
+            int size = _stride * ((y1 - y0) * _cells + 1);
+            if (_samples.length < size) _samples = new Color[size];
+            else Arrays.fill(_samples, 0, size, null);
+            for (int i = y0; i < y1; ++i)
+                for (int j = x0; j < x1; ++j)
+                    _imageWriter.writePixel(j, i, calcColor((j - x0) * _cells, (i - y0) * _cells, _cells));
+        }
+
+        /**
+         * The color of a square of the lattice - the average of its corners if they are close, otherwise the
+         * average of its quarters
+         *
+         * @param u    lattice column of the square's top left corner
+         * @param v    lattice row of the square's top left corner
+         * @param size lattice cells of the square's side
+         * @return the color
+         */
+        private Color calcColor(int u, int v, int size) {
+            Color c00 = sample(u, v), c10 = sample(u + size, v);
+            Color c01 = sample(u, v + size), c11 = sample(u + size, v + size);
+            if (size == 1 || isClose(c00, c10, c01, c11))
+                return c00.add(c10, c01, c11).reduce(4);
+            int half = size / 2;
+            return calcColor(u, v, half).add(calcColor(u + half, v, half), calcColor(u, v + half, half),
+                    calcColor(u + half, v + half, half)).reduce(4);
+        }
+
+        /**
+         * The color of the ray through a lattice point (traced on the first request)
+         */
+        private Color sample(int u, int v) {
+            int index = v * _stride + u;
+            Color color = _samples[index];
+            if (color == null) {
+                Ray ray = _generator.rayThroughPoint(_x0 - 0.5 + (double) u / _cells,
+                        _y0 - 0.5 + (double) v / _cells);
+                Hit hit = _scratch._hit;
+                _samples[index] = color =
+                        _scene.get_geometries().findNearestIntersection(ray, Double.POSITIVE_INFINITY, hit.reset())
+                                ? Render.this.calcColor(hit.get_geometry(), hit.get_index(), hit.getPoint(),
+                                ray.get_direction(), HaltonSampler.key(_x0 * _cells + u, _y0 * _cells + v, _cells),
+                                _scratch)
+                                : _scene.get_background();
+            }
+            return color;
+        }
+
+        private boolean isClose(Color c00, Color c10, Color c01, Color c11) {
+            double minR = Math.min(Math.min(c00.getR(), c10.getR()), Math.min(c01.getR(), c11.getR()));
+            double maxR = Math.max(Math.max(c00.getR(), c10.getR()), Math.max(c01.getR(), c11.getR()));
+            double minG = Math.min(Math.min(c00.getG(), c10.getG()), Math.min(c01.getG(), c11.getG()));
+            double maxG = Math.max(Math.max(c00.getG(), c10.getG()), Math.max(c01.getG(), c11.getG()));
+            double minB = Math.min(Math.min(c00.getB(), c10.getB()), Math.min(c01.getB(), c11.getB()));
+            double maxB = Math.max(Math.max(c00.getB(), c10.getB()), Math.max(c01.getB(), c11.getB()));
+            return maxR - minR <= _threshold && maxG - minG <= _threshold && maxB - minB <= _threshold;
+        }
+    }
+
+    /**
+     * Fork-join task rendering a range of tiles - splits the range in halves down to a single tile
+     */
+    private class Tiles extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int _from;
+        private final int _to;
+        private final int _tilesX;
+
+        Tiles(int from, int to, int tilesX) {
+            _from = from;
+            _to = to;
+            _tilesX = tilesX;
+        }
+
+        @Override
+        protected void compute() {
+            if (_to - _from <= 1) {
+                if (_from < _to) renderTile(_from, _tilesX);
+                return;
+            }
+            int middle = (_from + _to) >>> 1;
+            invokeAll(new Tiles(_from, middle, _tilesX), new Tiles(middle, _to, _tilesX));
+        }
+    }
+
+    /**
+     * Render the tiles, a virtual thread per tile, and wait for all of them
+     *
+     * @param executor virtual thread per task executor
+     * @param tiles    number of tiles
+     * @param tilesX   number of tiles in a row
+     */
+    private void renderOnVirtualThreads(ExecutorService executor, int tiles, int tilesX) {
+        try {
+            List<Callable<Void>> tasks = new ArrayList<>(tiles);
+            for (int tile = 0; tile < tiles; ++tile) {
+                int index = tile;
+                tasks.add(() -> {
+                    renderTile(index, tilesX);
+                    return null;
+                });
+            }
+            for (Future<Void> future : executor.invokeAll(tasks))
+                future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendering was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Rendering failed", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * The virtual thread per task executor is looked up reflectively, so the renderer still runs (on the
+     * fork-join pool) on runtimes without virtual threads
+     *
+     * @return new virtual thread per task executor, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The scratch objects of a rendering worker - a tile is rendered with a set checked out of the pool, so the
+     * sets are reused by the following tiles (their caches stay warm) and at most one set per worker is allocated
+     */
+    private static final class Scratch {
+        final Camera.RayGenerator _rays;
+        final RayPacket _packet;
+        AdaptiveSampler _adaptive;
+        final Hit _hit = new Hit();
+        final Ray _shadowRay = new Ray();
+        final Ray _bounceRay = new Ray();
+        final HaltonSampler _sampler = new HaltonSampler(SAMPLER_SEED);
+        final OccluderCache _occluders = new OccluderCache();
+        final LightIndex.Lights _lights = new LightIndex.Lights();
+        private Wavefront _wavefront;
+
+        /**
+         * @param rays   the camera rays generator
+         * @param packet the rays packet, null if the packet mode is off
+         */
+        Scratch(Camera.RayGenerator rays, RayPacket packet) {
+            _rays = rays;
+            _packet = packet;
+        }
+
+        Wavefront wavefront() {
+            if (_wavefront == null) _wavefront = new Wavefront();
+            return _wavefront;
+        }
+    }
+
+    /**
+     * The queues and the per ray results of a set of scratch objects in the wavefront mode. Every traced ray (camera,
+     * reflected or transparency ray) is a node - its hit, color, generations left, accumulated attenuation, its
+     * children and its pixel; the children are always added after their parent.
+     */
+    private static final class Wavefront {
+        final RayQueue _rays = new RayQueue();
+        final RayQueue _next = new RayQueue();
+        final RayQueue _shadows = new RayQueue();
+        final Ray _ray = new Ray();
+        int _nodes;
+        Geometry[] _geometry = new Geometry[0];
+        int[] _index = new int[0];
+        double[] _px = new double[0], _py = new double[0], _pz = new double[0];
+        Color[] _colors = new Color[0];
+        int[] _level = new int[0];
+        double[] _k = new double[0];
+        int[] _reflected = new int[0], _refracted = new int[0];
+        int[] _pixel = new int[0];
+        // the directions of the camera rays and whether their colors are stochastic
+        double[] _vx = new double[0], _vy = new double[0], _vz = new double[0];
+        boolean[] _stochastic = new boolean[0];
+        Color[] _diffuse = new Color[0], _specular = new Color[0];
+        boolean[] _occluded = new boolean[0];
+
+        /**
+         * @return the index of the new node
+         */
+        int addNode(int level, double k, int pixel) {
+            if (_nodes == _geometry.length) {
+                int length = Math.max(256, 2 * _nodes);
+                _geometry = Arrays.copyOf(_geometry, length);
+                _index = Arrays.copyOf(_index, length);
+                _px = Arrays.copyOf(_px, length);
+                _py = Arrays.copyOf(_py, length);
+                _pz = Arrays.copyOf(_pz, length);
+                _colors = Arrays.copyOf(_colors, length);
+                _level = Arrays.copyOf(_level, length);
+                _k = Arrays.copyOf(_k, length);
+                _reflected = Arrays.copyOf(_reflected, length);
+                _refracted = Arrays.copyOf(_refracted, length);
+                _pixel = Arrays.copyOf(_pixel, length);
+            }
+            int node = _nodes++;
+            _level[node] = level;
+            _k[node] = k;
+            _reflected[node] = -1;
+            _refracted[node] = -1;
+            _pixel[node] = pixel;
+            return node;
+        }
+
+        void ensurePixels(int pixels) {
+            if (pixels <= _vx.length) return;
+            _vx = new double[pixels];
+            _vy = new double[pixels];
+            _vz = new double[pixels];
+            _stochastic = new boolean[pixels];
+        }
+
+        void ensureShadows(int shadows) {
+            if (shadows <= _diffuse.length) return;
+            int length = Math.max(shadows, 2 * _diffuse.length);
+            _diffuse = Arrays.copyOf(_diffuse, length);
+            _specular = Arrays.copyOf(_specular, length);
+            _occluded = Arrays.copyOf(_occluded, length);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package scene;
+
+import elements.AmbientLight;
+import elements.Camera;
+import elements.LightSource;
+import geometries.Geometries;
+import geometries.Geometries.Acceleration;
+import geometries.Intersectable;
+import primitives.Color;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Class Scene holds everything needed for rendering an image - the geometries, the lights, the camera and
+ * the view plane distance, and the kind of the acceleration structure the geometries are built into
+ */
+public class Scene {
+    final String _name;
+    final Geometries _geometries = new Geometries();
+    final List<LightSource> _lights = new ArrayList<>();
+    Color _background = Color.BLACK;
+    AmbientLight _ambientLight = new AmbientLight(Color.BLACK, 0);
+    Camera _camera;
+    double _distance;
+    Acceleration _acceleration = Acceleration.BVH;
+
+
+    //*********** Constructors ***********//
+
+    /**
+     * Constructor of an empty scene
+     *
+     * @param name the name of the scene
+     */
+    public Scene(String name) {
+        _name = name;
+    }
+
+
+    //********** Getters ***********/
+
+    public String get_name() {
+        return _name;
+    }
+
+    public Geometries get_geometries() {
+        return _geometries;
+    }
+
+    public List<LightSource> get_lights() {
+        return _lights;
+    }
+
+    public Color get_background() {
+        return _background;
+    }
+
+    public AmbientLight get_ambientLight() {
+        return _ambientLight;
+    }
+
+    public Camera get_camera() {
+        return _camera;
+    }
+
+    public double get_distance() {
+        return _distance;
+    }
+
+    public Acceleration get_acceleration() {
+        return _acceleration;
+    }
+
+
+    //********** Setters ***********/
+
+    public Scene setBackground(Color background) {
+        _background = background;
+        return this;
+    }
+
+    public Scene setAmbientLight(AmbientLight ambientLight) {
+        _ambientLight = ambientLight;
+        return this;
+    }
+
+    public Scene setCamera(Camera camera) {
+        _camera = camera;
+        return this;
+    }
+
+    public Scene setDistance(double distance) {
+        _distance = distance;
+        return this;
+    }
+
+    /**
+     * Select the acceleration structure the geometries are built into when the scene is rendered
+     * (a grid is built faster than a hierarchy, a hierarchy adapts better to unevenly distributed geometries)
+     *
+     * @param acceleration the kind of the acceleration structure
+     * @return the scene itself
+     */
+    public Scene setAcceleration(Acceleration acceleration) {
+        _acceleration = acceleration;
+        return this;
+    }
+
+    /**
+     * Add geometries to the scene
+     *
+     * @param geometries the geometries to add
+     * @return the scene itself
+     */
+    public Scene addGeometries(Intersectable... geometries) {
+        _geometries.add(geometries);
+        return this;
+    }
+
+    /**
+     * Add light sources to the scene
+     *
+     * @param lights the lights to add
+     * @return the scene itself
+     */
+    public Scene addLights(LightSource... lights) {
+        _lights.addAll(List.of(lights));
+        return this;
+    }
+}